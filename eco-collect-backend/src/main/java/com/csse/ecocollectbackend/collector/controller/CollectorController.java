@@ -2,19 +2,24 @@ package com.csse.ecocollectbackend.collector.controller;
 
 import com.csse.ecocollectbackend.collector.dto.CollectionUpdateRequest;
 import com.csse.ecocollectbackend.collector.dto.CollectorNotificationDTO;
+import com.csse.ecocollectbackend.collector.dto.CollectorRouteChangesDTO;
 import com.csse.ecocollectbackend.collector.dto.CollectorRouteDTO;
+import com.csse.ecocollectbackend.collector.dto.StopSyncRequest;
+import com.csse.ecocollectbackend.collector.dto.StopSyncResponse;
 import com.csse.ecocollectbackend.collector.service.CollectorService;
+import com.csse.ecocollectbackend.collector.service.CollectorSyncService;
+import com.csse.ecocollectbackend.common.storage.PhotoStore;
+import com.csse.ecocollectbackend.dispatcher.common.dto.ApiResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
 import java.util.List;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/collector")
@@ -24,11 +29,24 @@ public class CollectorController {
     @Autowired
     private CollectorService collectorService;
 
+    @Autowired
+    private CollectorSyncService collectorSyncService;
+
+    @Autowired
+    private PhotoStore photoStore;
+
     @GetMapping("/{collectorId}/routes/today")
     public List<CollectorRouteDTO> getTodaysRoutes(@PathVariable Integer collectorId) {
         return collectorService.getTodaysRoutes(collectorId);
     }
 
+    // Only what changed since the version from the previous call; omit since for a full download
+    @GetMapping("/{collectorId}/routes/today/changes")
+    public CollectorRouteChangesDTO getTodaysRouteChanges(@PathVariable Integer collectorId,
+                                                          @RequestParam(required = false) Long since) {
+        return collectorService.getTodaysRouteChanges(collectorId, since);
+    }
+
     @PostMapping("/collections/mark")
     public ResponseEntity<String> markBinCollected(
             @RequestParam String binId,
@@ -40,12 +58,10 @@ public class CollectorController {
     ) throws IOException {
         String photoUrl = null;
         if (photo != null && !photo.isEmpty()) {
-            // Save the file locally or cloud storage
-            String filename = UUID.randomUUID() + "_" + photo.getOriginalFilename();
-            Path filePath = Paths.get("uploads/" + filename);
-            Files.createDirectories(filePath.getParent());
-            Files.write(filePath, photo.getBytes());
-            photoUrl = "/uploads/" + filename;  // store relative URL
+            // Streamed into the photo store; a retried upload of the same photo reuses the stored copy
+            try (InputStream content = photo.getInputStream()) {
+                photoUrl = photoStore.store(content, photo.getContentType()).getUrl();
+            }
         }
 
         CollectionUpdateRequest request = new CollectionUpdateRequest();
@@ -61,6 +77,25 @@ public class CollectorController {
     }
 
 
+    // Applies the stop events a tablet queued while offline; safe to retry with the same idempotency keys
+    @PostMapping("/{collectorId}/sync")
+    public ResponseEntity<ApiResponse<StopSyncResponse>> syncStopEvents(@PathVariable Integer collectorId,
+                                                                        @RequestBody StopSyncRequest request) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Stop events synced",
+                    collectorSyncService.sync(collectorId, request.getEvents())));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (DuplicateKeyException e) {
+            // The same keys are being synced by another request right now; retrying returns them as duplicates
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("These events are being synced by another request; retry to get their results"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to sync stop events: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/collections/report")
     public ResponseEntity<String> reportIssue(@RequestBody CollectionUpdateRequest request) {
         collectorService.reportIssue(request);
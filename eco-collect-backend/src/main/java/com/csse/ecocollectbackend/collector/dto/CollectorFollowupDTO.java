@@ -0,0 +1,16 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectorFollowupDTO {
+    private Integer followupId;
+    private String binId;
+    private String status;
+    private String priority;
+    private String dueAt;
+}
@@ -0,0 +1,16 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat followup row for a collector's delta download
+ */
+public interface CollectorFollowupView {
+    Integer getFollowupId();
+    String getBinId();
+    FollowupPickup.FollowupStatus getStatus();
+    FollowupPickup.Priority getPriority();
+    LocalDateTime getDueAt();
+}
@@ -0,0 +1,26 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * What changed on a collector's routes for one day since the device's last cursor
+ *
+ * Routes whose own row changed come with all their stops; other routes only with the stops
+ * that changed. Devices upsert routes and stops by ID, drop deletedStopIds, and drop any
+ * route not listed in routeIds (deleted, or moved to another collector).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectorRouteChangesDTO {
+    private Long version;             // pass back as since= on the next call for the same collectionDate
+    private String collectionDate;
+    private List<Integer> routeIds;   // every route the collector has on collectionDate
+    private List<CollectorRouteDTO> routes;
+    private List<Integer> deletedStopIds;
+    private List<CollectorFollowupDTO> followups;
+}
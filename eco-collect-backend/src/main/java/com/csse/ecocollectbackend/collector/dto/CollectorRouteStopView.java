@@ -0,0 +1,13 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+/**
+ * Flat stop row for the collector's routes, read in one query and grouped by route in the service
+ */
+public interface CollectorRouteStopView {
+    Integer getRouteId();
+    Integer getStopId();
+    String getBinId();
+    Integer getStopOrder();
+    Boolean getCollected();
+    String getLocation();
+}
@@ -0,0 +1,24 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+import com.csse.ecocollectbackend.collector.entity.CollectorSyncEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StopSyncEvent {
+    private String idempotencyKey;   // generated by the tablet, unique per collector
+    private Integer stopId;
+    private CollectorSyncEvent.EventType type;
+    private LocalDateTime occurredAt; // for ARRIVAL this is the arrival time
+    private BigDecimal weightKg;      // WEIGHT
+    private RouteStop.StopStatus status; // STATUS
+    private String notes;             // NOTES
+    private RouteStop.ReasonCode reasonCode; // REASON
+}
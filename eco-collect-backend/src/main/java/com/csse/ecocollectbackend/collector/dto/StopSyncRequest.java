@@ -0,0 +1,15 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StopSyncRequest {
+    private List<StopSyncEvent> events = new ArrayList<>(); // in the order they happened on the tablet
+}
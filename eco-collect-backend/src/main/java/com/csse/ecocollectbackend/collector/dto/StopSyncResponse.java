@@ -0,0 +1,18 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StopSyncResponse {
+    private List<StopSyncResult> results; // one per request event, in request order
+    private int applied;
+    private int duplicates;
+    private int rejected;
+    private Long cursor;                  // change version to pass as since to the route changes download
+}
@@ -0,0 +1,16 @@
+package com.csse.ecocollectbackend.collector.dto;
+
+import com.csse.ecocollectbackend.collector.entity.CollectorSyncEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StopSyncResult {
+    private String idempotencyKey;
+    private Integer stopId;
+    private CollectorSyncEvent.Outcome outcome;
+    private String message;
+}
@@ -0,0 +1,57 @@
+package com.csse.ecocollectbackend.collector.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stop event applied through collector sync, kept so a replayed idempotency key
+ * gets its original outcome instead of being applied twice
+ * Rejected events are not kept, so a corrected event can be retried under the same key
+ */
+@Entity
+@Table(name = "collector_sync_events",
+       uniqueConstraints = @UniqueConstraint(name = "uk_collector_sync_events_key",
+                                             columnNames = {"collector_id", "idempotency_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectorSyncEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "sync_event_id")
+    private Long syncEventId;
+
+    @Column(name = "collector_id", nullable = false)
+    private Integer collectorId;
+
+    @Column(name = "idempotency_key", nullable = false, length = 64)
+    private String idempotencyKey;
+
+    @Column(name = "stop_id")
+    private Integer stopId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", length = 10)
+    private EventType eventType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "outcome", nullable = false, length = 10)
+    private Outcome outcome;
+
+    @Column(name = "message", length = 255)
+    private String message;
+
+    @Column(name = "occurred_at")
+    private LocalDateTime occurredAt;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    public enum EventType {ARRIVAL, WEIGHT, STATUS, NOTES, REASON}
+
+    public enum Outcome {APPLIED, REJECTED, DUPLICATE}
+}
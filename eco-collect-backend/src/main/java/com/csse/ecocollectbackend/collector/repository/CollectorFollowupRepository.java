@@ -0,0 +1,30 @@
+package com.csse.ecocollectbackend.collector.repository;
+
+import com.csse.ecocollectbackend.collector.dto.CollectorFollowupView;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CollectorFollowupRepository extends JpaRepository<FollowupPickup, Integer> {
+
+    String COLLECTOR_FOLLOWUP_SELECT =
+            "SELECT fp.id AS followupId, fp.binId AS binId, fp.status AS status, fp.priority AS priority, " +
+            "fp.dueAt AS dueAt FROM FollowupPickup fp ";
+
+    // Followups assigned to the collector and not yet finished, for a full download
+    @Query(COLLECTOR_FOLLOWUP_SELECT +
+           "WHERE fp.newAssignedDriver.userId = :collectorId AND fp.status IN :statuses ORDER BY fp.dueAt, fp.id")
+    List<CollectorFollowupView> findByCollectorAndStatusIn(@Param("collectorId") Integer collectorId,
+                                                           @Param("statuses") List<FollowupPickup.FollowupStatus> statuses);
+
+    // Followups assigned to the collector written in (since, until]; uses (new_assigned_driver_id, change_version)
+    @Query(COLLECTOR_FOLLOWUP_SELECT +
+           "WHERE fp.newAssignedDriver.userId = :collectorId AND fp.changeVersion > :since " +
+           "AND fp.changeVersion <= :until ORDER BY fp.dueAt, fp.id")
+    List<CollectorFollowupView> findByCollectorChangedBetween(@Param("collectorId") Integer collectorId,
+                                                              @Param("since") Long since,
+                                                              @Param("until") Long until);
+}
@@ -1,6 +1,7 @@
 
 package com.csse.ecocollectbackend.collector.repository;
 
+import com.csse.ecocollectbackend.collector.dto.CollectorRouteStopView;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -12,4 +13,28 @@ import java.util.List;
 public interface CollectorRouteRepository extends JpaRepository<Route, Integer> {
     @Query("SELECT r FROM Route r JOIN FETCH r.zone z WHERE r.collector.userId = :collectorId AND r.collectionDate = :date")
     List<Route> findTodaysRoutesByCollector(@Param("collectorId") Integer collectorId, @Param("date") LocalDate date);
+
+    // Stops for all of the collector's routes on a date, ordered by route then stopOrder, without loading Bin entities
+    @Query("SELECT r.routeId AS routeId, rs.stopId AS stopId, b.binId AS binId, rs.stopOrder AS stopOrder, " +
+           "rs.collected AS collected, b.location AS location " +
+           "FROM RouteStop rs JOIN rs.route r LEFT JOIN rs.bin b " +
+           "WHERE r.collector.userId = :collectorId AND r.collectionDate = :date " +
+           "ORDER BY r.routeId, rs.stopOrder")
+    List<CollectorRouteStopView> findStopsByCollectorAndDate(@Param("collectorId") Integer collectorId, @Param("date") LocalDate date);
+
+    @Query("SELECT r.routeId AS routeId, rs.stopId AS stopId, b.binId AS binId, rs.stopOrder AS stopOrder, " +
+           "rs.collected AS collected, b.location AS location " +
+           "FROM RouteStop rs JOIN rs.route r LEFT JOIN rs.bin b " +
+           "WHERE r.routeId IN :routeIds ORDER BY r.routeId, rs.stopOrder")
+    List<CollectorRouteStopView> findStopsByRouteIds(@Param("routeIds") List<Integer> routeIds);
+
+    // Stops of the given routes written in (since, until]; uses (route_id, change_version)
+    @Query("SELECT r.routeId AS routeId, rs.stopId AS stopId, b.binId AS binId, rs.stopOrder AS stopOrder, " +
+           "rs.collected AS collected, b.location AS location " +
+           "FROM RouteStop rs JOIN rs.route r LEFT JOIN rs.bin b " +
+           "WHERE r.routeId IN :routeIds AND rs.changeVersion > :since AND rs.changeVersion <= :until " +
+           "ORDER BY r.routeId, rs.stopOrder")
+    List<CollectorRouteStopView> findStopsByRouteIdsChangedBetween(@Param("routeIds") List<Integer> routeIds,
+                                                                   @Param("since") Long since,
+                                                                   @Param("until") Long until);
 }
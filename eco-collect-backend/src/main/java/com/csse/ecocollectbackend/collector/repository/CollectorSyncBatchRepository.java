@@ -0,0 +1,94 @@
+package com.csse.ecocollectbackend.collector.repository;
+
+import com.csse.ecocollectbackend.collector.dto.StopSyncResult;
+import com.csse.ecocollectbackend.collector.entity.CollectorSyncEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC access to the collector sync log
+ *
+ * Sync events carry IDENTITY ids, so they are written here in JDBC batches rather than
+ * one INSERT per event through JPA.
+ */
+@Repository
+public class CollectorSyncBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO collector_sync_events (collector_id, idempotency_key, stop_id, event_type, outcome, " +
+            "message, occurred_at, received_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public CollectorSyncBatchRepository(JdbcTemplate jdbcTemplate,
+                                        @Value("${ecocollect.route-stops.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Returns the recorded outcome of each given key the collector has already synced, keyed by idempotency key
+     */
+    public Map<String, StopSyncResult> findResults(Integer collectorId, Collection<String> idempotencyKeys) {
+        Map<String, StopSyncResult> results = new HashMap<>();
+        if (idempotencyKeys.isEmpty()) {
+            return results;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(idempotencyKeys.size(), "?"));
+        Object[] params = new Object[idempotencyKeys.size() + 1];
+        params[0] = collectorId;
+        int i = 1;
+        for (String key : idempotencyKeys) {
+            params[i++] = key;
+        }
+        jdbcTemplate.query(
+                "SELECT idempotency_key, stop_id, outcome, message FROM collector_sync_events " +
+                "WHERE collector_id = ? AND idempotency_key IN (" + placeholders + ")",
+                rs -> {
+                    results.put(rs.getString("idempotency_key"), new StopSyncResult(
+                            rs.getString("idempotency_key"), rs.getObject("stop_id", Integer.class),
+                            CollectorSyncEvent.Outcome.valueOf(rs.getString("outcome")), rs.getString("message")));
+                },
+                params);
+        return results;
+    }
+
+    /**
+     * Records sync events using JDBC batching
+     * A key the collector has already used fails the whole batch with a duplicate key error
+     *
+     * @return The number of rows inserted
+     */
+    public int insertAll(List<CollectorSyncEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, batchSize, (ps, event) -> {
+            ps.setInt(1, event.getCollectorId());
+            ps.setString(2, event.getIdempotencyKey());
+            if (event.getStopId() != null) {
+                ps.setInt(3, event.getStopId());
+            } else {
+                ps.setNull(3, Types.INTEGER);
+            }
+            ps.setString(4, event.getEventType() != null ? event.getEventType().name() : null);
+            ps.setString(5, event.getOutcome().name());
+            ps.setString(6, event.getMessage());
+            ps.setTimestamp(7, event.getOccurredAt() != null ? Timestamp.valueOf(event.getOccurredAt()) : null);
+            ps.setTimestamp(8, Timestamp.valueOf(event.getReceivedAt()));
+        });
+
+        return events.size();
+    }
+}
@@ -3,6 +3,7 @@ package com.csse.ecocollectbackend.collector.service;
 
 import com.csse.ecocollectbackend.collector.dto.CollectionUpdateRequest;
 import com.csse.ecocollectbackend.collector.dto.CollectorNotificationDTO;
+import com.csse.ecocollectbackend.collector.dto.CollectorRouteChangesDTO;
 import com.csse.ecocollectbackend.collector.dto.CollectorRouteDTO;
 
 import java.util.List;
@@ -10,6 +11,9 @@ import java.util.List;
 public interface CollectorService {
     List<CollectorRouteDTO> getTodaysRoutes(Integer collectorId);
 
+    // Changes to today's routes, stops and assigned followups after the given version; everything when since is null
+    CollectorRouteChangesDTO getTodaysRouteChanges(Integer collectorId, Long since);
+
     void markBinCollected(CollectionUpdateRequest request);
 
     void reportIssue(CollectionUpdateRequest request);
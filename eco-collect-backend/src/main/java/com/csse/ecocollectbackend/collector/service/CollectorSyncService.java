@@ -0,0 +1,21 @@
+package com.csse.ecocollectbackend.collector.service;
+
+import com.csse.ecocollectbackend.collector.dto.StopSyncEvent;
+import com.csse.ecocollectbackend.collector.dto.StopSyncResponse;
+
+import java.util.List;
+
+public interface CollectorSyncService {
+
+    /**
+     * Applies a tablet's queued stop events in one transaction
+     *
+     * Events are checked in order; each gets its own result. Keys the collector has synced
+     * before come back as DUPLICATE without being applied again, and invalid events are
+     * REJECTED without failing the others. Accepted events are folded per stop and written
+     * as one JDBC batch.
+     *
+     * @throws IllegalArgumentException When the collector is missing or there are more events than one sync accepts
+     */
+    StopSyncResponse sync(Integer collectorId, List<StopSyncEvent> events);
+}
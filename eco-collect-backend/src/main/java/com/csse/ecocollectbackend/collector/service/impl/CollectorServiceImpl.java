@@ -3,23 +3,36 @@ package com.csse.ecocollectbackend.collector.service.impl;
 
 
 import com.csse.ecocollectbackend.collector.dto.CollectionUpdateRequest;
+import com.csse.ecocollectbackend.collector.dto.CollectorFollowupDTO;
+import com.csse.ecocollectbackend.collector.dto.CollectorFollowupView;
 import com.csse.ecocollectbackend.collector.dto.CollectorNotificationDTO;
+import com.csse.ecocollectbackend.collector.dto.CollectorRouteChangesDTO;
 import com.csse.ecocollectbackend.collector.dto.CollectorRouteDTO;
 import com.csse.ecocollectbackend.collector.dto.CollectorRouteStopDTO;
+import com.csse.ecocollectbackend.collector.dto.CollectorRouteStopView;
 import com.csse.ecocollectbackend.collector.entity.Notification;
 import com.csse.ecocollectbackend.collector.repository.CollectorBinCollectionRepository;
+import com.csse.ecocollectbackend.collector.repository.CollectorFollowupRepository;
 import com.csse.ecocollectbackend.collector.repository.CollectorNotificationRepository;
 import com.csse.ecocollectbackend.collector.repository.CollectorRouteRepository;
 import com.csse.ecocollectbackend.collector.service.CollectorService;
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
 import com.csse.ecocollectbackend.login.entity.User;
 import com.csse.ecocollectbackend.resident.entity.Bin;
+import com.csse.ecocollectbackend.resident.service.ActiveBinIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -34,34 +47,133 @@ public class CollectorServiceImpl implements CollectorService {
     @Autowired
     private CollectorNotificationRepository notificationRepository;
 
+    @Autowired
+    private ActiveBinIndex activeBinIndex;
+
+    @Autowired
+    private CollectorFollowupRepository collectorFollowupRepository;
+
+    @Autowired
+    private RouteStopBatchRepository routeStopBatchRepository;
+
+    @Autowired
+    private ChangeVersionService changeVersionService;
+
 
     @Override
+    @Transactional(readOnly = true)
     public List<CollectorRouteDTO> getTodaysRoutes(Integer collectorId) {
         LocalDate today = LocalDate.now();
         List<Route> routes = collectorRouteRepository.findTodaysRoutesByCollector(collectorId, today);
+        if (routes.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // One query for every stop on today's routes instead of walking routeStops and bins per route
+        Map<Integer, List<CollectorRouteStopDTO>> stopsByRoute =
+                groupStopsByRoute(collectorRouteRepository.findStopsByCollectorAndDate(collectorId, today));
+
+        return routes.stream()
+                .map(r -> toRouteDTO(r, stopsByRoute.getOrDefault(r.getRouteId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CollectorRouteChangesDTO getTodaysRouteChanges(Integer collectorId, Long since) {
+        // Read first, so the rest of the transaction's snapshot holds every change up to it
+        long version = changeVersionService.watermark();
+        LocalDate today = LocalDate.now();
+
+        List<Route> routes = collectorRouteRepository.findTodaysRoutesByCollector(collectorId, today);
+        List<Integer> routeIds = new ArrayList<>();
+        List<Integer> changedRouteIds = new ArrayList<>();
+        List<Integer> unchangedRouteIds = new ArrayList<>();
+        for (Route route : routes) {
+            routeIds.add(route.getRouteId());
+            // Changes past the watermark are left for the next call, which starts from it
+            if (since == null || (route.getChangeVersion() != null
+                    && route.getChangeVersion() > since && route.getChangeVersion() <= version)) {
+                changedRouteIds.add(route.getRouteId());
+            } else {
+                unchangedRouteIds.add(route.getRouteId());
+            }
+        }
+
+        // Routes whose own row changed are sent whole; the rest only with their changed stops
+        Map<Integer, List<CollectorRouteStopDTO>> stopsByRoute = new HashMap<>();
+        if (!changedRouteIds.isEmpty()) {
+            stopsByRoute.putAll(groupStopsByRoute(collectorRouteRepository.findStopsByRouteIds(changedRouteIds)));
+        }
+        List<Integer> deletedStopIds = new ArrayList<>();
+        if (since != null && !unchangedRouteIds.isEmpty()) {
+            stopsByRoute.putAll(groupStopsByRoute(
+                    collectorRouteRepository.findStopsByRouteIdsChangedBetween(unchangedRouteIds, since, version)));
+            deletedStopIds.addAll(routeStopBatchRepository.findDeletedStopIds(unchangedRouteIds, since, version));
+        }
+
+        List<CollectorRouteDTO> changedRoutes = new ArrayList<>();
+        for (Route route : routes) {
+            List<CollectorRouteStopDTO> stops = stopsByRoute.get(route.getRouteId());
+            if (stops != null || changedRouteIds.contains(route.getRouteId())) {
+                changedRoutes.add(toRouteDTO(route, stops != null ? stops : new ArrayList<>()));
+            }
+        }
 
-        return routes.stream().map(r -> {
-            List<CollectorRouteStopDTO> stops = r.getRouteStops().stream().map(rs -> new CollectorRouteStopDTO(
+        List<CollectorFollowupView> followups = since == null
+                ? collectorFollowupRepository.findByCollectorAndStatusIn(collectorId,
+                        List.of(FollowupPickup.FollowupStatus.ASSIGNED, FollowupPickup.FollowupStatus.IN_PROGRESS))
+                : collectorFollowupRepository.findByCollectorChangedBetween(collectorId, since, version);
+
+        return new CollectorRouteChangesDTO(
+                version,
+                today.toString(),
+                routeIds,
+                changedRoutes,
+                deletedStopIds,
+                followups.stream().map(f -> new CollectorFollowupDTO(
+                        f.getFollowupId(),
+                        f.getBinId(),
+                        f.getStatus() != null ? f.getStatus().name() : null,
+                        f.getPriority() != null ? f.getPriority().name() : null,
+                        f.getDueAt() != null ? f.getDueAt().toString() : null
+                )).collect(Collectors.toList())
+        );
+    }
+
+    private static Map<Integer, List<CollectorRouteStopDTO>> groupStopsByRoute(List<CollectorRouteStopView> rows) {
+        Map<Integer, List<CollectorRouteStopDTO>> stopsByRoute = new HashMap<>();
+        for (CollectorRouteStopView rs : rows) {
+            stopsByRoute.computeIfAbsent(rs.getRouteId(), id -> new ArrayList<>()).add(new CollectorRouteStopDTO(
                     rs.getStopId(),
-                    rs.getBin().getBinId(),
+                    rs.getBinId(),
                     rs.getStopOrder(),
                     rs.getCollected(),
-                    null
-            )).collect(Collectors.toList());
-
-            return new CollectorRouteDTO(
-                    r.getRouteId(),
-                    r.getRouteName(),
-                    r.getZone().getZoneName(),
-                    r.getStatus().toString(),
-                    r.getCollectionDate().toString(),
-                    stops
-            );
-        }).collect(Collectors.toList());
+                    rs.getLocation()
+            ));
+        }
+        return stopsByRoute;
+    }
+
+    private static CollectorRouteDTO toRouteDTO(Route r, List<CollectorRouteStopDTO> stops) {
+        return new CollectorRouteDTO(
+                r.getRouteId(),
+                r.getRouteName(),
+                r.getZone().getZoneName(),
+                r.getStatus().toString(),
+                r.getCollectionDate().toString(),
+                stops
+        );
     }
 
     @Override
+    @Transactional
     public void markBinCollected(CollectionUpdateRequest request) {
+        // The route stop keeps the photo as proof of this collection; the bin only has its latest
+        if (request.getPhotoUrl() != null && request.getRouteId() != null) {
+            routeStopBatchRepository.updatePhotoUrl(request.getRouteId(), request.getBinId(), request.getPhotoUrl());
+        }
+
         Optional<Bin> optionalBin = collectorBinCollectionRepository.findById(request.getBinId());
 
         if (optionalBin.isPresent()) {
@@ -72,7 +184,7 @@ public class CollectorServiceImpl implements CollectorService {
             bin.setCollectedAt(LocalDateTime.now());
             bin.setCollectionStatus(Bin.CollectionStatus.valueOf(request.getStatus().toUpperCase()));
 
-            collectorBinCollectionRepository.save(bin);
+            activeBinIndex.onBinChanged(collectorBinCollectionRepository.save(bin));
         } else {
             // Optional: create new bin if it doesn't exist
             Bin collection = new Bin();
@@ -91,7 +203,7 @@ public class CollectorServiceImpl implements CollectorService {
             collector.setUserId(request.getCollectorId());
             collection.setCollector(collector);
 
-            collectorBinCollectionRepository.save(collection);
+            activeBinIndex.onBinChanged(collectorBinCollectionRepository.save(collection));
         }
     }
 
@@ -125,7 +237,7 @@ public class CollectorServiceImpl implements CollectorService {
         collection.setRemarks(request.getRemarks());
         collection.setCollectedAt(LocalDateTime.now());
 
-        collectorBinCollectionRepository.save(collection);
+        activeBinIndex.onBinChanged(collectorBinCollectionRepository.save(collection));
     }
 
     @Override
@@ -0,0 +1,232 @@
+package com.csse.ecocollectbackend.collector.service.impl;
+
+import com.csse.ecocollectbackend.collector.dto.StopSyncEvent;
+import com.csse.ecocollectbackend.collector.dto.StopSyncResponse;
+import com.csse.ecocollectbackend.collector.dto.StopSyncResult;
+import com.csse.ecocollectbackend.collector.entity.CollectorSyncEvent;
+import com.csse.ecocollectbackend.collector.repository.CollectorSyncBatchRepository;
+import com.csse.ecocollectbackend.collector.service.CollectorSyncService;
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopFieldUpdate;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopOwnerRow;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteStopChangedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.LiveEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteProgressTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class CollectorSyncServiceImpl implements CollectorSyncService {
+
+    private static final int MAX_KEY_LENGTH = 64;
+
+    private final CollectorSyncBatchRepository syncBatchRepository;
+    private final RouteStopBatchRepository routeStopBatchRepository;
+    private final LiveEtaService liveEtaService;
+    private final RouteProgressTracker routeProgressTracker;
+    private final ChangeVersionService changeVersionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxEvents;
+
+    public CollectorSyncServiceImpl(CollectorSyncBatchRepository syncBatchRepository,
+                                    RouteStopBatchRepository routeStopBatchRepository,
+                                    LiveEtaService liveEtaService,
+                                    RouteProgressTracker routeProgressTracker,
+                                    ChangeVersionService changeVersionService,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${ecocollect.collector-sync.max-events:500}") int maxEvents) {
+        this.syncBatchRepository = syncBatchRepository;
+        this.routeStopBatchRepository = routeStopBatchRepository;
+        this.liveEtaService = liveEtaService;
+        this.routeProgressTracker = routeProgressTracker;
+        this.changeVersionService = changeVersionService;
+        this.eventPublisher = eventPublisher;
+        this.maxEvents = maxEvents;
+    }
+
+    @Override
+    @Transactional
+    public StopSyncResponse sync(Integer collectorId, List<StopSyncEvent> events) {
+        if (collectorId == null) {
+            throw new IllegalArgumentException("Collector ID is required");
+        }
+        if (events == null || events.isEmpty()) {
+            return new StopSyncResponse(new ArrayList<>(), 0, 0, 0, changeVersionService.watermark());
+        }
+        if (events.size() > maxEvents) {
+            throw new IllegalArgumentException("At most " + maxEvents + " events can be synced at once");
+        }
+
+        Set<String> keys = new LinkedHashSet<>();
+        Set<Integer> stopIds = new LinkedHashSet<>();
+        for (StopSyncEvent event : events) {
+            if (hasValidKey(event)) {
+                keys.add(event.getIdempotencyKey());
+            }
+            if (event.getStopId() != null) {
+                stopIds.add(event.getStopId());
+            }
+        }
+        Map<String, StopSyncResult> earlier = syncBatchRepository.findResults(collectorId, keys);
+        Map<Integer, RouteStopOwnerRow> stops = new HashMap<>();
+        // Status of each locked stop after the events applied so far, to check each transition in order
+        Map<Integer, RouteStop.StopStatus> statuses = new HashMap<>();
+        for (RouteStopOwnerRow stop : routeStopBatchRepository.findOwnersForUpdate(stopIds)) {
+            stops.put(stop.getStopId(), stop);
+            statuses.put(stop.getStopId(), stop.getStatus() != null ? stop.getStatus() : RouteStop.StopStatus.PENDING);
+        }
+
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<StopSyncResult> results = new ArrayList<>(events.size());
+        Map<Integer, RouteStopFieldUpdate> updates = new LinkedHashMap<>();
+        List<CollectorSyncEvent> records = new ArrayList<>();
+        int applied = 0;
+        int duplicates = 0;
+        int rejected = 0;
+
+        for (StopSyncEvent event : events) {
+            String key = event.getIdempotencyKey();
+            if (!hasValidKey(event)) {
+                results.add(new StopSyncResult(key, event.getStopId(), CollectorSyncEvent.Outcome.REJECTED,
+                        "Idempotency key is required and must be at most " + MAX_KEY_LENGTH + " characters"));
+                rejected++;
+                continue;
+            }
+
+            StopSyncResult previous = earlier.get(key);
+            if (previous != null) {
+                results.add(new StopSyncResult(key, previous.getStopId(), CollectorSyncEvent.Outcome.DUPLICATE,
+                        "Already synced as " + previous.getOutcome()));
+                duplicates++;
+                continue;
+            }
+
+            String error = validate(collectorId, event, stops.get(event.getStopId()), statuses.get(event.getStopId()));
+            if (error != null) {
+                // Not recorded, so the collector can fix the event and send it again under the same key
+                results.add(new StopSyncResult(key, event.getStopId(), CollectorSyncEvent.Outcome.REJECTED, error));
+                rejected++;
+                continue;
+            }
+            apply(updates.computeIfAbsent(event.getStopId(),
+                    stopId -> new RouteStopFieldUpdate(stopId, null, null, null, null, null)), event);
+            if (event.getType() == CollectorSyncEvent.EventType.STATUS) {
+                statuses.put(event.getStopId(), event.getStatus());
+            }
+            applied++;
+            StopSyncResult result = new StopSyncResult(key, event.getStopId(), CollectorSyncEvent.Outcome.APPLIED, null);
+            results.add(result);
+            // A key repeated later in the same batch is a duplicate of this one
+            earlier.put(key, result);
+            records.add(new CollectorSyncEvent(null, collectorId, key, event.getStopId(), event.getType(),
+                    CollectorSyncEvent.Outcome.APPLIED, null, event.getOccurredAt(), receivedAt));
+        }
+
+        routeStopBatchRepository.updateFields(new ArrayList<>(updates.values()));
+        syncBatchRepository.insertAll(records);
+        afterApply(stops, updates);
+
+        log.debug("Collector {} synced {} events: {} applied, {} duplicates, {} rejected",
+                  collectorId, events.size(), applied, duplicates, rejected);
+        // The download cursor; this batch's own changes are still in flight, so the next delta includes them
+        return new StopSyncResponse(results, applied, duplicates, rejected, changeVersionService.watermark());
+    }
+
+    private static boolean hasValidKey(StopSyncEvent event) {
+        String key = event.getIdempotencyKey();
+        return key != null && !key.isBlank() && key.length() <= MAX_KEY_LENGTH;
+    }
+
+    private static String validate(Integer collectorId, StopSyncEvent event, RouteStopOwnerRow stop,
+                                   RouteStop.StopStatus currentStatus) {
+        if (event.getStopId() == null) {
+            return "Stop ID is required";
+        }
+        if (stop == null) {
+            return "Route stop not found with id: " + event.getStopId();
+        }
+        if (!stop.isReportableBy(collectorId)) {
+            return "Route stop " + event.getStopId() + " is not assigned to collector " + collectorId;
+        }
+        if (event.getType() == null) {
+            return "Event type is required";
+        }
+        return switch (event.getType()) {
+            case ARRIVAL -> event.getOccurredAt() == null ? "Arrival time (occurredAt) is required" : null;
+            case WEIGHT -> event.getWeightKg() == null || event.getWeightKg().compareTo(BigDecimal.ZERO) < 0
+                    ? "Weight must be zero or more" : null;
+            case STATUS -> event.getStatus() == null ? "Status is required"
+                    : event.getStatus() != currentStatus && !currentStatus.canTransitionTo(event.getStatus())
+                    ? "Route stop " + event.getStopId() + " cannot change from " + currentStatus + " to " + event.getStatus()
+                    : null;
+            case NOTES -> event.getNotes() == null ? "Notes are required" : null;
+            case REASON -> event.getReasonCode() == null ? "Reason code is required" : null;
+        };
+    }
+
+    // Later events for the same field overwrite earlier ones, as separate calls would have
+    private static void apply(RouteStopFieldUpdate update, StopSyncEvent event) {
+        switch (event.getType()) {
+            case ARRIVAL -> update.setArrivedAt(event.getOccurredAt());
+            case WEIGHT -> update.setWeightKg(event.getWeightKg());
+            case STATUS -> update.setStatus(event.getStatus());
+            case NOTES -> update.setNotes(event.getNotes());
+            case REASON -> update.setReasonCode(event.getReasonCode());
+        }
+    }
+
+    /**
+     * Does what the single-call endpoints get from the entity listener and LiveEtaService:
+     * progress counters, change events, and one ETA re-projection per route from its latest arrival
+     * MISSED and SKIPPED stops are picked up by FollowupDetector from their status and updated_at
+     */
+    private void afterApply(Map<Integer, RouteStopOwnerRow> stops, Map<Integer, RouteStopFieldUpdate> updates) {
+        Map<Integer, RouteStopFieldUpdate> latestArrivalByRoute = new HashMap<>();
+        Set<Integer> routeIds = new LinkedHashSet<>();
+        for (RouteStopFieldUpdate update : updates.values()) {
+            RouteStopOwnerRow stop = stops.get(update.getStopId());
+            routeIds.add(stop.getRouteId());
+
+            RouteStop.StopStatus status = update.getStatus() != null ? update.getStatus() : stop.getStatus();
+            Boolean collected = update.getStatus() == RouteStop.StopStatus.DONE ? Boolean.TRUE : stop.getCollected();
+            LocalDateTime arrivedAt = update.getArrivedAt() != null ? update.getArrivedAt() : stop.getArrivedAt();
+            if (status != stop.getStatus() || !Objects.equals(collected, stop.getCollected())
+                    || !Objects.equals(arrivedAt, stop.getArrivedAt())) {
+                eventPublisher.publishEvent(new RouteStopChangedEvent(stop.getRouteId(), stop.getStopId(),
+                        stop.getBinId(), status, collected, arrivedAt));
+            }
+
+            if (update.getArrivedAt() != null) {
+                latestArrivalByRoute.merge(stop.getRouteId(), update,
+                        (current, candidate) -> candidate.getArrivedAt().isAfter(current.getArrivedAt()) ? candidate : current);
+            }
+        }
+
+        for (RouteStopFieldUpdate arrival : latestArrivalByRoute.values()) {
+            RouteStop arrivedStop = new RouteStop();
+            arrivedStop.setStopId(arrival.getStopId());
+            arrivedStop.setArrivedAt(arrival.getArrivedAt());
+            liveEtaService.reproject(arrivedStop);
+        }
+        for (Integer routeId : routeIds) {
+            routeProgressTracker.invalidateRoute(routeId);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.csse.ecocollectbackend.common.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Keeps photos on the local filesystem under their SHA-256
+ *
+ * An upload is streamed into a temporary file in {directory}-incoming, next to the served
+ * directory so partial uploads are never reachable by URL, while it is hashed, then moved to
+ * {directory}/ab/cd/{hash}.{ext}, where ab and cd are the first four hex digits of the hash,
+ * so no directory grows past a few hundred entries. When that file already exists the
+ * upload is dropped and the existing copy is referenced instead, including when a concurrent
+ * upload of the same photo wins the move.
+ */
+@Service
+@Slf4j
+public class LocalPhotoStore implements PhotoStore {
+
+    private static final long TRANSFER_CHUNK_BYTES = 1024 * 1024;
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/webp", "webp",
+            "image/heic", "heic",
+            "image/heif", "heif",
+            "image/gif", "gif");
+
+    private final Path directory;
+    private final Path incoming;
+    private final String urlPrefix;
+
+    public LocalPhotoStore(@Value("${ecocollect.photo-store.directory:uploads}") String directory,
+                           @Value("${ecocollect.photo-store.url-prefix:/uploads}") String urlPrefix) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        // A sibling, on the same filesystem so the final move is a rename, but outside what is served
+        this.incoming = this.directory.resolveSibling(this.directory.getFileName() + "-incoming");
+        this.urlPrefix = urlPrefix.endsWith("/") ? urlPrefix.substring(0, urlPrefix.length() - 1) : urlPrefix;
+    }
+
+    @Override
+    public StoredPhoto store(InputStream content, String contentType) throws IOException {
+        Files.createDirectories(incoming);
+        Path upload = Files.createTempFile(incoming, "photo-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (ReadableByteChannel source = Channels.newChannel(new DigestInputStream(content, digest));
+                 FileChannel target = FileChannel.open(upload, StandardOpenOption.WRITE)) {
+                long transferred;
+                while ((transferred = target.transferFrom(source, size, TRANSFER_CHUNK_BYTES)) > 0) {
+                    size += transferred;
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String shard = hash.substring(0, 2) + "/" + hash.substring(2, 4);
+            String name = hash + "." + EXTENSIONS.getOrDefault(contentType != null ? contentType.toLowerCase() : "", "bin");
+            Path stored = directory.resolve(shard).resolve(name);
+
+            boolean created = false;
+            if (!Files.exists(stored)) {
+                Files.createDirectories(stored.getParent());
+                try {
+                    Files.move(upload, stored, StandardCopyOption.ATOMIC_MOVE);
+                    created = true;
+                } catch (FileAlreadyExistsException | AccessDeniedException e) {
+                    // Two uploads of the same photo racing here write identical bytes, so the winner's copy is reused
+                    if (!Files.exists(stored)) {
+                        throw e;
+                    }
+                    log.debug("Photo {} stored concurrently, reusing it", hash);
+                }
+            } else {
+                log.debug("Photo {} already stored, reusing it", hash);
+            }
+            return new StoredPhoto(hash, size, urlPrefix + "/" + shard + "/" + name, created);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
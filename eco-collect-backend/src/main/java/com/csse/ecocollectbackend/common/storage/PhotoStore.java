@@ -0,0 +1,19 @@
+package com.csse.ecocollectbackend.common.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stores uploaded photos by content, so the same photo uploaded twice is kept once
+ */
+public interface PhotoStore {
+
+    /**
+     * Stores a photo read from the stream, without holding it in memory
+     *
+     * @param content The photo bytes; the caller closes the stream
+     * @param contentType The upload's content type, used for the stored file's extension
+     * @return The stored photo, whose url is the reference to keep on the record it proves
+     */
+    StoredPhoto store(InputStream content, String contentType) throws IOException;
+}
@@ -0,0 +1,18 @@
+package com.csse.ecocollectbackend.common.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredPhoto {
+
+    // Hex SHA-256 of the content
+    private String sha256;
+    private long sizeBytes;
+    private String url;
+    // False when an identical photo was already stored
+    private boolean created;
+}
@@ -0,0 +1,35 @@
+package com.csse.ecocollectbackend.common.version;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change version handed out to a writing transaction; see ChangeVersionService
+ */
+@Entity
+@Table(name = "change_versions",
+       indexes = {
+           @Index(name = "idx_change_versions_in_flight_until", columnList = "in_flight_until"),
+           @Index(name = "idx_change_versions_allocated_at", columnList = "allocated_at")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeVersionAllocation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "version")
+    private Long version;
+    
+    @Column(name = "allocated_at", nullable = false)
+    private LocalDateTime allocatedAt;
+    
+    // Set while the owning transaction may still commit; cleared once it has ended
+    @Column(name = "in_flight_until")
+    private LocalDateTime inFlightUntil;
+}
@@ -0,0 +1,30 @@
+package com.csse.ecocollectbackend.common.version;
+
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stamps ChangeVersioned entities with the current transaction's change version when they are written
+ * 
+ * The service is looked up lazily because entity listeners are created with the EntityManagerFactory.
+ */
+@Component
+public class ChangeVersionListener {
+    
+    private final ObjectProvider<ChangeVersionService> changeVersionService;
+    
+    public ChangeVersionListener(ObjectProvider<ChangeVersionService> changeVersionService) {
+        this.changeVersionService = changeVersionService;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    public void stamp(Object entity) {
+        ChangeVersionService service = changeVersionService.getIfAvailable();
+        if (service != null && entity instanceof ChangeVersioned versioned) {
+            versioned.setChangeVersion(service.current());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.csse.ecocollectbackend.common.version;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Hands out increasing change versions for routes, route stops and followups, and the safe
+ * watermark collectors resume their delta downloads from
+ *
+ * Each writing transaction takes one version the first time it needs one, by inserting a row
+ * into change_versions in autocommit, so no lock is held while the writer runs. Those inserts
+ * and the completions use a small pool of their own (ecocollect.change-versions.pool-size):
+ * the writer already holds a connection from the main pool, and waiting on that pool for a
+ * second one would stall every writer once the pool is exhausted. The row is marked in flight until the writer ends, when it is cleared after
+ * commit or rollback. Versions can therefore commit out of order, and a delta read must not
+ * move its cursor past one that is still in flight: watermark() is the highest version below
+ * every in-flight one, and never newer than settle-ms, so an allocation that is not yet visible
+ * cannot be overtaken. A writer that never reports back (its node died) stops holding the
+ * watermark once max-transaction-seconds pass.
+ */
+@Service
+@Slf4j
+public class ChangeVersionService {
+
+    // Writes outside a transaction commit as they run, right after taking their version
+    private static final int AUTOCOMMIT_IN_FLIGHT_SECONDS = 5;
+
+    private static final String ALLOCATE_SQL =
+            "INSERT INTO change_versions (allocated_at, in_flight_until) " +
+            "VALUES (CURRENT_TIMESTAMP(6), TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(6)))";
+
+    private static final String WATERMARK_SQL =
+            "SELECT (SELECT MIN(version) FROM change_versions WHERE in_flight_until > CURRENT_TIMESTAMP(6)) AS oldest_in_flight, " +
+            "(SELECT MAX(version) FROM change_versions " +
+            "WHERE allocated_at <= TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(6))) AS settled";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Separate from the application's pool; see the class comment
+    private final HikariDataSource dataSource;
+    private final int maxTransactionSeconds;
+    private final long settleMs;
+    private final int retentionHours;
+
+    public ChangeVersionService(JdbcTemplate jdbcTemplate,
+                                DataSourceProperties dataSourceProperties,
+                                @Value("${ecocollect.change-versions.max-transaction-seconds:600}") int maxTransactionSeconds,
+                                @Value("${ecocollect.change-versions.settle-ms:1000}") long settleMs,
+                                @Value("${ecocollect.change-versions.retention-hours:24}") int retentionHours,
+                                @Value("${ecocollect.change-versions.pool-size:4}") int poolSize,
+                                @Value("${ecocollect.change-versions.connection-timeout-ms:5000}") long connectionTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.dataSource.setPoolName("change-versions");
+        this.dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        this.dataSource.setMinimumIdle(1);
+        this.dataSource.setConnectionTimeout(connectionTimeoutMs);
+        this.dataSource.setAutoCommit(true);
+        this.maxTransactionSeconds = maxTransactionSeconds;
+        this.settleMs = Math.max(0, settleMs);
+        this.retentionHours = Math.max(1, retentionHours);
+    }
+
+    /**
+     * Returns the current transaction's change version, taking one on first use
+     * Outside a transaction every call takes a new version
+     */
+    public long current() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return allocate(AUTOCOMMIT_IN_FLIGHT_SECONDS);
+        }
+        // Looked up among the registered synchronizations so a suspended outer transaction's version is not reused
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof VersionHolder holder) {
+                return holder.version;
+            }
+        }
+        VersionHolder holder = new VersionHolder(allocate(maxTransactionSeconds));
+        TransactionSynchronizationManager.registerSynchronization(holder);
+        return holder.version;
+    }
+
+    /**
+     * Returns the highest version every change at or below which has committed or rolled back,
+     * the cursor for a delta read; read it first so the rest of the transaction's snapshot holds those changes
+     */
+    public long watermark() {
+        Long watermark = jdbcTemplate.query(WATERMARK_SQL, rs -> {
+            if (!rs.next()) {
+                return 0L;
+            }
+            long settled = rs.getLong("settled");
+            long oldestInFlight = rs.getLong("oldest_in_flight");
+            if (rs.wasNull()) {
+                return settled;
+            }
+            return Math.min(settled, oldestInFlight - 1);
+        }, -settleMs * 1000);
+        return watermark != null ? watermark : 0L;
+    }
+
+    /**
+     * Drops versions older than the retention window, keeping the newest one so the watermark survives
+     */
+    @Scheduled(fixedDelayString = "${ecocollect.change-versions.cleanup-interval-ms:3600000}")
+    public void purgeOld() {
+        int purged = jdbcTemplate.update(
+                "DELETE FROM change_versions WHERE allocated_at < TIMESTAMPADD(HOUR, ?, CURRENT_TIMESTAMP(6)) " +
+                "AND (in_flight_until IS NULL OR in_flight_until <= CURRENT_TIMESTAMP(6)) " +
+                "AND version < (SELECT newest FROM (SELECT MAX(version) AS newest FROM change_versions) latest)",
+                -retentionHours);
+        if (purged > 0) {
+            log.debug("Purged {} change versions older than {} hours", purged, retentionHours);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dataSource.close();
+    }
+    
+    // A connection from the version pool, not the caller's transactional one, so the row commits at once
+    private long allocate(int inFlightSeconds) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(ALLOCATE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                statement.setInt(1, inFlightSeconds);
+                statement.executeUpdate();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    if (!keys.next()) {
+                        throw new IllegalStateException("No change version was generated");
+                    }
+                    return keys.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not allocate a change version", e);
+        }
+    }
+
+    private void complete(long version) {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE change_versions SET in_flight_until = NULL WHERE version = ?")) {
+                statement.setLong(1, version);
+                statement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            // The version stops holding the watermark once max-transaction-seconds pass
+            log.warn("Could not mark change version {} complete: {}", version, e.getMessage());
+        }
+    }
+
+    private final class VersionHolder implements TransactionSynchronization {
+        private final long version;
+
+        private VersionHolder(long version) {
+            this.version = version;
+        }
+
+        // After commit or rollback, so a reader that sees the version complete also sees its rows
+        @Override
+        public void afterCompletion(int status) {
+            complete(version);
+        }
+    }
+}
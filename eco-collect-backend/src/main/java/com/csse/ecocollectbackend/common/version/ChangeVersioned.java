@@ -0,0 +1,9 @@
+package com.csse.ecocollectbackend.common.version;
+
+/**
+ * An entity whose rows carry the change version of the transaction that last wrote them
+ */
+public interface ChangeVersioned {
+    
+    void setChangeVersion(Long changeVersion);
+}
@@ -1,18 +1,31 @@
 package com.csse.ecocollectbackend.dispatcher.routes.controller;
 
 import com.csse.ecocollectbackend.dispatcher.common.dto.ApiResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BulkAssignCollectorRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BulkAssignCollectorResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CapacityPlanRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CapacityPlanResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.dto.CreateRouteRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.DayBoardResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteOptimizationResult;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteProgressResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.service.CapacityPlanningService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.DayBoardService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteOptimizationService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteProgressTracker;
 import com.csse.ecocollectbackend.dispatcher.routes.service.RouteService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/routes")
@@ -21,6 +34,10 @@ import java.util.List;
 public class RouteController {
     
     private final RouteService routeService;
+    private final RouteOptimizationService routeOptimizationService;
+    private final CapacityPlanningService capacityPlanningService;
+    private final RouteProgressTracker routeProgressTracker;
+    private final DayBoardService dayBoardService;
     
     @PostMapping
     public ResponseEntity<ApiResponse<RouteResponse>> createRoute(@Valid @RequestBody CreateRouteRequest request) {
@@ -102,6 +119,32 @@ public class RouteController {
         }
     }
     
+    // Sends an ETag so a GET with a matching If-None-Match is answered 304 without a body
+    @GetMapping("/day-board/{date}")
+    public ResponseEntity<ApiResponse<DayBoardResponse>> getDayBoard(@PathVariable LocalDate date) {
+        try {
+            DayBoardResponse board = dayBoardService.getDayBoard(date);
+            return ResponseEntity.ok()
+                    .eTag(board.getEtag())
+                    .cacheControl(CacheControl.maxAge(dayBoardService.getCacheTtlSeconds(), TimeUnit.SECONDS).cachePrivate())
+                    .body(ApiResponse.success("Day board retrieved successfully", board));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve day board: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/progress/date/{date}")
+    public ResponseEntity<ApiResponse<List<RouteProgressResponse>>> getRouteProgressByDate(@PathVariable LocalDate date) {
+        try {
+            List<RouteProgressResponse> progress = routeProgressTracker.getProgressByDate(date);
+            return ResponseEntity.ok(ApiResponse.success("Route progress retrieved successfully", progress));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve route progress: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/status/{status}")
     public ResponseEntity<ApiResponse<List<RouteResponse>>> getRoutesByStatus(@PathVariable Route.RouteStatus status) {
         try {
@@ -139,6 +182,58 @@ public class RouteController {
         }
     }
     
+    @PutMapping("/assign-collector")
+    public ResponseEntity<ApiResponse<BulkAssignCollectorResponse>> assignCollectorToRoutes(
+            @Valid @RequestBody BulkAssignCollectorRequest request) {
+        try {
+            BulkAssignCollectorResponse result = routeService.assignCollectorToRoutes(request);
+            return ResponseEntity.ok(ApiResponse.success(
+                    "Collector assigned to " + result.getRoutesUpdated() + " routes", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Failed to assign collector: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/plan-capacity")
+    public ResponseEntity<ApiResponse<CapacityPlanResponse>> planZoneByCapacity(
+            @Valid @RequestBody CapacityPlanRequest request) {
+        try {
+            CapacityPlanResponse plan = capacityPlanningService.planZone(request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Planned " + plan.getRoutes().size() + " routes", plan));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Failed to plan routes: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/{routeId}/optimize-stops")
+    public ResponseEntity<ApiResponse<RouteOptimizationResult>> optimizeRouteStops(@PathVariable Integer routeId) {
+        try {
+            RouteOptimizationResult result = routeOptimizationService.optimizeRoute(routeId);
+            return ResponseEntity.ok(ApiResponse.success(
+                    "Reordered " + result.getRouteStopsReordered() + " route stops", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Failed to optimize route stops: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/optimize-stops")
+    public ResponseEntity<ApiResponse<RouteOptimizationResult>> optimizeRouteStopsForDate(
+            @RequestParam LocalDate collectionDate) {
+        try {
+            RouteOptimizationResult result = routeOptimizationService.optimizeRoutesForDate(collectionDate);
+            return ResponseEntity.ok(ApiResponse.success(
+                    "Optimized " + result.getRoutesRequested() + " routes, reordered "
+                            + result.getRouteStopsReordered() + " route stops", result));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Failed to optimize route stops: " + e.getMessage()));
+        }
+    }
+    
     @PutMapping("/{routeId}/assign-truck")
     public ResponseEntity<ApiResponse<RouteResponse>> assignTruck(
             @PathVariable Integer routeId, 
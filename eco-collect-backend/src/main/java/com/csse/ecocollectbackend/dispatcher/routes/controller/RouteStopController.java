@@ -1,15 +1,24 @@
 package com.csse.ecocollectbackend.dispatcher.routes.controller;
 
 import com.csse.ecocollectbackend.dispatcher.common.dto.ApiResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.PlannedEtaRecalculationResult;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopPatchRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopPatchResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.service.PlannedEtaService;
 import com.csse.ecocollectbackend.dispatcher.routes.service.RouteStopService;
+import com.csse.ecocollectbackend.dispatcher.routes.stream.RouteStreamHub;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +31,8 @@ import java.util.Optional;
 public class RouteStopController {
     
     private final RouteStopService routeStopService;
+    private final PlannedEtaService plannedEtaService;
+    private final RouteStreamHub routeStreamHub;
     
     // Helper method to convert RouteStop entity to RouteStopResponse DTO
     private RouteStopResponse convertToResponse(RouteStop routeStop) {
@@ -39,6 +50,7 @@ public class RouteStopController {
         response.setPhotoUrl(routeStop.getPhotoUrl());
         response.setPlannedEta(routeStop.getPlannedEta());
         response.setArrivedAt(routeStop.getArrivedAt());
+        response.setLiveEta(routeStop.getLiveEta());
         response.setStatus(routeStop.getStatus() != null ? routeStop.getStatus().name() : null);
         response.setReassignedToDriverId(routeStop.getReassignedToDriver() != null ? routeStop.getReassignedToDriver().getUserId() : null);
         response.setReassignedToDriverName(routeStop.getReassignedToDriver() != null ? routeStop.getReassignedToDriver().getName() : null);
@@ -75,6 +87,14 @@ public class RouteStopController {
         }
     }
     
+    // Server-Sent Events stream of stop, ETA and followup changes, filtered by route, zone and/or date
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRouteStopChanges(@RequestParam(required = false) LocalDate date,
+                                             @RequestParam(required = false) Long zoneId,
+                                             @RequestParam(required = false) Integer routeId) {
+        return routeStreamHub.subscribe(date, zoneId, routeId);
+    }
+    
     @GetMapping("/{stopId}")
     public ResponseEntity<ApiResponse<RouteStop>> getRouteStopById(@PathVariable Integer stopId) {
         try {
@@ -197,6 +217,19 @@ public class RouteStopController {
         }
     }
     
+    @PatchMapping("/{stopId}")
+    public ResponseEntity<ApiResponse<RouteStopPatchResponse>> patchRouteStop(
+            @PathVariable Integer stopId, @RequestBody RouteStopPatchRequest patch) {
+        try {
+            return routeStopService.patchRouteStop(stopId, patch)
+                    .map(patched -> ResponseEntity.ok(new ApiResponse<>(true, "Route stop updated successfully", patched)))
+                    .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(new ApiResponse<>(false, "Route stop not found with id: " + stopId, null)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, "Error updating route stop: " + e.getMessage(), null));
+        }
+    }
+    
     @PutMapping("/{stopId}/status")
     public ResponseEntity<ApiResponse<RouteStop>> updateRouteStopStatus(
             @PathVariable Integer stopId, @RequestParam RouteStop.StopStatus status) {
@@ -319,6 +352,31 @@ public class RouteStopController {
         }
     }
     
+    @PostMapping("/recalculate-planned-eta")
+    public ResponseEntity<ApiResponse<PlannedEtaRecalculationResult>> recalculatePlannedEta(
+            @RequestParam(required = false) LocalDate from,
+            @RequestParam(required = false) LocalDate to) {
+        try {
+            PlannedEtaRecalculationResult result;
+            if (from == null && to == null) {
+                result = plannedEtaService.recalculateAll();
+            } else {
+                LocalDate fromDate = from != null ? from : to;
+                LocalDate toDate = to != null ? to : from;
+                if (fromDate.isAfter(toDate)) {
+                    return ResponseEntity.badRequest().body(new ApiResponse<>(false,
+                        "'from' must not be after 'to'", null));
+                }
+                result = plannedEtaService.recalculate(fromDate, toDate);
+            }
+            return ResponseEntity.ok(new ApiResponse<>(true,
+                "Recalculated planned_eta for " + result.getRouteStopsUpdated() + " route stops", result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false,
+                "Error recalculating route stops planned_eta: " + e.getMessage(), null));
+        }
+    }
+    
     /**
      * Handle collector reports for route stops (replaces the commented out collector endpoints)
      * This endpoint allows collectors to report issues with route stops
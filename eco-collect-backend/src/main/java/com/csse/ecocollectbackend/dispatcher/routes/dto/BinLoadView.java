@@ -0,0 +1,9 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+/**
+ * Average collected weight for a bin over a history window
+ */
+public interface BinLoadView {
+    String getBinId();
+    Double getAverageWeightKg();
+}
@@ -0,0 +1,24 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Reassigns a collector across many routes at once.
+ * Either routeIds, or zoneId together with collectionDate, selects the routes.
+ */
+@Data
+public class BulkAssignCollectorRequest {
+    
+    @NotNull(message = "Collector ID is required")
+    private Integer collectorId;
+    
+    private List<Integer> routeIds;
+    
+    private Long zoneId;
+    
+    private LocalDate collectionDate;
+}
@@ -0,0 +1,18 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkAssignCollectorResponse {
+    
+    private Integer collectorId;
+    private List<Integer> routeIds;
+    private int routesUpdated;
+    private int routeStopsUpdated;
+}
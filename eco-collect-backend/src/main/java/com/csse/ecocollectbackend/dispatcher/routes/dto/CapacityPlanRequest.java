@@ -0,0 +1,25 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Plans capacity-limited routes for every active bin in a zone on a collection date.
+ * Routes are named routeNamePrefix followed by the truck name.
+ */
+@Data
+public class CapacityPlanRequest {
+    
+    @NotNull(message = "Zone ID is required")
+    private Long zoneId;
+    
+    @NotNull(message = "Collection date is required")
+    private LocalDate collectionDate;
+    
+    @NotNull(message = "Dispatcher ID is required")
+    private Integer dispatcherId;
+    
+    private String routeNamePrefix;
+}
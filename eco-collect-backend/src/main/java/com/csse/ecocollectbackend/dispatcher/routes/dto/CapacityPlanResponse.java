@@ -0,0 +1,35 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityPlanResponse {
+    
+    private Long zoneId;
+    private LocalDate collectionDate;
+    private double totalPredictedLoadKg;
+    private List<PlannedRoute> routes;
+    private List<String> unassignedBinIds;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlannedRoute {
+        private Integer routeId;
+        private String routeName;
+        private Integer truckId;
+        private String truckName;
+        private BigDecimal capacityKg;
+        private double predictedLoadKg;
+        private int stopCount;
+        private List<Integer> wardNumbers;
+    }
+}
@@ -0,0 +1,9 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+/**
+ * A ward a collector's routes cover on a date
+ */
+public interface CollectorWardView {
+    Integer getCollectorId();
+    Integer getWardNumber();
+}
@@ -0,0 +1,16 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
+
+import java.math.BigDecimal;
+
+/**
+ * A collector's truck and planned stop count across their routes on a date
+ */
+public interface CrewLoadView {
+    Integer getCollectorId();
+    Integer getTruckId();
+    Truck.TruckStatus getTruckStatus();
+    BigDecimal getCapacityKg();
+    Long getStopCount();
+}
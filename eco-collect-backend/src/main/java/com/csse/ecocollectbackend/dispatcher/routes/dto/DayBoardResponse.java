@@ -0,0 +1,56 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the dispatcher board shows for one collection date: each route with its crew, wards and stop counts
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayBoardResponse {
+    
+    private LocalDate collectionDate;
+    private List<DayBoardRoute> routes;
+    
+    // Quoted content hash, sent as the ETag header rather than in the body
+    @JsonIgnore
+    private String etag;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayBoardRoute {
+        private Integer routeId;
+        private String routeName;
+        private Long zoneId;
+        private String zoneName;
+        private Route.RouteStatus status;
+        private Integer truckId;
+        private String truckName;
+        private Integer collectorId;
+        private String collectorName;
+        private long totalStops;
+        private long collectedStops;
+        private Map<RouteStop.StopStatus, Long> stopsByStatus;
+        private List<DayBoardWard> wards;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayBoardWard {
+        private Integer wardNumber;
+        private String wardName;
+        private Integer wardOrder;
+    }
+}
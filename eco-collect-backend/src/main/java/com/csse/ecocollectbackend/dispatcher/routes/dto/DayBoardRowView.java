@@ -0,0 +1,22 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+
+/**
+ * One route with its crew and the number of its stops in one status (stopStatus is null for a route with no stops)
+ */
+public interface DayBoardRowView {
+    Integer getRouteId();
+    String getRouteName();
+    Long getZoneId();
+    String getZoneName();
+    Route.RouteStatus getStatus();
+    Integer getTruckId();
+    String getTruckName();
+    Integer getCollectorId();
+    String getCollectorName();
+    RouteStop.StopStatus getStopStatus();
+    Long getStopCount();
+    Long getCollectedCount();
+}
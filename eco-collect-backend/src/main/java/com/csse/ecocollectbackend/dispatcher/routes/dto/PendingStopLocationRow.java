@@ -0,0 +1,26 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending stop's route position with its bin coordinates and current ETA (live when known, else planned)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingStopLocationRow {
+    
+    private Integer stopId;
+    private Integer routeId;
+    private String binId;
+    private Integer wardNumber;
+    private int wardOrder;
+    private int stopOrder;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime eta;
+}
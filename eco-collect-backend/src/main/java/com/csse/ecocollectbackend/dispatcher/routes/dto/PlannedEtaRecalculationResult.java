@@ -0,0 +1,19 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlannedEtaRecalculationResult {
+    
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private int chunksProcessed;
+    private int routeStopsUpdated;
+    private long elapsedMillis;
+}
@@ -0,0 +1,15 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * A route's crew, truck capacity, weight collected so far and number of pending stops
+ */
+public interface RouteLoadView {
+    Integer getRouteId();
+    Integer getCollectorId();
+    Integer getTruckId();
+    BigDecimal getCapacityKg();
+    BigDecimal getCollectedKg();
+    Long getPendingStops();
+}
@@ -0,0 +1,18 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteOptimizationResult {
+    
+    private int routesRequested;
+    private int routesChanged;
+    private int routeStopsReordered;
+    private double distanceBeforeMeters;
+    private double distanceAfterMeters;
+    private long elapsedMillis;
+}
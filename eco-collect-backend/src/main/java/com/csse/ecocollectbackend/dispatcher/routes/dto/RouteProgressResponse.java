@@ -0,0 +1,24 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Stop counts for one route: total, collected, and per stop status
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteProgressResponse {
+    
+    private Integer routeId;
+    private LocalDate collectionDate;
+    private long totalStops;
+    private long collectedStops;
+    private Map<RouteStop.StopStatus, Long> stopsByStatus;
+}
@@ -1,12 +1,22 @@
 package com.csse.ecocollectbackend.dispatcher.routes.dto;
 
 import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+/**
+ * Route listing DTO
+ * 
+ * The all-args constructor is used by the JPQL constructor expressions in
+ * RouteRepository, so field order here must match those queries.
+ */
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class RouteResponse {
     
     private Integer routeId;
@@ -0,0 +1,12 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import java.time.LocalDate;
+
+/**
+ * A route's collection date and zone, the scopes stream subscribers filter on
+ */
+public interface RouteScopeView {
+    Integer getRouteId();
+    LocalDate getCollectionDate();
+    Long getZoneId();
+}
@@ -0,0 +1,16 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+
+import java.time.LocalDate;
+
+/**
+ * Number of a route's stops in one (status, collected) combination; status is null for a route with no stops
+ */
+public interface RouteStopCountView {
+    Integer getRouteId();
+    LocalDate getCollectionDate();
+    RouteStop.StopStatus getStatus();
+    Boolean getCollected();
+    Long getStopCount();
+}
@@ -0,0 +1,25 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * New values for some of a route stop's collector-reported fields; null fields are left unchanged
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopFieldUpdate {
+    
+    private Integer stopId;
+    private LocalDateTime arrivedAt;
+    private BigDecimal weightKg;
+    private RouteStop.StopStatus status;
+    private String notes;
+    private RouteStop.ReasonCode reasonCode;
+}
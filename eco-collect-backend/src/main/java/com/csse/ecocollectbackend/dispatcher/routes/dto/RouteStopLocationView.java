@@ -0,0 +1,20 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+
+import java.time.LocalDate;
+
+/**
+ * Flat stop row with its bin's ward and coordinates, read for stop sequencing
+ */
+public interface RouteStopLocationView {
+    Integer getStopId();
+    Integer getRouteId();
+    String getBinId();
+    LocalDate getCollectionDate();
+    Integer getWardNumber();
+    Integer getStopOrder();
+    RouteStop.StopStatus getStatus();
+    Double getLatitude();
+    Double getLongitude();
+}
@@ -0,0 +1,20 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A stop's ward, order and status, read under lock before the optimizer rewrites the ward's orders
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopOrderRow {
+    
+    private Integer stopId;
+    private Integer wardNumber;
+    private Integer stopOrder;
+    private RouteStop.StopStatus status;
+}
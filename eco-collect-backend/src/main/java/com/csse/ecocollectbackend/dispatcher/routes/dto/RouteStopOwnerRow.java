@@ -0,0 +1,32 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A route stop with the users allowed to report on it (route collector, driver, reassigned driver)
+ * and the fields change events carry
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopOwnerRow {
+    
+    private Integer stopId;
+    private Integer routeId;
+    private String binId;
+    private Integer collectorId;
+    private Integer driverId;
+    private Integer reassignedToDriverId;
+    private RouteStop.StopStatus status;
+    private Boolean collected;
+    private LocalDateTime arrivedAt;
+    
+    public boolean isReportableBy(Integer userId) {
+        return userId != null && (userId.equals(collectorId) || userId.equals(driverId) || userId.equals(reassignedToDriverId));
+    }
+}
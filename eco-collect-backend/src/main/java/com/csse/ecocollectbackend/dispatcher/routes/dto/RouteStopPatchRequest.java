@@ -0,0 +1,36 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fields to change on one route stop; fields left null are not touched
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopPatchRequest {
+    
+    private RouteStop.StopStatus status;
+    private Boolean collected;
+    private LocalDateTime arrivedAt;
+    private String photoUrl;
+    private BigDecimal weightKg;
+    private String notes;
+    private RouteStop.ReasonCode reasonCode;
+    
+    public boolean isEmpty() {
+        return status == null && collected == null && arrivedAt == null && photoUrl == null
+                && weightKg == null && notes == null && reasonCode == null;
+    }
+    
+    // Fields that feed progress counters, live ETAs and the change stream
+    public boolean touchesTrackedFields() {
+        return status != null || collected != null || arrivedAt != null;
+    }
+}
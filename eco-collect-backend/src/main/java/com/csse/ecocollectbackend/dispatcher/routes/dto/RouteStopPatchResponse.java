@@ -0,0 +1,32 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The fields a patch wrote, without loading the stop; fields it did not touch are omitted
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RouteStopPatchResponse {
+    
+    private Integer stopId;
+    private Integer routeId;
+    private RouteStop.StopStatus status;
+    private Boolean collected;
+    private LocalDateTime arrivedAt;
+    private String photoUrl;
+    private BigDecimal weightKg;
+    private String notes;
+    private RouteStop.ReasonCode reasonCode;
+    private LocalDateTime updatedAt;
+    private Long changeVersion;
+}
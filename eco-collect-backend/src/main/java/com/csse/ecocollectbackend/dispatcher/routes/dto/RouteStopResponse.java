@@ -26,6 +26,7 @@ public class RouteStopResponse {
     private String photoUrl;
     private LocalDateTime plannedEta;
     private LocalDateTime arrivedAt;
+    private LocalDateTime liveEta;
     private String status;
     private Integer reassignedToDriverId;
     private String reassignedToDriverName;
@@ -0,0 +1,24 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stop's position in its route (ward order, then stop order) with its planned ETA
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopSequenceRow {
+    
+    private Integer stopId;
+    private Integer routeId;
+    private String binId;
+    private Integer wardNumber;
+    private int wardOrder;
+    private int stopOrder;
+    private LocalDateTime plannedEta;
+}
@@ -0,0 +1,38 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A change pushed to stream subscribers; which fields are set depends on type
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RouteStreamEvent {
+    
+    public static final String STOP_CHANGED = "stop-changed";
+    public static final String ETAS_UPDATED = "etas-updated";
+    public static final String FOLLOWUP_CREATED = "followup-created";
+    
+    private String type;
+    private Integer routeId;
+    private Long zoneId;
+    private LocalDate collectionDate;
+    private Integer stopId;
+    private String binId;
+    private RouteStop.StopStatus status;
+    private Boolean collected;
+    private LocalDateTime arrivedAt;
+    private Map<Integer, LocalDateTime> liveEtas;
+    private Integer followupId;
+    private LocalDateTime occurredAt;
+}
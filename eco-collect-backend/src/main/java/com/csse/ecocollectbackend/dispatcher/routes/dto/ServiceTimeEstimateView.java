@@ -0,0 +1,9 @@
+package com.csse.ecocollectbackend.dispatcher.routes.dto;
+
+/**
+ * The current values of one service time estimate, read as columns rather than as a managed entity
+ */
+public interface ServiceTimeEstimateView {
+    Double getEwmaMinutes();
+    Integer getSampleCount();
+}
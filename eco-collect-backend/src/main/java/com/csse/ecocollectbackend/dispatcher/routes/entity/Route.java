@@ -1,5 +1,7 @@
 package com.csse.ecocollectbackend.dispatcher.routes.entity;
 
+import com.csse.ecocollectbackend.common.version.ChangeVersionListener;
+import com.csse.ecocollectbackend.common.version.ChangeVersioned;
 import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
 import com.csse.ecocollectbackend.dispatcher.zones.entity.Zone;
 import com.csse.ecocollectbackend.login.entity.User;
@@ -13,11 +15,13 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "routes")
+@Table(name = "routes",
+       indexes = @Index(name = "idx_routes_collector_change_version", columnList = "collector_id, change_version"))
+@EntityListeners({RouteChangeListener.class, ChangeVersionListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Route {
+public class Route implements ChangeVersioned {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -59,10 +63,15 @@ public class Route {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Version of the last transaction that wrote the row, for collector delta downloads
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
     @OneToMany(mappedBy = "route", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<RouteWard> routeWards;
     
     @OneToMany(mappedBy = "route", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("stopOrder ASC")
     private List<RouteStop> routeStops;
     
     @PreUpdate
@@ -0,0 +1,28 @@
+package com.csse.ecocollectbackend.dispatcher.routes.entity;
+
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteChangedEvent;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports route updates and deletions made through JPA as RouteChangedEvent
+ */
+@Component
+public class RouteChangeListener {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public RouteChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostUpdate
+    @PostRemove
+    public void onChange(Route route) {
+        if (route.getRouteId() != null) {
+            eventPublisher.publishEvent(new RouteChangedEvent(route.getRouteId()));
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.csse.ecocollectbackend.dispatcher.routes.entity;
 
+import com.csse.ecocollectbackend.common.version.ChangeVersionListener;
+import com.csse.ecocollectbackend.common.version.ChangeVersioned;
 import com.csse.ecocollectbackend.login.entity.User;
 import com.csse.ecocollectbackend.resident.entity.Bin;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
-@Table(name = "route_stops")
+@Table(name = "route_stops",
+       indexes = {
+           @Index(name = "idx_route_stops_status_updated_at", columnList = "status, updated_at"),
+           @Index(name = "idx_route_stops_route_change_version", columnList = "route_id, change_version")
+       })
+@EntityListeners({RouteStopChangeListener.class, ChangeVersionListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class RouteStop {
+public class RouteStop implements ChangeVersioned {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -53,6 +66,9 @@ public class RouteStop {
     @Column(name = "arrived_at")
     private LocalDateTime arrivedAt;
     
+    @Column(name = "live_eta")
+    private LocalDateTime liveEta;
+    
     @Enumerated(EnumType.STRING)
     @Column(name = "status", length = 20)
     private StopStatus status = StopStatus.PENDING;
@@ -81,11 +97,37 @@ public class RouteStop {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Version of the last transaction that wrote the row, for collector delta downloads
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
+    // Status, collected flag and arrival as last read from or written to the database, for change deltas
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private StopStatus persistedStatus;
+    
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Boolean persistedCollected;
+    
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private LocalDateTime persistedArrivedAt;
+    
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
     
+    void rememberPersistedState() {
+        persistedStatus = status;
+        persistedCollected = collected;
+        persistedArrivedAt = arrivedAt;
+    }
+    
     public enum StopStatus {
         PENDING("PENDING"),
         IN_PROGRESS("IN_PROGRESS"),
@@ -93,6 +135,18 @@ public class RouteStop {
         MISSED("MISSED"),
         SKIPPED("SKIPPED");
         
+        // Allowed transitions for followup-aware status updates: DONE is final, while MISSED and
+        // SKIPPED stops can still be rescheduled, collected later or reclassified
+        private static final Map<StopStatus, Set<StopStatus>> TRANSITIONS = new EnumMap<>(StopStatus.class);
+        
+        static {
+            TRANSITIONS.put(PENDING, EnumSet.of(IN_PROGRESS, DONE, MISSED, SKIPPED));
+            TRANSITIONS.put(IN_PROGRESS, EnumSet.of(PENDING, DONE, MISSED, SKIPPED));
+            TRANSITIONS.put(DONE, EnumSet.noneOf(StopStatus.class));
+            TRANSITIONS.put(MISSED, EnumSet.of(PENDING, IN_PROGRESS, DONE, SKIPPED));
+            TRANSITIONS.put(SKIPPED, EnumSet.of(PENDING, IN_PROGRESS, DONE, MISSED));
+        }
+        
         private final String value;
         
         StopStatus(String value) {
@@ -102,6 +156,24 @@ public class RouteStop {
         public String getValue() {
             return value;
         }
+        
+        public boolean canTransitionTo(StopStatus next) {
+            return next != null && TRANSITIONS.get(this).contains(next);
+        }
+        
+        /**
+         * The statuses a stop may be in for a write to set it to next: those allowed to move to it,
+         * and next itself, which leaves the stop as it is
+         */
+        public static Set<StopStatus> predecessorsOf(StopStatus next) {
+            Set<StopStatus> predecessors = EnumSet.of(next);
+            for (StopStatus status : values()) {
+                if (status.canTransitionTo(next)) {
+                    predecessors.add(status);
+                }
+            }
+            return predecessors;
+        }
     }
     
     public enum ReasonCode {
@@ -0,0 +1,92 @@
+package com.csse.ecocollectbackend.dispatcher.routes.entity;
+
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteStopChangedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteProgressTracker;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Reports route stop changes made through JPA
+ * 
+ * Status and collected deltas go to RouteProgressTracker; creations and changes to status,
+ * collected or arrival time are published as RouteStopChangedEvent; deletions leave a tombstone
+ * for collector delta downloads. The tracker and repository are looked up lazily because entity
+ * listeners are created with the EntityManagerFactory, before the beans they depend on exist.
+ */
+@Component
+public class RouteStopChangeListener {
+    
+    private final ObjectProvider<RouteProgressTracker> routeProgressTracker;
+    private final ObjectProvider<RouteStopBatchRepository> routeStopBatchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public RouteStopChangeListener(ObjectProvider<RouteProgressTracker> routeProgressTracker,
+                                   ObjectProvider<RouteStopBatchRepository> routeStopBatchRepository,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.routeProgressTracker = routeProgressTracker;
+        this.routeStopBatchRepository = routeStopBatchRepository;
+        this.eventPublisher = eventPublisher;
+    }
+    
+    @PostLoad
+    public void onLoad(RouteStop routeStop) {
+        routeStop.rememberPersistedState();
+    }
+    
+    @PostPersist
+    public void onPersist(RouteStop routeStop) {
+        trackProgress(routeStop, null, null, routeStop.getStatus(), routeStop.getCollected());
+        publish(routeStop);
+        routeStop.rememberPersistedState();
+    }
+    
+    @PostUpdate
+    public void onUpdate(RouteStop routeStop) {
+        trackProgress(routeStop, routeStop.getPersistedStatus(), routeStop.getPersistedCollected(),
+                      routeStop.getStatus(), routeStop.getCollected());
+        if (routeStop.getStatus() != routeStop.getPersistedStatus()
+                || !Objects.equals(routeStop.getCollected(), routeStop.getPersistedCollected())
+                || !Objects.equals(routeStop.getArrivedAt(), routeStop.getPersistedArrivedAt())) {
+            publish(routeStop);
+        }
+        routeStop.rememberPersistedState();
+    }
+    
+    @PostRemove
+    public void onRemove(RouteStop routeStop) {
+        trackProgress(routeStop, routeStop.getPersistedStatus(), routeStop.getPersistedCollected(), null, null);
+        RouteStopBatchRepository repository = routeStopBatchRepository.getIfAvailable();
+        if (repository != null && routeStop.getRoute() != null) {
+            repository.recordDeletedStop(routeStop.getStopId(), routeStop.getRoute().getRouteId());
+        }
+    }
+    
+    private void trackProgress(RouteStop routeStop,
+                               RouteStop.StopStatus oldStatus, Boolean oldCollected,
+                               RouteStop.StopStatus newStatus, Boolean newCollected) {
+        if (routeStop.getRoute() == null) {
+            return;
+        }
+        RouteProgressTracker tracker = routeProgressTracker.getIfAvailable();
+        if (tracker != null) {
+            tracker.onStopChanged(routeStop.getRoute().getRouteId(), oldStatus, oldCollected, newStatus, newCollected);
+        }
+    }
+    
+    private void publish(RouteStop routeStop) {
+        if (routeStop.getRoute() == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new RouteStopChangedEvent(routeStop.getRoute().getRouteId(), routeStop.getStopId(),
+                routeStop.getBin() != null ? routeStop.getBin().getBinId() : null,
+                routeStop.getStatus(), routeStop.getCollected(), routeStop.getArrivedAt()));
+    }
+}
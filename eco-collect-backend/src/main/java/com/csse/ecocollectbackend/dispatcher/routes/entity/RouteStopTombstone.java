@@ -0,0 +1,33 @@
+package com.csse.ecocollectbackend.dispatcher.routes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a deleted route stop, so collector delta downloads can tell devices to drop it
+ */
+@Entity
+@Table(name = "route_stop_tombstones",
+       indexes = @Index(name = "idx_route_stop_tombstones_route_change_version", columnList = "route_id, change_version"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteStopTombstone {
+    
+    @Id
+    @Column(name = "stop_id")
+    private Integer stopId;
+    
+    @Column(name = "route_id", nullable = false)
+    private Integer routeId;
+    
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,49 @@
+package com.csse.ecocollectbackend.dispatcher.routes.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Learned minutes from one arrival to the next, per bin or per ward
+ * 
+ * One row per bin and per ward, updated in place as an exponentially weighted
+ * moving average, so the table stays as small as the bin list.
+ */
+@Entity
+@Table(name = "service_time_estimates",
+       uniqueConstraints = @UniqueConstraint(name = "uk_service_time_scope_key", columnNames = {"scope", "scope_key"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ServiceTimeEstimate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 10)
+    private Scope scope;
+    
+    @Column(name = "scope_key", nullable = false, length = 50)
+    private String scopeKey;
+    
+    @Column(name = "ewma_minutes", nullable = false)
+    private Double ewmaMinutes;
+    
+    @Column(name = "sample_count", nullable = false)
+    private Integer sampleCount;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    public enum Scope {
+        BIN,
+        WARD
+    }
+}
@@ -0,0 +1,14 @@
+package com.csse.ecocollectbackend.dispatcher.routes.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published when a route is updated or deleted through JPA, so caches keyed by route can drop it
+ */
+@Data
+@AllArgsConstructor
+public class RouteChangedEvent {
+    
+    private Integer routeId;
+}
@@ -0,0 +1,22 @@
+package com.csse.ecocollectbackend.dispatcher.routes.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Published when an arrival re-projects the live ETAs of a route's remaining stops
+ * liveEtas holds the new ETA per stop ID, in route order, including the arrived stop
+ */
+@Data
+@AllArgsConstructor
+public class RouteEtaUpdatedEvent {
+    
+    private Integer routeId;
+    private Integer arrivedStopId;
+    private LocalDateTime arrivedAt;
+    private long latenessMinutes;
+    private Map<Integer, LocalDateTime> liveEtas;
+}
@@ -0,0 +1,22 @@
+package com.csse.ecocollectbackend.dispatcher.routes.event;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a route stop is created, or its status, collected flag or arrival time changes
+ */
+@Data
+@AllArgsConstructor
+public class RouteStopChangedEvent {
+    
+    private Integer routeId;
+    private Integer stopId;
+    private String binId;
+    private RouteStop.StopStatus status;
+    private Boolean collected;
+    private LocalDateTime arrivedAt;
+}
@@ -0,0 +1,10 @@
+package com.csse.ecocollectbackend.dispatcher.routes.optimizer;
+
+/**
+ * Distance between two stops, addressed by their index in the sequence being optimized
+ */
+@FunctionalInterface
+public interface DistanceFunction {
+    
+    double distance(int from, int to);
+}
@@ -0,0 +1,274 @@
+package com.csse.ecocollectbackend.dispatcher.routes.optimizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Symmetric bin-to-bin distance matrix in meters, stored as floats in a memory-mapped file
+ * 
+ * Only the lower triangle is kept, row by row: row i holds the distances from bin i to
+ * bins 0..i-1 and starts at float offset i*(i-1)/2. A new bin therefore appends one row
+ * at the end of the file without moving anything already written. The file is mapped in
+ * segments of up to 1 GB so matrices larger than 2 GB still work, and none of the
+ * distances live on the Java heap.
+ * 
+ * A build writes a temporary file next to the target and renames it into place only when
+ * complete, so a matrix still mapping the previous file is never truncated under its readers.
+ */
+public class DistanceMatrix implements AutoCloseable {
+    
+    // 2^28 floats = 1 GB per mapped segment
+    private static final int SEGMENT_SHIFT = 28;
+    private static final long MIN_SEGMENT_FLOATS = 1L << 16;
+    
+    // Per instance so tests can cross segment boundaries without gigabyte files
+    private final int segmentShift;
+    private final long segmentFloats;
+    private final long segmentMask;
+    private Path file;
+    // Identifies this matrix's file across the rename, so close never deletes a newer build's file
+    private final Object fileKey;
+    private final FileChannel channel;
+    // Copy-on-write so readers never see the list mid-resize while a bin is appended
+    private final List<FloatBuffer> segments = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> indexByBinId = new HashMap<>();
+    
+    private String[] binIds;
+    // Unit-sphere coordinates per bin, so each distance is a chord length rather than a haversine
+    private double[] x;
+    private double[] y;
+    private double[] z;
+    private volatile int size;
+    
+    private DistanceMatrix(Path file, int capacity, int segmentShift) throws IOException {
+        this.segmentShift = segmentShift;
+        this.segmentFloats = 1L << segmentShift;
+        this.segmentMask = segmentFloats - 1;
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.fileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        this.binIds = new String[Math.max(16, capacity)];
+        this.x = new double[binIds.length];
+        this.y = new double[binIds.length];
+        this.z = new double[binIds.length];
+    }
+    
+    /**
+     * Builds a matrix for the given bins, computing rows in parallel on the pool
+     * 
+     * @param file Backing file; an existing one is replaced atomically once the build completes
+     * @param binIds Bin IDs, each with coordinates at the same position in latitudes and longitudes
+     */
+    public static DistanceMatrix build(Path file, List<String> binIds, double[] latitudes, double[] longitudes,
+                                       ForkJoinPool pool) {
+        return build(file, binIds, latitudes, longitudes, pool, SEGMENT_SHIFT);
+    }
+    
+    static DistanceMatrix build(Path file, List<String> binIds, double[] latitudes, double[] longitudes,
+                                ForkJoinPool pool, int segmentShift) {
+        Path temporary = null;
+        DistanceMatrix matrix = null;
+        try {
+            temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName() + "-", ".tmp");
+            matrix = new DistanceMatrix(temporary, binIds.size(), segmentShift);
+            int n = binIds.size();
+            for (int i = 0; i < n; i++) {
+                matrix.binIds[i] = binIds.get(i);
+                matrix.setPosition(i, latitudes[i], longitudes[i]);
+                matrix.indexByBinId.put(binIds.get(i), i);
+            }
+            matrix.ensureMapped(rowOffset(n));
+            
+            // Rows cover disjoint ranges of the file, so they can be written concurrently
+            DistanceMatrix building = matrix;
+            pool.submit(() -> IntStream.range(1, n).parallel().forEach(building::writeRow)).get();
+            matrix.size = n;
+            
+            // The mapping follows the file through the rename
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            matrix.file = file;
+            return matrix;
+        } catch (IOException e) {
+            discard(matrix, temporary);
+            throw new UncheckedIOException("Failed to create distance matrix at " + file, e);
+        } catch (InterruptedException e) {
+            discard(matrix, temporary);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Distance matrix build interrupted", e);
+        } catch (Exception e) {
+            discard(matrix, temporary);
+            throw new IllegalStateException("Failed to build distance matrix at " + file, e);
+        }
+    }
+    
+    private static void discard(DistanceMatrix matrix, Path temporary) {
+        try {
+            if (matrix != null) {
+                matrix.segments.clear();
+                matrix.channel.close();
+            }
+            if (temporary != null) {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            // Best effort; the build error is what the caller needs
+        }
+    }
+    
+    /**
+     * Adds a bin, or moves it if it is already present, updating only the distances that involve it
+     * 
+     * @return The bin's index in the matrix
+     */
+    public synchronized int put(String binId, double latitude, double longitude) {
+        Integer existing = indexByBinId.get(binId);
+        if (existing != null) {
+            setPosition(existing, latitude, longitude);
+            writeRow(existing);
+            for (int k = existing + 1; k < size; k++) {
+                setFloat(rowOffset(k) + existing, distanceBetween(k, existing));
+            }
+            return existing;
+        }
+        
+        int index = size;
+        if (index == binIds.length) {
+            int capacity = binIds.length * 2;
+            binIds = Arrays.copyOf(binIds, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            z = Arrays.copyOf(z, capacity);
+        }
+        binIds[index] = binId;
+        setPosition(index, latitude, longitude);
+        ensureMapped(rowOffset(index + 1));
+        writeRow(index);
+        indexByBinId.put(binId, index);
+        size = index + 1;
+        return index;
+    }
+    
+    /**
+     * Returns the bin's index, or -1 when it is not in the matrix
+     */
+    public synchronized int indexOf(String binId) {
+        Integer index = indexByBinId.get(binId);
+        return index != null ? index : -1;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Distance in meters between two bins by matrix index
+     */
+    public float distance(int i, int j) {
+        if (i == j) {
+            return 0f;
+        }
+        return i > j ? getFloat(rowOffset(i) + j) : getFloat(rowOffset(j) + i);
+    }
+    
+    /**
+     * Distance function over a subset of bins, addressed by their position in matrixIndexes
+     */
+    public DistanceFunction over(int[] matrixIndexes) {
+        return (from, to) -> distance(matrixIndexes[from], matrixIndexes[to]);
+    }
+    
+    @Override
+    public void close() {
+        try {
+            segments.clear();
+            channel.close();
+            // A newer build may already have been renamed over this path
+            if (Files.exists(file) && fileKey != null
+                    && fileKey.equals(Files.readAttributes(file, BasicFileAttributes.class).fileKey())) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close distance matrix at " + file, e);
+        }
+    }
+    
+    private static long rowOffset(int row) {
+        return (long) row * (row - 1) / 2;
+    }
+    
+    private void writeRow(int row) {
+        long offset = rowOffset(row);
+        for (int j = 0; j < row; j++) {
+            setFloat(offset + j, distanceBetween(row, j));
+        }
+    }
+    
+    private void setPosition(int index, double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lng = Math.toRadians(longitude);
+        x[index] = Math.cos(lat) * Math.cos(lng);
+        y[index] = Math.cos(lat) * Math.sin(lng);
+        z[index] = Math.sin(lat);
+    }
+    
+    private float distanceBetween(int i, int j) {
+        double dx = x[i] - x[j];
+        double dy = y[i] - y[j];
+        double dz = z[i] - z[j];
+        return (float) GeoDistance.chordToMeters(Math.sqrt(dx * dx + dy * dy + dz * dz));
+    }
+    
+    private float getFloat(long index) {
+        return segments.get((int) (index >>> segmentShift)).get((int) (index & segmentMask));
+    }
+    
+    private void setFloat(long index, float value) {
+        segments.get((int) (index >>> segmentShift)).put((int) (index & segmentMask), value);
+    }
+    
+    /**
+     * Maps enough of the file to hold the given number of floats
+     * 
+     * The last segment grows geometrically so appending bins does not remap on every add,
+     * and small matrices do not reserve a full segment. Mapping past the end grows the file.
+     */
+    private void ensureMapped(long floats) {
+        try {
+            int needed = Math.max(1, (int) ((floats + segmentFloats - 1) >>> segmentShift));
+            for (int s = 0; s < needed; s++) {
+                long start = (long) s << segmentShift;
+                long wanted = Math.min(segmentFloats, floats - start);
+                int mapped = s < segments.size() ? segments.get(s).capacity() : 0;
+                if (mapped >= wanted && mapped > 0) {
+                    continue;
+                }
+                long length = Math.min(segmentFloats, Math.max(wanted, Math.max(MIN_SEGMENT_FLOATS, mapped * 2L)));
+                FloatBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, start * Float.BYTES, length * Float.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asFloatBuffer();
+                if (s < segments.size()) {
+                    segments.set(s, buffer);
+                } else {
+                    segments.add(buffer);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map distance matrix at " + file, e);
+        }
+    }
+}
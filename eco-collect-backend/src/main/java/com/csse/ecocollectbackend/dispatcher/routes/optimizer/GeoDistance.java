@@ -0,0 +1,34 @@
+package com.csse.ecocollectbackend.dispatcher.routes.optimizer;
+
+/**
+ * Great-circle distance helpers for bin coordinates
+ */
+public final class GeoDistance {
+    
+    private static final double EARTH_RADIUS_METERS = 6_371_000.0;
+    
+    private GeoDistance() {
+    }
+    
+    /**
+     * Haversine distance in meters between two latitude/longitude points given in degrees
+     */
+    public static double haversineMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+    
+    /**
+     * Great-circle distance in meters for the straight-line distance between two points on the unit sphere
+     * 
+     * Equivalent to haversine, but lets callers precompute one unit vector per point and pay
+     * only a sqrt and an asin per pair.
+     */
+    public static double chordToMeters(double chord) {
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, chord / 2));
+    }
+}
@@ -0,0 +1,187 @@
+package com.csse.ecocollectbackend.dispatcher.routes.optimizer;
+
+/**
+ * Orders stops to shorten an open path (no return to depot)
+ * 
+ * Builds a nearest-neighbour tour from stop 0, then alternates 2-opt segment reversals and
+ * Or-opt moves of 1-3 consecutive stops until neither finds an improvement or the deadline
+ * passes. Stops are plain indexes, so the caller decides what a distance is.
+ */
+public final class StopSequenceOptimizer {
+    
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+    private static final double EPSILON = 1e-9;
+    
+    private StopSequenceOptimizer() {
+    }
+    
+    /**
+     * Returns a visiting order for stops 0..size-1
+     * 
+     * @param size Number of stops
+     * @param distance Distance between two stop indexes
+     * @param deadlineNanos System.nanoTime() value after which improvement stops
+     * @return Stop indexes in visiting order
+     */
+    public static int[] optimize(int size, DistanceFunction distance, long deadlineNanos) {
+        int[] tour = nearestNeighbour(size, distance);
+        if (size < 3) {
+            return tour;
+        }
+        
+        boolean improved = true;
+        while (improved && System.nanoTime() < deadlineNanos) {
+            improved = twoOpt(tour, distance, deadlineNanos);
+            improved |= orOpt(tour, distance, deadlineNanos);
+        }
+        return tour;
+    }
+    
+    /**
+     * Total length of the open path visiting stops in the given order
+     */
+    public static double pathLength(int[] tour, DistanceFunction distance) {
+        double length = 0;
+        for (int i = 1; i < tour.length; i++) {
+            length += distance.distance(tour[i - 1], tour[i]);
+        }
+        return length;
+    }
+    
+    static int[] nearestNeighbour(int size, DistanceFunction distance) {
+        int[] tour = new int[size];
+        if (size == 0) {
+            return tour;
+        }
+        
+        boolean[] visited = new boolean[size];
+        int current = 0;
+        visited[0] = true;
+        for (int position = 1; position < size; position++) {
+            int next = -1;
+            double best = Double.MAX_VALUE;
+            for (int candidate = 0; candidate < size; candidate++) {
+                if (!visited[candidate]) {
+                    double d = distance.distance(current, candidate);
+                    if (d < best) {
+                        best = d;
+                        next = candidate;
+                    }
+                }
+            }
+            visited[next] = true;
+            tour[position] = next;
+            current = next;
+        }
+        return tour;
+    }
+    
+    static boolean twoOpt(int[] tour, DistanceFunction distance, long deadlineNanos) {
+        int n = tour.length;
+        boolean improved = false;
+        
+        for (int i = 0; i < n - 1; i++) {
+            if (System.nanoTime() >= deadlineNanos) {
+                break;
+            }
+            for (int k = i + 1; k < n; k++) {
+                // Reversing tour[i..k] only changes the edges at either end of the segment
+                double before = 0;
+                double after = 0;
+                if (i > 0) {
+                    before += distance.distance(tour[i - 1], tour[i]);
+                    after += distance.distance(tour[i - 1], tour[k]);
+                }
+                if (k < n - 1) {
+                    before += distance.distance(tour[k], tour[k + 1]);
+                    after += distance.distance(tour[i], tour[k + 1]);
+                }
+                if (after < before - EPSILON) {
+                    reverse(tour, i, k);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+    
+    static boolean orOpt(int[] tour, DistanceFunction distance, long deadlineNanos) {
+        int n = tour.length;
+        boolean improved = false;
+        int[] rest = new int[n];
+        
+        for (int segmentLength = 1; segmentLength <= MAX_OR_OPT_SEGMENT && segmentLength < n; segmentLength++) {
+            for (int i = 0; i + segmentLength <= n; i++) {
+                if (System.nanoTime() >= deadlineNanos) {
+                    return improved;
+                }
+                
+                int first = tour[i];
+                int last = tour[i + segmentLength - 1];
+                int prev = i > 0 ? tour[i - 1] : -1;
+                int next = i + segmentLength < n ? tour[i + segmentLength] : -1;
+                
+                double removeGain = edge(distance, prev, first) + edge(distance, last, next)
+                        - edge(distance, prev, next);
+                
+                int restLength = 0;
+                for (int p = 0; p < n; p++) {
+                    if (p < i || p >= i + segmentLength) {
+                        rest[restLength++] = tour[p];
+                    }
+                }
+                
+                int bestGap = -1;
+                boolean bestReversed = false;
+                double bestCost = removeGain - EPSILON;
+                for (int gap = 0; gap <= restLength; gap++) {
+                    if (gap == i) {
+                        continue; // Same place the segment came from
+                    }
+                    int a = gap > 0 ? rest[gap - 1] : -1;
+                    int b = gap < restLength ? rest[gap] : -1;
+                    double base = edge(distance, a, b);
+                    
+                    double forward = edge(distance, a, first) + edge(distance, last, b) - base;
+                    if (forward < bestCost) {
+                        bestCost = forward;
+                        bestGap = gap;
+                        bestReversed = false;
+                    }
+                    double reversed = edge(distance, a, last) + edge(distance, first, b) - base;
+                    if (reversed < bestCost) {
+                        bestCost = reversed;
+                        bestGap = gap;
+                        bestReversed = true;
+                    }
+                }
+                
+                if (bestGap >= 0) {
+                    int[] segment = new int[segmentLength];
+                    System.arraycopy(tour, i, segment, 0, segmentLength);
+                    if (bestReversed) {
+                        reverse(segment, 0, segmentLength - 1);
+                    }
+                    System.arraycopy(rest, 0, tour, 0, bestGap);
+                    System.arraycopy(segment, 0, tour, bestGap, segmentLength);
+                    System.arraycopy(rest, bestGap, tour, bestGap + segmentLength, restLength - bestGap);
+                    improved = true;
+                }
+            }
+        }
+        return improved;
+    }
+    
+    // Missing endpoints (-1) are the open ends of the path and cost nothing
+    private static double edge(DistanceFunction distance, int from, int to) {
+        return from < 0 || to < 0 ? 0 : distance.distance(from, to);
+    }
+    
+    private static void reverse(int[] values, int from, int to) {
+        while (from < to) {
+            int tmp = values[from];
+            values[from++] = values[to];
+            values[to--] = tmp;
+        }
+    }
+}
@@ -1,18 +1,38 @@
 package com.csse.ecocollectbackend.dispatcher.routes.repository;
 
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CrewLoadView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.DayBoardRowView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteLoadView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteScopeView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopCountView;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.login.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RouteRepository extends JpaRepository<Route, Integer> {
     
+    // Builds RouteResponse in one statement instead of touching four lazy associations per route
+    String ROUTE_RESPONSE_SELECT =
+            "SELECT new com.csse.ecocollectbackend.dispatcher.routes.dto.RouteResponse(" +
+            "r.routeId, r.routeName, z.zoneId, z.zoneName, r.collectionDate, r.vehicleId, " +
+            "t.truckId, t.truckName, d.userId, d.name, c.userId, c.name, r.status, r.createdAt, r.updatedAt) " +
+            "FROM Route r JOIN r.zone z LEFT JOIN r.truck t LEFT JOIN r.dispatcher d LEFT JOIN r.collector c ";
+    
     List<Route> findByDispatcherUserId(Integer dispatcherId);
     
     List<Route> findByCollectorUserId(Integer collectorId);
@@ -30,4 +50,99 @@ public interface RouteRepository extends JpaRepository<Route, Integer> {
                                           @Param("endDate") LocalDate endDate);
     
     Optional<Route> findByRouteName(String routeName);
+    
+    @Query(ROUTE_RESPONSE_SELECT + "ORDER BY r.routeId")
+    List<RouteResponse> findAllResponses();
+    
+    @Query(ROUTE_RESPONSE_SELECT + "WHERE r.routeId = :routeId")
+    Optional<RouteResponse> findResponseById(@Param("routeId") Integer routeId);
+    
+    @Query(ROUTE_RESPONSE_SELECT + "WHERE d.userId = :dispatcherId ORDER BY r.routeId")
+    List<RouteResponse> findResponsesByDispatcherId(@Param("dispatcherId") Integer dispatcherId);
+    
+    @Query(ROUTE_RESPONSE_SELECT + "WHERE c.userId = :collectorId ORDER BY r.routeId")
+    List<RouteResponse> findResponsesByCollectorId(@Param("collectorId") Integer collectorId);
+    
+    @Query(ROUTE_RESPONSE_SELECT + "WHERE z.zoneId = :zoneId ORDER BY r.routeId")
+    List<RouteResponse> findResponsesByZoneId(@Param("zoneId") Long zoneId);
+    
+    @Query(ROUTE_RESPONSE_SELECT + "WHERE r.collectionDate = :collectionDate ORDER BY r.routeId")
+    List<RouteResponse> findResponsesByCollectionDate(@Param("collectionDate") LocalDate collectionDate);
+    
+    @Query(ROUTE_RESPONSE_SELECT + "WHERE r.status = :status ORDER BY r.routeId")
+    List<RouteResponse> findResponsesByStatus(@Param("status") Route.RouteStatus status);
+    
+    @Query("SELECT r.routeId FROM Route r WHERE r.zone.zoneId = :zoneId AND r.collectionDate = :collectionDate")
+    List<Integer> findRouteIdsByZoneAndCollectionDate(@Param("zoneId") Long zoneId,
+                                                     @Param("collectionDate") LocalDate collectionDate);
+    
+    @Query("SELECT r.routeId FROM Route r WHERE r.collectionDate = :collectionDate AND r.status = :status ORDER BY r.routeId")
+    List<Integer> findRouteIdsByCollectionDateAndStatus(@Param("collectionDate") LocalDate collectionDate,
+                                                        @Param("status") Route.RouteStatus status);
+    
+    @Query("SELECT r.routeId FROM Route r WHERE r.routeId IN :routeIds AND r.status = :status ORDER BY r.routeId")
+    List<Integer> findRouteIdsByRouteIdsAndStatus(@Param("routeIds") Collection<Integer> routeIds,
+                                                  @Param("status") Route.RouteStatus status);
+    
+    @Query("SELECT DISTINCT r.truck.truckId FROM Route r WHERE r.collectionDate = :collectionDate AND r.truck IS NOT NULL")
+    List<Integer> findTruckIdsInUseOnDate(@Param("collectionDate") LocalDate collectionDate);
+    
+    // Crewed routes with their truck capacity and stop progress, one row per route
+    @Query("SELECT r.routeId AS routeId, c.userId AS collectorId, t.truckId AS truckId, t.capacityKg AS capacityKg, " +
+           "COALESCE(SUM(CASE WHEN rs.collected = true THEN rs.weightKg ELSE 0 END), 0) AS collectedKg, " +
+           "COALESCE(SUM(CASE WHEN rs.status = :pending THEN 1 ELSE 0 END), 0) AS pendingStops " +
+           "FROM Route r JOIN r.collector c JOIN r.truck t LEFT JOIN r.routeStops rs " +
+           "WHERE r.collectionDate = :collectionDate AND r.status = :status " +
+           "GROUP BY r.routeId, c.userId, t.truckId, t.capacityKg ORDER BY r.routeId")
+    List<RouteLoadView> findRouteLoadsByCollectionDateAndStatus(@Param("collectionDate") LocalDate collectionDate,
+                                                                @Param("status") Route.RouteStatus status,
+                                                                @Param("pending") RouteStop.StopStatus pending);
+    
+    // One row per collector and truck with the number of stops planned for them on the date
+    @Query("SELECT c.userId AS collectorId, t.truckId AS truckId, t.status AS truckStatus, t.capacityKg AS capacityKg, " +
+           "COUNT(rs) AS stopCount " +
+           "FROM Route r JOIN r.collector c LEFT JOIN r.truck t LEFT JOIN r.routeStops rs " +
+           "WHERE r.collectionDate = :collectionDate " +
+           "GROUP BY c.userId, t.truckId, t.status, t.capacityKg ORDER BY c.userId, t.capacityKg DESC")
+    List<CrewLoadView> findCrewLoadsByCollectionDate(@Param("collectionDate") LocalDate collectionDate);
+    
+    // Stop counts per route, status and collected flag; routes without stops give one row with a null status
+    @Query("SELECT r.routeId AS routeId, r.collectionDate AS collectionDate, rs.status AS status, " +
+           "rs.collected AS collected, COUNT(rs) AS stopCount " +
+           "FROM Route r LEFT JOIN r.routeStops rs " +
+           "WHERE r.collectionDate BETWEEN :fromDate AND :toDate " +
+           "GROUP BY r.routeId, r.collectionDate, rs.status, rs.collected")
+    List<RouteStopCountView> findStopCountsByCollectionDateBetween(@Param("fromDate") LocalDate fromDate,
+                                                                   @Param("toDate") LocalDate toDate);
+    
+    // Day board: every route on the date with its crew, one row per stop status
+    @Query("SELECT r.routeId AS routeId, r.routeName AS routeName, z.zoneId AS zoneId, z.zoneName AS zoneName, " +
+           "r.status AS status, t.truckId AS truckId, t.truckName AS truckName, " +
+           "c.userId AS collectorId, c.name AS collectorName, rs.status AS stopStatus, COUNT(rs) AS stopCount, " +
+           "COALESCE(SUM(CASE WHEN rs.collected = true THEN 1 ELSE 0 END), 0) AS collectedCount " +
+           "FROM Route r JOIN r.zone z LEFT JOIN r.truck t LEFT JOIN r.collector c LEFT JOIN r.routeStops rs " +
+           "WHERE r.collectionDate = :collectionDate " +
+           "GROUP BY r.routeId, r.routeName, z.zoneId, z.zoneName, r.status, t.truckId, t.truckName, " +
+           "c.userId, c.name, rs.status " +
+           "ORDER BY r.routeId")
+    List<DayBoardRowView> findDayBoardRows(@Param("collectionDate") LocalDate collectionDate);
+    
+    @Query("SELECT r.routeId AS routeId, r.collectionDate AS collectionDate, r.zone.zoneId AS zoneId " +
+           "FROM Route r WHERE r.routeId = :routeId")
+    Optional<RouteScopeView> findScopeByRouteId(@Param("routeId") Integer routeId);
+    
+    @Query("SELECT r.collectionDate FROM Route r WHERE r.routeId = :routeId")
+    Optional<LocalDate> findCollectionDateByRouteId(@Param("routeId") Integer routeId);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Route r WHERE r.routeId = :routeId")
+    Optional<Route> findByIdForUpdate(@Param("routeId") Integer routeId);
+    
+    @Modifying
+    @Query("UPDATE Route r SET r.collector = :collector, r.updatedAt = :updatedAt, r.changeVersion = :changeVersion " +
+           "WHERE r.routeId IN :routeIds")
+    int updateCollectorByRouteIds(@Param("routeIds") List<Integer> routeIds,
+                                  @Param("collector") User collector,
+                                  @Param("updatedAt") LocalDateTime updatedAt,
+                                  @Param("changeVersion") Long changeVersion);
 }
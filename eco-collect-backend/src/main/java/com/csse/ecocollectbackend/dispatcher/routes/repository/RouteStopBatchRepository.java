@@ -0,0 +1,554 @@
+package com.csse.ecocollectbackend.dispatcher.routes.repository;
+
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.PendingStopLocationRow;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopFieldUpdate;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopOrderRow;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopOwnerRow;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopPatchRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopSequenceRow;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * JDBC batch and set-based writes for route stops
+ *
+ * RouteStop uses IDENTITY ids, so Hibernate cannot batch its inserts. Bulk stop
+ * generation goes through here instead and sends the rows in JDBC batches of
+ * ecocollect.route-stops.batch-size. Bulk updates that would otherwise load
+ * every stop into the persistence context also live here as single statements.
+ */
+@Repository
+public class RouteStopBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO route_stops (route_id, bin_id, driver_id, stop_order, collected, planned_eta, " +
+            "status, reason_code, source, weight_kg, created_at, updated_at, change_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Ward order comes from the route_wards row matching the bin's ward; stops without one count as ward 1.
+    // Minutes per stop are the ward's learned estimate when it has enough samples, else the default
+    private static final String PLANNED_ETA_EXPR =
+            "TIMESTAMPADD(SECOND, ROUND(((COALESCE(rw.ward_order, 1) - 1) * ? " +
+            "+ (COALESCE(rs.stop_order, 1) - 1) * COALESCE(ste.ewma_minutes, ?)) * 60), " +
+            "TIMESTAMPADD(HOUR, ?, TIMESTAMP(r.collection_date)))";
+
+    // Followed by the scope predicate, then RECALCULATE_PLANNED_ETA_CHANGED; updated_at is left
+    // alone, as for live ETAs, so recalculating history does not mark every stop as changed
+    private static final String RECALCULATE_PLANNED_ETA_SQL =
+            "UPDATE route_stops rs " +
+            "JOIN routes r ON r.route_id = rs.route_id " +
+            "LEFT JOIN bins b ON b.bin_id = rs.bin_id " +
+            "LEFT JOIN zones z ON z.zone_id = b.zone_id " +
+            "LEFT JOIN route_wards rw ON rw.route_id = rs.route_id AND rw.ward_number = z.ward_number " +
+            "LEFT JOIN service_time_estimates ste ON ste.scope = 'WARD' " +
+            "AND ste.scope_key = CAST(z.ward_number AS CHAR) AND ste.sample_count >= ? " +
+            "SET rs.planned_eta = " + PLANNED_ETA_EXPR + " " +
+            "WHERE ";
+
+    private static final String RECALCULATE_PLANNED_ETA_CHANGED =
+            " AND NOT (rs.planned_eta <=> " + PLANNED_ETA_EXPR + ")";
+
+    private static final String UPDATE_STOP_ORDER_SQL =
+            "UPDATE route_stops SET stop_order = ?, updated_at = ?, change_version = ? WHERE stop_id = ?";
+
+    private static final String UPDATE_LIVE_ETA_SQL =
+            "UPDATE route_stops SET live_eta = ? WHERE stop_id = ?";
+
+    // Null parameters keep the current value; reaching DONE also marks the stop collected,
+    // and an arrival becomes the stop's live ETA. The status only moves when the current one is
+    // among its allowed predecessors (a comma-separated list, empty for no status change); collected
+    // is assigned first so it still sees the status before this update
+    private static final String UPDATE_FIELDS_SQL =
+            "UPDATE route_stops SET arrived_at = COALESCE(?, arrived_at), live_eta = COALESCE(?, live_eta), " +
+            "weight_kg = COALESCE(?, weight_kg), " +
+            "collected = CASE WHEN ? = 'DONE' AND FIND_IN_SET(COALESCE(status, 'PENDING'), ?) > 0 " +
+            "THEN TRUE ELSE collected END, " +
+            "status = CASE WHEN FIND_IN_SET(COALESCE(status, 'PENDING'), ?) > 0 THEN ? ELSE status END, " +
+            "notes = COALESCE(?, notes), reason_code = COALESCE(?, reason_code), updated_at = ?, " +
+            "change_version = ? WHERE stop_id = ?";
+
+    // A stop's place in its route: the order of its bin's ward in route_wards, then its stop order
+    private static final String STOP_SEQUENCE_FROM =
+            "FROM route_stops rs " +
+            "LEFT JOIN bins b ON b.bin_id = rs.bin_id " +
+            "LEFT JOIN zones z ON z.zone_id = b.zone_id " +
+            "LEFT JOIN route_wards rw ON rw.route_id = rs.route_id AND rw.ward_number = z.ward_number ";
+
+    private static final String STOP_SEQUENCE_SELECT =
+            "SELECT rs.stop_id, rs.route_id, rs.bin_id, z.ward_number, COALESCE(rw.ward_order, 1) AS ward_order, " +
+            "COALESCE(rs.stop_order, 1) AS stop_order, rs.planned_eta " + STOP_SEQUENCE_FROM;
+
+    private static final RowMapper<RouteStopSequenceRow> STOP_SEQUENCE_ROW_MAPPER = (rs, rowNum) ->
+            new RouteStopSequenceRow(rs.getInt("stop_id"), rs.getInt("route_id"),
+                    rs.getString("bin_id"), rs.getObject("ward_number", Integer.class),
+                    rs.getInt("ward_order"), rs.getInt("stop_order"),
+                    rs.getTimestamp("planned_eta") != null ? rs.getTimestamp("planned_eta").toLocalDateTime() : null);
+
+    private static final RowMapper<PendingStopLocationRow> PENDING_STOP_LOCATION_ROW_MAPPER = (rs, rowNum) ->
+            new PendingStopLocationRow(rs.getInt("stop_id"), rs.getInt("route_id"),
+                    rs.getString("bin_id"), rs.getObject("ward_number", Integer.class),
+                    rs.getInt("ward_order"), rs.getInt("stop_order"),
+                    rs.getObject("latitude", Double.class), rs.getObject("longitude", Double.class),
+                    rs.getTimestamp("eta") != null ? rs.getTimestamp("eta").toLocalDateTime() : null);
+
+    private static final String OWNER_SELECT =
+            "SELECT rs.stop_id, rs.route_id, rs.bin_id, r.collector_id, rs.driver_id, rs.reassigned_to_driver_id, " +
+            "rs.status, rs.collected, rs.arrived_at " +
+            "FROM route_stops rs JOIN routes r ON r.route_id = rs.route_id ";
+
+    private static final RowMapper<RouteStopOwnerRow> OWNER_ROW_MAPPER = (rs, rowNum) ->
+            new RouteStopOwnerRow(rs.getInt("stop_id"), rs.getInt("route_id"), rs.getString("bin_id"),
+                    rs.getObject("collector_id", Integer.class), rs.getObject("driver_id", Integer.class),
+                    rs.getObject("reassigned_to_driver_id", Integer.class),
+                    rs.getString("status") != null ? RouteStop.StopStatus.valueOf(rs.getString("status")) : null,
+                    rs.getObject("collected", Boolean.class),
+                    rs.getTimestamp("arrived_at") != null ? rs.getTimestamp("arrived_at").toLocalDateTime() : null);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeVersionService changeVersionService;
+    private final int batchSize;
+
+    public RouteStopBatchRepository(JdbcTemplate jdbcTemplate,
+                                    ChangeVersionService changeVersionService,
+                                    @Value("${ecocollect.route-stops.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeVersionService = changeVersionService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inserts all given route stops using JDBC batching
+     *
+     * @param routeStops Route stops to insert; route and bin must be set
+     * @return The number of rows inserted
+     */
+    public int insertAll(List<RouteStop> routeStops) {
+        if (routeStops.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long changeVersion = changeVersionService.current();
+        jdbcTemplate.batchUpdate(INSERT_SQL, routeStops, batchSize, (ps, routeStop) -> {
+            ps.setInt(1, routeStop.getRoute().getRouteId());
+            ps.setString(2, routeStop.getBin() != null ? routeStop.getBin().getBinId() : null);
+            if (routeStop.getDriver() != null) {
+                ps.setInt(3, routeStop.getDriver().getUserId());
+            } else {
+                ps.setNull(3, Types.INTEGER);
+            }
+            ps.setInt(4, routeStop.getStopOrder());
+            ps.setBoolean(5, Boolean.TRUE.equals(routeStop.getCollected()));
+            ps.setTimestamp(6, routeStop.getPlannedEta() != null ? Timestamp.valueOf(routeStop.getPlannedEta()) : null);
+            ps.setString(7, routeStop.getStatus().name());
+            ps.setString(8, routeStop.getReasonCode().name());
+            ps.setString(9, routeStop.getSource().name());
+            ps.setBigDecimal(10, routeStop.getWeightKg());
+            ps.setTimestamp(11, now);
+            ps.setTimestamp(12, now);
+            ps.setLong(13, changeVersion);
+        });
+
+        return routeStops.size();
+    }
+
+    /**
+     * Returns every stop of the route with its ward, order and status, locking the stop rows
+     * A collector's status update waits on these locks until the caller's transaction ends
+     */
+    public List<RouteStopOrderRow> findStopOrdersForUpdate(Integer routeId) {
+        return jdbcTemplate.query(
+                "SELECT rs.stop_id, z.ward_number, rs.stop_order, COALESCE(rs.status, 'PENDING') AS status " +
+                "FROM route_stops rs " +
+                "LEFT JOIN bins b ON b.bin_id = rs.bin_id " +
+                "LEFT JOIN zones z ON z.zone_id = b.zone_id " +
+                "WHERE rs.route_id = ? FOR UPDATE OF rs",
+                (rs, rowNum) -> new RouteStopOrderRow(rs.getInt("stop_id"), rs.getObject("ward_number", Integer.class),
+                        rs.getObject("stop_order", Integer.class), RouteStop.StopStatus.valueOf(rs.getString("status"))),
+                routeId);
+    }
+
+    /**
+     * Writes new stop orders using JDBC batching
+     *
+     * @param stopOrderByStopId New stop_order keyed by stop ID
+     * @return The number of rows updated
+     */
+    public int updateStopOrders(Map<Integer, Integer> stopOrderByStopId) {
+        if (stopOrderByStopId.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long changeVersion = changeVersionService.current();
+        jdbcTemplate.batchUpdate(UPDATE_STOP_ORDER_SQL, new ArrayList<>(stopOrderByStopId.entrySet()), batchSize,
+                (ps, entry) -> {
+                    ps.setInt(1, entry.getValue());
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, changeVersion);
+                    ps.setInt(4, entry.getKey());
+                });
+
+        return stopOrderByStopId.size();
+    }
+
+    /**
+     * Returns the given stops with their route's collector and current reported fields, locking the rows
+     * Stops that do not exist are missing from the result
+     */
+    public List<RouteStopOwnerRow> findOwnersForUpdate(Collection<Integer> stopIds) {
+        if (stopIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(", ", Collections.nCopies(stopIds.size(), "?"));
+        return jdbcTemplate.query(
+                OWNER_SELECT + "WHERE rs.stop_id IN (" + placeholders + ") FOR UPDATE",
+                OWNER_ROW_MAPPER, stopIds.toArray());
+    }
+
+    /**
+     * Returns one stop with its route's collector and current reported fields, without locking it,
+     * or null when the stop does not exist
+     */
+    public RouteStopOwnerRow findOwner(Integer stopId) {
+        List<RouteStopOwnerRow> rows = jdbcTemplate.query(OWNER_SELECT + "WHERE rs.stop_id = ?", OWNER_ROW_MAPPER, stopId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Writes collector-reported fields using JDBC batching; null fields keep their current value
+     *
+     * @param updates One update per stop
+     * @return The number of rows updated
+     */
+    public int updateFields(List<RouteStopFieldUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long changeVersion = changeVersionService.current();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_FIELDS_SQL, updates, batchSize, (ps, update) -> {
+            Timestamp arrivedAt = update.getArrivedAt() != null ? Timestamp.valueOf(update.getArrivedAt()) : null;
+            String status = update.getStatus() != null ? update.getStatus().name() : null;
+            String predecessors = update.getStatus() != null ? predecessorList(update.getStatus()) : "";
+            ps.setTimestamp(1, arrivedAt);
+            ps.setTimestamp(2, arrivedAt);
+            ps.setBigDecimal(3, update.getWeightKg());
+            ps.setString(4, status);
+            ps.setString(5, predecessors);
+            ps.setString(6, predecessors);
+            ps.setString(7, status);
+            ps.setString(8, update.getNotes());
+            ps.setString(9, update.getReasonCode() != null ? update.getReasonCode().name() : null);
+            ps.setTimestamp(10, now);
+            ps.setLong(11, changeVersion);
+            ps.setInt(12, update.getStopId());
+        });
+
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Rewritten batches report SUCCESS_NO_INFO (-2) instead of a row count
+                updated += count < 0 ? 1 : count;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Writes only the non-null fields of a patch to one stop, in a single UPDATE by primary key
+     * An arrival also becomes the stop's live ETA; a status only applies from its allowed predecessors
+     *
+     * @return The number of rows matched; 0 when the stop does not exist or its status may not change
+     */
+    public int patchFields(Integer stopId, RouteStopPatchRequest patch, LocalDateTime updatedAt, long changeVersion) {
+        StringBuilder set = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        if (patch.getStatus() != null) {
+            set.append("status = ?, ");
+            params.add(patch.getStatus().name());
+        }
+        if (patch.getCollected() != null) {
+            set.append("collected = ?, ");
+            params.add(patch.getCollected());
+        }
+        if (patch.getArrivedAt() != null) {
+            set.append("arrived_at = ?, live_eta = ?, ");
+            params.add(Timestamp.valueOf(patch.getArrivedAt()));
+            params.add(Timestamp.valueOf(patch.getArrivedAt()));
+        }
+        if (patch.getPhotoUrl() != null) {
+            set.append("photo_url = ?, ");
+            params.add(patch.getPhotoUrl());
+        }
+        if (patch.getWeightKg() != null) {
+            set.append("weight_kg = ?, ");
+            params.add(patch.getWeightKg());
+        }
+        if (patch.getNotes() != null) {
+            set.append("notes = ?, ");
+            params.add(patch.getNotes());
+        }
+        if (patch.getReasonCode() != null) {
+            set.append("reason_code = ?, ");
+            params.add(patch.getReasonCode().name());
+        }
+        set.append("updated_at = ?, change_version = ?");
+        params.add(Timestamp.valueOf(updatedAt));
+        params.add(changeVersion);
+        params.add(stopId);
+        StringBuilder where = new StringBuilder("stop_id = ?");
+        if (patch.getStatus() != null) {
+            Set<RouteStop.StopStatus> predecessors = RouteStop.StopStatus.predecessorsOf(patch.getStatus());
+            where.append(" AND COALESCE(status, 'PENDING') IN (")
+                 .append(String.join(", ", Collections.nCopies(predecessors.size(), "?"))).append(")");
+            for (RouteStop.StopStatus predecessor : predecessors) {
+                params.add(predecessor.name());
+            }
+        }
+        return jdbcTemplate.update("UPDATE route_stops SET " + set + " WHERE " + where, params.toArray());
+    }
+
+    private static String predecessorList(RouteStop.StopStatus status) {
+        StringBuilder list = new StringBuilder();
+        for (RouteStop.StopStatus predecessor : RouteStop.StopStatus.predecessorsOf(status)) {
+            if (list.length() > 0) {
+                list.append(',');
+            }
+            list.append(predecessor.name());
+        }
+        return list.toString();
+    }
+
+    /**
+     * Sets the proof photo on the stop for a bin on a route
+     *
+     * @return The number of rows updated; 0 when the route has no stop for the bin
+     */
+    public int updatePhotoUrl(Integer routeId, String binId, String photoUrl) {
+        return jdbcTemplate.update(
+                "UPDATE route_stops SET photo_url = ?, updated_at = NOW(), change_version = ? " +
+                "WHERE route_id = ? AND bin_id = ?",
+                photoUrl, changeVersionService.current(), routeId, binId);
+    }
+
+    /**
+     * Records tombstones for a route's stops before they are deleted in bulk
+     *
+     * @param wardNumber Only the stops for bins in this ward, or every stop of the route when null
+     * @return The number of tombstones written
+     */
+    public int recordDeletedStops(Integer routeId, Integer wardNumber) {
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO route_stop_tombstones (stop_id, route_id, change_version, deleted_at) " +
+                "SELECT stop_id, route_id, ?, NOW() FROM route_stops WHERE route_id = ?");
+        List<Object> params = new ArrayList<>(List.of(changeVersionService.current(), routeId));
+        if (wardNumber != null) {
+            sql.append(" AND bin_id IN (SELECT b.bin_id FROM bins b JOIN zones z ON z.zone_id = b.zone_id WHERE z.ward_number = ?)");
+            params.add(wardNumber);
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE change_version = VALUES(change_version), deleted_at = VALUES(deleted_at)");
+        return jdbcTemplate.update(sql.toString(), params.toArray());
+    }
+
+    /**
+     * Records a tombstone for one deleted stop
+     */
+    public void recordDeletedStop(Integer stopId, Integer routeId) {
+        jdbcTemplate.update(
+                "INSERT INTO route_stop_tombstones (stop_id, route_id, change_version, deleted_at) VALUES (?, ?, ?, NOW()) " +
+                "ON DUPLICATE KEY UPDATE change_version = VALUES(change_version), deleted_at = VALUES(deleted_at)",
+                stopId, routeId, changeVersionService.current());
+    }
+
+    /**
+     * Returns the IDs of stops deleted from the given routes with a change version in (sinceVersion, untilVersion]
+     */
+    public List<Integer> findDeletedStopIds(Collection<Integer> routeIds, long sinceVersion, long untilVersion) {
+        if (routeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> params = new ArrayList<>(routeIds);
+        params.add(sinceVersion);
+        params.add(untilVersion);
+        return jdbcTemplate.queryForList(
+                "SELECT stop_id FROM route_stop_tombstones WHERE route_id IN (" +
+                String.join(", ", Collections.nCopies(routeIds.size(), "?")) + ") " +
+                "AND change_version > ? AND change_version <= ?",
+                Integer.class, params.toArray());
+    }
+
+    /**
+     * Returns a stop's route position, or null when the stop does not exist
+     */
+    public RouteStopSequenceRow findSequencePosition(Integer stopId) {
+        List<RouteStopSequenceRow> rows = jdbcTemplate.query(
+                STOP_SEQUENCE_SELECT + "WHERE rs.stop_id = ?", STOP_SEQUENCE_ROW_MAPPER, stopId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Returns the PENDING stops that come after the given position in the same route, in route order
+     */
+    public List<RouteStopSequenceRow> findRemainingStops(RouteStopSequenceRow position) {
+        return jdbcTemplate.query(
+                STOP_SEQUENCE_SELECT +
+                "WHERE rs.route_id = ? AND rs.stop_id <> ? AND rs.status = 'PENDING' " +
+                "AND (COALESCE(rw.ward_order, 1) > ? " +
+                "OR (COALESCE(rw.ward_order, 1) = ? AND COALESCE(rs.stop_order, 1) > ?)) " +
+                "ORDER BY ward_order, stop_order, rs.stop_id",
+                STOP_SEQUENCE_ROW_MAPPER,
+                position.getRouteId(), position.getStopId(),
+                position.getWardOrder(), position.getWardOrder(), position.getStopOrder());
+    }
+
+    /**
+     * Returns the latest arrival at or before the given time among the other stops in the same route and ward
+     */
+    public LocalDateTime findPreviousArrivalInWard(RouteStopSequenceRow position, LocalDateTime arrivedAt) {
+        Timestamp previous = jdbcTemplate.queryForObject(
+                "SELECT MAX(rs.arrived_at) " + STOP_SEQUENCE_FROM +
+                "WHERE rs.route_id = ? AND rs.stop_id <> ? AND rs.arrived_at IS NOT NULL AND rs.arrived_at <= ? " +
+                "AND COALESCE(rw.ward_order, 1) = ?",
+                Timestamp.class,
+                position.getRouteId(), position.getStopId(), Timestamp.valueOf(arrivedAt), position.getWardOrder());
+        return previous != null ? previous.toLocalDateTime() : null;
+    }
+
+    /**
+     * Returns the PENDING stops of every route in the given status on a date, with bin coordinates,
+     * in route order (route, ward order, stop order)
+     */
+    public List<PendingStopLocationRow> findPendingStopLocations(LocalDate collectionDate, String routeStatus) {
+        return jdbcTemplate.query(
+                "SELECT rs.stop_id, rs.route_id, rs.bin_id, z.ward_number, COALESCE(rw.ward_order, 1) AS ward_order, " +
+                "COALESCE(rs.stop_order, 1) AS stop_order, b.latitude, b.longitude, " +
+                "COALESCE(rs.live_eta, rs.planned_eta) AS eta " + STOP_SEQUENCE_FROM +
+                "JOIN routes r ON r.route_id = rs.route_id " +
+                "WHERE r.collection_date = ? AND r.status = ? AND rs.status = 'PENDING' " +
+                "ORDER BY rs.route_id, ward_order, stop_order, rs.stop_id",
+                PENDING_STOP_LOCATION_ROW_MAPPER,
+                Date.valueOf(collectionDate), routeStatus);
+    }
+
+    /**
+     * Moves every stop of a route in the given ward at or after fromStopOrder one place later,
+     * opening fromStopOrder for an inserted stop
+     *
+     * @return The number of stops moved
+     */
+    public int shiftStopOrders(Integer routeId, Integer wardNumber, int fromStopOrder) {
+        return jdbcTemplate.update(
+                "UPDATE route_stops rs JOIN bins b ON b.bin_id = rs.bin_id JOIN zones z ON z.zone_id = b.zone_id " +
+                "SET rs.stop_order = rs.stop_order + 1, rs.updated_at = NOW(), rs.change_version = ? " +
+                "WHERE rs.route_id = ? AND z.ward_number = ? AND rs.stop_order >= ?",
+                changeVersionService.current(), routeId, wardNumber, fromStopOrder);
+    }
+
+    /**
+     * Pushes the live ETA of a route's PENDING stops after the given position later by delaySeconds
+     * Stops without a live ETA start from their planned ETA; updated_at is left alone
+     *
+     * @return The number of stops updated
+     */
+    public int delayRemainingStops(Integer routeId, int wardOrder, int afterStopOrder, long delaySeconds) {
+        return jdbcTemplate.update(
+                "UPDATE route_stops rs " +
+                "LEFT JOIN bins b ON b.bin_id = rs.bin_id " +
+                "LEFT JOIN zones z ON z.zone_id = b.zone_id " +
+                "LEFT JOIN route_wards rw ON rw.route_id = rs.route_id AND rw.ward_number = z.ward_number " +
+                "SET rs.live_eta = TIMESTAMPADD(SECOND, ?, COALESCE(rs.live_eta, rs.planned_eta)) " +
+                "WHERE rs.route_id = ? AND rs.status = 'PENDING' " +
+                "AND COALESCE(rs.live_eta, rs.planned_eta) IS NOT NULL " +
+                "AND (COALESCE(rw.ward_order, 1) > ? " +
+                "OR (COALESCE(rw.ward_order, 1) = ? AND COALESCE(rs.stop_order, 1) > ?))",
+                delaySeconds, routeId, wardOrder, wardOrder, afterStopOrder);
+    }
+
+    /**
+     * Writes live ETAs using JDBC batching
+     *
+     * @param liveEtaByStopId New live_eta keyed by stop ID
+     * @return The number of rows updated
+     */
+    public int updateLiveEtas(Map<Integer, LocalDateTime> liveEtaByStopId) {
+        if (liveEtaByStopId.isEmpty()) {
+            return 0;
+        }
+
+        // updated_at is left alone, so an ETA refresh does not look like a stop change to followup detection
+        jdbcTemplate.batchUpdate(UPDATE_LIVE_ETA_SQL, new ArrayList<>(liveEtaByStopId.entrySet()), batchSize,
+                (ps, entry) -> {
+                    ps.setTimestamp(1, Timestamp.valueOf(entry.getValue()));
+                    ps.setInt(2, entry.getKey());
+                });
+
+        return liveEtaByStopId.size();
+    }
+
+    /**
+     * Recomputes planned_eta for every stop whose route falls in the date range, in one statement
+     * Learned per-ward minutes per stop are used once they have minLearnedSamples observations
+     *
+     * @return The number of stops whose planned_eta changed
+     */
+    public int recalculatePlannedEta(LocalDate fromDate, LocalDate toDate,
+                                     int startHour, int minutesPerWard, int minutesPerStop,
+                                     int minLearnedSamples) {
+        return jdbcTemplate.update(
+                RECALCULATE_PLANNED_ETA_SQL + "r.collection_date BETWEEN ? AND ?" + RECALCULATE_PLANNED_ETA_CHANGED,
+                minLearnedSamples,
+                minutesPerWard, minutesPerStop, startHour,
+                Date.valueOf(fromDate), Date.valueOf(toDate),
+                minutesPerWard, minutesPerStop, startHour);
+    }
+
+    /**
+     * Recalculates planned_eta with the same rule for the stops of the given routes only
+     *
+     * @return The number of stops whose planned_eta changed
+     */
+    public int recalculatePlannedEtaForRoutes(Collection<Integer> routeIds,
+                                              int startHour, int minutesPerWard, int minutesPerStop,
+                                              int minLearnedSamples) {
+        if (routeIds.isEmpty()) {
+            return 0;
+        }
+        List<Object> params = new ArrayList<>(List.of(minLearnedSamples, minutesPerWard, minutesPerStop, startHour));
+        params.addAll(routeIds);
+        params.addAll(List.of(minutesPerWard, minutesPerStop, startHour));
+        return jdbcTemplate.update(
+                RECALCULATE_PLANNED_ETA_SQL + "rs.route_id IN (" +
+                String.join(", ", Collections.nCopies(routeIds.size(), "?")) + ")" + RECALCULATE_PLANNED_ETA_CHANGED,
+                params.toArray());
+    }
+
+    /**
+     * Returns the earliest and latest route collection dates, or null when there are no routes
+     */
+    public LocalDate[] findCollectionDateRange() {
+        return jdbcTemplate.query("SELECT MIN(collection_date), MAX(collection_date) FROM routes", rs -> {
+            if (!rs.next() || rs.getDate(1) == null) {
+                return null;
+            }
+            return new LocalDate[] { rs.getDate(1).toLocalDate(), rs.getDate(2).toLocalDate() };
+        });
+    }
+}
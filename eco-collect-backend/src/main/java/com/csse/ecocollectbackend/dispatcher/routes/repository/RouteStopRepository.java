@@ -1,13 +1,20 @@
 package com.csse.ecocollectbackend.dispatcher.routes.repository;
 
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BinLoadView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopLocationView;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.login.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,7 +29,8 @@ public interface RouteStopRepository extends JpaRepository<RouteStop, Integer> {
     
     List<RouteStop> findByDriverUserIdAndStatus(Integer driverId, RouteStop.StopStatus status);
     
-    List<RouteStop> findByBinId(String binId);
+    @Query("SELECT rs FROM RouteStop rs WHERE rs.bin.binId = :binId")
+    List<RouteStop> findByBinId(@Param("binId") String binId);
     
     List<RouteStop> findByStatus(RouteStop.StopStatus status);
     
@@ -40,7 +48,8 @@ public interface RouteStopRepository extends JpaRepository<RouteStop, Integer> {
     @Query("SELECT rs FROM RouteStop rs WHERE rs.arrivedAt BETWEEN :startTime AND :endTime")
     List<RouteStop> findByArrivedAtBetween(@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
     
-    Optional<RouteStop> findByRouteRouteIdAndBinId(Integer routeId, String binId);
+    @Query("SELECT rs FROM RouteStop rs WHERE rs.route.routeId = :routeId AND rs.bin.binId = :binId")
+    Optional<RouteStop> findByRouteRouteIdAndBinId(@Param("routeId") Integer routeId, @Param("binId") String binId);
     
     @Query("SELECT COUNT(rs) FROM RouteStop rs WHERE rs.route.routeId = :routeId")
     Long countByRoute(@Param("routeId") Integer routeId);
@@ -51,7 +60,72 @@ public interface RouteStopRepository extends JpaRepository<RouteStop, Integer> {
     @Query("SELECT COUNT(rs) FROM RouteStop rs WHERE rs.route.routeId = :routeId AND rs.status = :status")
     Long countByRouteAndStatus(@Param("routeId") Integer routeId, @Param("status") RouteStop.StopStatus status);
     
+    @Query("SELECT rs.stopId AS stopId, r.routeId AS routeId, b.binId AS binId, r.collectionDate AS collectionDate, " +
+           "z.wardNumber AS wardNumber, rs.stopOrder AS stopOrder, rs.status AS status, " +
+           "b.latitude AS latitude, b.longitude AS longitude " +
+           "FROM RouteStop rs JOIN rs.route r LEFT JOIN rs.bin b LEFT JOIN b.zone z " +
+           "WHERE r.routeId IN :routeIds ORDER BY r.routeId, z.wardNumber, rs.stopOrder, rs.stopId")
+    List<RouteStopLocationView> findStopLocationsByRouteIds(@Param("routeIds") List<Integer> routeIds);
+    
+    @Query("SELECT b.binId AS binId, AVG(rs.weightKg) AS averageWeightKg " +
+           "FROM RouteStop rs JOIN rs.route r JOIN rs.bin b JOIN b.zone z " +
+           "WHERE z.wardNumber IN :wardNumbers AND rs.collected = true AND rs.weightKg > 0 " +
+           "AND r.collectionDate >= :since GROUP BY b.binId")
+    List<BinLoadView> findAverageLoadsByWardNumbers(@Param("wardNumbers") List<Integer> wardNumbers,
+                                                    @Param("since") LocalDate since);
+    
+    /**
+     * Bins in the given wards that already have a stop on some route for the date
+     */
+    @Query("SELECT DISTINCT b.binId FROM RouteStop rs JOIN rs.route r JOIN rs.bin b JOIN b.zone z " +
+           "WHERE r.collectionDate = :collectionDate AND z.wardNumber IN :wardNumbers")
+    List<String> findRoutedBinIdsByWardNumbersAndDate(@Param("wardNumbers") List<Integer> wardNumbers,
+                                                     @Param("collectionDate") LocalDate collectionDate);
+    
+    @Modifying
+    @Query("UPDATE RouteStop rs SET rs.driver = :driver, rs.updatedAt = :updatedAt WHERE rs.route.routeId = :routeId")
+    int updateDriverByRouteId(@Param("routeId") Integer routeId,
+                              @Param("driver") User driver,
+                              @Param("updatedAt") LocalDateTime updatedAt);
+    
+    @Modifying
+    @Query("UPDATE RouteStop rs SET rs.driver = :driver, rs.updatedAt = :updatedAt WHERE rs.route.routeId IN :routeIds")
+    int updateDriverByRouteIds(@Param("routeIds") List<Integer> routeIds,
+                               @Param("driver") User driver,
+                               @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Moves a stop to the next status only if it is still in the expected one and that one is allowed
+     * to move to it; a stop without a status counts as PENDING
+     * Clears the persistence context so stops loaded earlier in the request are re-read
+     * 
+     * @return 1 when the stop moved, 0 when it does not exist or its status changed meanwhile
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RouteStop rs SET rs.status = :next, rs.updatedAt = :updatedAt, rs.changeVersion = :changeVersion " +
+           "WHERE rs.stopId = :stopId AND COALESCE(rs.status, :pending) = :expected " +
+           "AND COALESCE(rs.status, :pending) IN :allowed")
+    int compareAndSetStatus(@Param("stopId") Integer stopId,
+                            @Param("expected") RouteStop.StopStatus expected,
+                            @Param("next") RouteStop.StopStatus next,
+                            @Param("allowed") Collection<RouteStop.StopStatus> allowed,
+                            @Param("pending") RouteStop.StopStatus pending,
+                            @Param("updatedAt") LocalDateTime updatedAt,
+                            @Param("changeVersion") long changeVersion);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT rs FROM RouteStop rs WHERE rs.stopId = :stopId")
+    Optional<RouteStop> findByIdForUpdate(@Param("stopId") Integer stopId);
+    
     @Modifying
     @Query("DELETE FROM RouteStop rs WHERE rs.route.routeId = :routeId")
     void deleteByRouteRouteId(@Param("routeId") Integer routeId);
+    
+    /**
+     * Deletes a route's stops whose bin is in the given ward, whatever the bin's status
+     */
+    @Modifying
+    @Query("DELETE FROM RouteStop rs WHERE rs.route.routeId = :routeId " +
+           "AND rs.bin.binId IN (SELECT b.binId FROM Bin b WHERE b.zone.wardNumber = :wardNumber)")
+    int deleteByRouteRouteIdAndWardNumber(@Param("routeId") Integer routeId, @Param("wardNumber") Integer wardNumber);
 }
@@ -1,5 +1,6 @@
 package com.csse.ecocollectbackend.dispatcher.routes.repository;
 
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CollectorWardView;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteWard;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -20,4 +21,8 @@ public interface RouteWardRepository extends JpaRepository<RouteWard, Integer> {
     
     @Query("SELECT rw FROM RouteWard rw WHERE rw.route.collectionDate = :collectionDate ORDER BY rw.route.routeId, rw.wardOrder")
     List<RouteWard> findByRouteCollectionDateOrderByRouteIdAndWardOrder(@Param("collectionDate") LocalDate collectionDate);
+    
+    @Query("SELECT DISTINCT r.collector.userId AS collectorId, rw.wardNumber AS wardNumber " +
+           "FROM RouteWard rw JOIN rw.route r WHERE r.collectionDate = :collectionDate AND r.collector IS NOT NULL")
+    List<CollectorWardView> findCollectorWardsByCollectionDate(@Param("collectionDate") LocalDate collectionDate);
 }
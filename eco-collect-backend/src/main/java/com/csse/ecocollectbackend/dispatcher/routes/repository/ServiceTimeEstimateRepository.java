@@ -0,0 +1,37 @@
+package com.csse.ecocollectbackend.dispatcher.routes.repository;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.ServiceTimeEstimateView;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.ServiceTimeEstimate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ServiceTimeEstimateRepository extends JpaRepository<ServiceTimeEstimate, Integer> {
+    
+    /**
+     * Reads an estimate's values as columns, so an entity already loaded in the session cannot hide the upserted row
+     */
+    @Query("SELECT e.ewmaMinutes AS ewmaMinutes, e.sampleCount AS sampleCount FROM ServiceTimeEstimate e " +
+           "WHERE e.scope = :scope AND e.scopeKey = :scopeKey")
+    Optional<ServiceTimeEstimateView> findValues(@Param("scope") ServiceTimeEstimate.Scope scope,
+                                                 @Param("scopeKey") String scopeKey);
+    
+    /**
+     * Folds one observation into the estimate for a scope key, creating it on first sight
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+           "INSERT INTO service_time_estimates (scope, scope_key, ewma_minutes, sample_count, updated_at) " +
+           "VALUES (:scope, :scopeKey, :minutes, 1, NOW()) " +
+           "ON DUPLICATE KEY UPDATE ewma_minutes = ewma_minutes + :alpha * (:minutes - ewma_minutes), " +
+           "sample_count = sample_count + 1, updated_at = NOW()")
+    int upsertObservation(@Param("scope") String scope,
+                          @Param("scopeKey") String scopeKey,
+                          @Param("minutes") double minutes,
+                          @Param("alpha") double alpha);
+}
@@ -0,0 +1,23 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CapacityPlanRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CapacityPlanResponse;
+
+/**
+ * Capacity Planning Service Interface
+ * 
+ * Splits every active bin in a zone across the zone's free Active trucks so that no
+ * route's predicted load exceeds its truck's capacityKg. A bin's load is predicted
+ * from the average weightKg of its recent collected stops, falling back to the zone
+ * average and then to a configured default when it has no history.
+ */
+public interface CapacityPlanningService {
+    
+    /**
+     * Plans and saves routes, route wards and route stops for a zone and collection date
+     * 
+     * @param request Zone, collection date and dispatcher for the new routes
+     * @return The routes created and any bins that did not fit in the available trucks
+     */
+    CapacityPlanResponse planZone(CapacityPlanRequest request);
+}
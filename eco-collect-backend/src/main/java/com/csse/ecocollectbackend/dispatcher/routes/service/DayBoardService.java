@@ -0,0 +1,25 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.DayBoardResponse;
+
+import java.time.LocalDate;
+
+/**
+ * Day Board Service Interface
+ * 
+ * Builds the dispatcher's view of one collection date (routes, crews, wards and
+ * stop counts) from two statements and keeps it briefly so repeated refreshes
+ * of the board share one read. Each board carries an ETag of its content.
+ */
+public interface DayBoardService {
+    
+    /**
+     * Returns the board for a date, reusing a cached copy younger than ecocollect.day-board.cache-ttl-seconds
+     */
+    DayBoardResponse getDayBoard(LocalDate collectionDate);
+    
+    /**
+     * Seconds a board may be reused, also advertised to clients as max-age
+     */
+    long getCacheTtlSeconds();
+}
@@ -0,0 +1,28 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteEtaUpdatedEvent;
+
+/**
+ * Live ETA Service Interface
+ * 
+ * Keeps liveEta on route stops in step with what actually happens on the road.
+ * When a stop's arrival is recorded, the route's remaining PENDING stops are
+ * shifted by the observed lateness, stepping through the rest of the ward with
+ * learned bin times where ServiceTimeModel has them and otherwise keeping the
+ * planned spacing, and a RouteEtaUpdatedEvent is published with the new values.
+ * Each arrival is also fed to ServiceTimeModel as one observation.
+ */
+public interface LiveEtaService {
+    
+    /**
+     * Re-projects the ETAs of the stops after the given one, which must have arrivedAt set
+     * 
+     * Sets liveEta on the given stop itself; the caller saves it. Other stops are written
+     * in one JDBC batch without being loaded as entities.
+     * 
+     * @param arrivedStop The stop whose arrival was just recorded
+     * @return The published event
+     */
+    RouteEtaUpdatedEvent reproject(RouteStop arrivedStop);
+}
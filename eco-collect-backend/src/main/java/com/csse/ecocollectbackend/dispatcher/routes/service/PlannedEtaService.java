@@ -0,0 +1,61 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.PlannedEtaRecalculationResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Planned ETA Service Interface
+ * 
+ * Owns the planned ETA rule for route stops: 8:00 AM on the collection date,
+ * plus 30 minutes per ward before the stop's ward, plus a per-stop time for
+ * each stop before it within the ward. The per-stop time is the ward's learned
+ * estimate from ServiceTimeModel, or 5 minutes until enough arrivals are seen.
+ * 
+ * Recalculation applies the same rule in SQL, one date chunk per transaction,
+ * so existing stops can be corrected without loading them into memory.
+ */
+public interface PlannedEtaService {
+    
+    // The planned ETA rule's defaults, shared with the live ETA projection
+    int START_HOUR = 8;
+    int MINUTES_PER_WARD = 30;
+    int MINUTES_PER_STOP = 5;
+    
+    /**
+     * Calculates the planned ETA for a stop
+     * 
+     * @param collectionDate The route's collection date
+     * @param wardNumber The stop's ward, used to look up its learned minutes per stop; may be null
+     * @param wardOrder The 1-based order of the stop's ward in the route
+     * @param stopOrder The 1-based order of the stop within its ward
+     * @return The planned ETA
+     */
+    LocalDateTime calculatePlannedEta(LocalDate collectionDate, Integer wardNumber, Integer wardOrder, Integer stopOrder);
+    
+    /**
+     * Recalculates planned_eta for all route stops whose route falls in the given date range
+     * 
+     * @param fromDate First collection date to recalculate (inclusive)
+     * @param toDate Last collection date to recalculate (inclusive)
+     * @return Counts and timing for the run
+     */
+    PlannedEtaRecalculationResult recalculate(LocalDate fromDate, LocalDate toDate);
+    
+    /**
+     * Recalculates planned_eta for the stops of the given routes, in the caller's transaction
+     * 
+     * @param routeIds The routes to recalculate
+     * @return The number of stops whose planned ETA changed
+     */
+    int recalculateRoutes(Collection<Integer> routeIds);
+    
+    /**
+     * Recalculates planned_eta for every route stop on record
+     * 
+     * @return Counts and timing for the run
+     */
+    PlannedEtaRecalculationResult recalculateAll();
+}
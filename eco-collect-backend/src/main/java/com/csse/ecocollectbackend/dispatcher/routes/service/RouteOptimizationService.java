@@ -0,0 +1,34 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteOptimizationResult;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Route Optimization Service Interface
+ * 
+ * Reorders the stops of each ward in a route to shorten travel distance between
+ * bins, using the bins' latitude/longitude. Stop order still restarts at 1 per
+ * ward, so planned ETAs keep the same shape and are recalculated afterwards.
+ * Only pending routes, and within them only wards whose stops are all still
+ * PENDING, are reordered. A ward that starts or gains a stop while the optimizer
+ * runs keeps its orders.
+ */
+public interface RouteOptimizationService {
+    
+    /**
+     * Optimizes the stop order of one route
+     */
+    RouteOptimizationResult optimizeRoute(Integer routeId);
+    
+    /**
+     * Optimizes the stop order of the given routes in parallel
+     */
+    RouteOptimizationResult optimizeRoutes(List<Integer> routeIds);
+    
+    /**
+     * Optimizes the stop order of every pending route on a collection date
+     */
+    RouteOptimizationResult optimizeRoutesForDate(LocalDate collectionDate);
+}
@@ -0,0 +1,263 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteProgressResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopCountView;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stop counters per route (total, collected, per status), grouped by collection date
+ *
+ * Dates around today are loaded with one GROUP BY at startup; other dates are loaded the same
+ * way the first time they are read. After that, counters move by delta as route stops are
+ * written through JPA (RouteStopChangeListener), applied only once the writing transaction
+ * commits. Bulk JDBC and JPQL writes that bypass the entity call invalidateDate or
+ * invalidateRoute instead, and the date is reloaded on its next read.
+ *
+ * A writing transaction counts as committing from beforeCommit until its delta is applied. A
+ * load is installed only if nothing was committing and nothing was applied while it ran, since
+ * its query may already hold a commit whose delta has not been applied yet.
+ */
+@Service
+@Slf4j
+public class RouteProgressTracker {
+
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final RouteRepository routeRepository;
+    private final int windowDays;
+
+    private final Map<LocalDate, Map<Integer, Progress>> progressByDate = new ConcurrentHashMap<>();
+    private final Map<Integer, LocalDate> dateByRoute = new ConcurrentHashMap<>();
+
+    // Bumped by every applied change, so a load that raced one can tell and re-read
+    private final AtomicLong changeSequence = new AtomicLong();
+
+    // Transactions past beforeCommit whose change is not applied yet
+    private final AtomicInteger committing = new AtomicInteger();
+
+    // Orders applying a change against installing a load
+    private final Object installLock = new Object();
+
+    public RouteProgressTracker(RouteRepository routeRepository,
+                                @Value("${ecocollect.route-progress.window-days:7}") int windowDays) {
+        this.routeRepository = routeRepository;
+        this.windowDays = Math.max(0, windowDays);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(windowDays);
+        LocalDate to = today.plusDays(windowDays);
+        Map<LocalDate, Map<Integer, Progress>> loaded = load(from, to);
+        progressByDate.clear();
+        dateByRoute.clear();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            install(date, loaded.getOrDefault(date, new ConcurrentHashMap<>()));
+        }
+        log.info("Loaded route progress for {} routes between {} and {}",
+                 loaded.values().stream().mapToInt(Map::size).sum(), from, to);
+    }
+
+    /**
+     * Returns progress for every route on a date, in route ID order
+     */
+    public List<RouteProgressResponse> getProgressByDate(LocalDate collectionDate) {
+        List<RouteProgressResponse> progress = new ArrayList<>();
+        for (Progress route : routesOn(collectionDate).values()) {
+            progress.add(route.toResponse());
+        }
+        progress.sort(Comparator.comparing(RouteProgressResponse::getRouteId));
+        return progress;
+    }
+
+    /**
+     * Returns progress for one route, or empty when the route does not exist
+     */
+    public Optional<RouteProgressResponse> getProgress(Integer routeId) {
+        LocalDate date = dateByRoute.get(routeId);
+        if (date == null) {
+            date = routeRepository.findCollectionDateByRouteId(routeId).orElse(null);
+            if (date == null) {
+                return Optional.empty();
+            }
+        }
+        Progress route = routesOn(date).get(routeId);
+        return route != null ? Optional.of(route.toResponse()) : Optional.empty();
+    }
+
+    /**
+     * Applies a stop's change to its route's counters once the current transaction commits
+     * A null status means the stop did not exist before (insert) or no longer exists (delete)
+     */
+    public void onStopChanged(Integer routeId,
+                              RouteStop.StopStatus oldStatus, Boolean oldCollected,
+                              RouteStop.StopStatus newStatus, Boolean newCollected) {
+        if (routeId == null || (oldStatus == newStatus && Boolean.TRUE.equals(oldCollected) == Boolean.TRUE.equals(newCollected))) {
+            return;
+        }
+        onCommit(() -> {
+            LocalDate date = dateByRoute.get(routeId);
+            Map<Integer, Progress> routes = date != null ? progressByDate.get(date) : null;
+            Progress route = routes != null ? routes.get(routeId) : null;
+            if (route != null) {
+                route.apply(oldStatus, oldCollected, -1);
+                route.apply(newStatus, newCollected, 1);
+            }
+        });
+    }
+
+    /**
+     * Drops a date's counters after commit, for writes that bypass the entity (bulk inserts, new routes)
+     */
+    public void invalidateDate(LocalDate collectionDate) {
+        if (collectionDate == null) {
+            return;
+        }
+        onCommit(() -> progressByDate.remove(collectionDate));
+    }
+
+    /**
+     * Drops the counters of a route's date after commit, for bulk deletes and deleted routes
+     */
+    public void invalidateRoute(Integer routeId) {
+        onCommit(() -> {
+            LocalDate date = dateByRoute.remove(routeId);
+            if (date != null) {
+                progressByDate.remove(date);
+            }
+        });
+    }
+
+    private Map<Integer, Progress> routesOn(LocalDate date) {
+        Map<Integer, Progress> routes = progressByDate.get(date);
+        if (routes != null) {
+            return routes;
+        }
+
+        // Re-read if a change was committing or applied while the query ran, so it is neither lost nor counted twice
+        Map<Integer, Progress> loaded = null;
+        for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+            long sequence = changeSequence.get();
+            loaded = load(date, date).getOrDefault(date, new ConcurrentHashMap<>());
+            synchronized (installLock) {
+                if (committing.get() == 0 && changeSequence.get() == sequence) {
+                    install(date, loaded);
+                    return loaded;
+                }
+            }
+        }
+        // Still racing writers: answer from this read without caching it, the next read loads again
+        return loaded;
+    }
+
+    private void install(LocalDate date, Map<Integer, Progress> routes) {
+        for (Integer routeId : routes.keySet()) {
+            dateByRoute.put(routeId, date);
+        }
+        progressByDate.put(date, routes);
+    }
+
+    private Map<LocalDate, Map<Integer, Progress>> load(LocalDate from, LocalDate to) {
+        Map<LocalDate, Map<Integer, Progress>> loaded = new HashMap<>();
+        for (RouteStopCountView row : routeRepository.findStopCountsByCollectionDateBetween(from, to)) {
+            Progress route = loaded.computeIfAbsent(row.getCollectionDate(), date -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(row.getRouteId(), id -> new Progress(id, row.getCollectionDate()));
+            if (row.getStatus() != null && row.getStopCount() != null) {
+                route.apply(row.getStatus(), row.getCollected(), row.getStopCount());
+            }
+        }
+        return loaded;
+    }
+
+    private void onCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyChange(action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            // Before the commit becomes visible, so a load whose query sees it is not installed
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!counted) {
+                    counted = true;
+                    committing.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        applyChange(action);
+                    }
+                } finally {
+                    if (counted) {
+                        committing.decrementAndGet();
+                    }
+                }
+            }
+        });
+    }
+
+    private void applyChange(Runnable action) {
+        synchronized (installLock) {
+            action.run();
+            changeSequence.incrementAndGet();
+        }
+    }
+
+    private static final class Progress {
+        private final Integer routeId;
+        private final LocalDate collectionDate;
+        private final EnumMap<RouteStop.StopStatus, Long> byStatus = new EnumMap<>(RouteStop.StopStatus.class);
+        private long total;
+        private long collected;
+
+        private Progress(Integer routeId, LocalDate collectionDate) {
+            this.routeId = routeId;
+            this.collectionDate = collectionDate;
+        }
+
+        private synchronized void apply(RouteStop.StopStatus status, Boolean isCollected, long delta) {
+            if (status == null) {
+                return;
+            }
+            total += delta;
+            if (Boolean.TRUE.equals(isCollected)) {
+                collected += delta;
+            }
+            byStatus.merge(status, delta, Long::sum);
+        }
+
+        private synchronized RouteProgressResponse toResponse() {
+            Map<RouteStop.StopStatus, Long> counts = new EnumMap<>(RouteStop.StopStatus.class);
+            for (RouteStop.StopStatus status : RouteStop.StopStatus.values()) {
+                counts.put(status, byStatus.getOrDefault(status, 0L));
+            }
+            return new RouteProgressResponse(routeId, collectionDate, total, collected, counts);
+        }
+    }
+}
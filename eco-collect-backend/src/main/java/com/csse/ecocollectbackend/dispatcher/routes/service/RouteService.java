@@ -1,5 +1,7 @@
 package com.csse.ecocollectbackend.dispatcher.routes.service;
 
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BulkAssignCollectorRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BulkAssignCollectorResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.dto.CreateRouteRequest;
 import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
@@ -30,6 +32,12 @@ public interface RouteService {
     
     RouteResponse assignCollector(Integer routeId, Integer collectorId);
     
+    /**
+     * Assigns a collector to many routes and their stops in one update per table.
+     * Routes are selected by ID list, or by zone and collection date.
+     */
+    BulkAssignCollectorResponse assignCollectorToRoutes(BulkAssignCollectorRequest request);
+    
     RouteResponse assignTruck(Integer routeId, Integer truckId);
     
     void deleteRoute(Integer routeId);
@@ -1,5 +1,7 @@
 package com.csse.ecocollectbackend.dispatcher.routes.service;
 
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopPatchRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopPatchResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
 
 import java.time.LocalDateTime;
@@ -54,6 +56,13 @@ public interface RouteStopService {
     
     RouteStop updateRouteStopPhoto(Integer stopId, String photoUrl);
     
+    /**
+     * Writes the non-null fields of a patch with a single UPDATE, without loading the stop
+     * 
+     * @return The written fields, or empty when the stop does not exist
+     */
+    Optional<RouteStopPatchResponse> patchRouteStop(Integer stopId, RouteStopPatchRequest patch);
+    
     /**
      * Update route stop status and create followup if status is MISSED or SKIPPED
      */
@@ -62,6 +71,7 @@ public interface RouteStopService {
     /**
      * Updates all existing route stops to have planned_eta based on their route's collection_date
      * This method fixes route stops that were created before the planned_eta calculation was corrected
+     * The update runs set-based in date chunks rather than loading every stop
      * 
      * @return The number of route stops that were updated
      */
@@ -75,7 +85,19 @@ public interface RouteStopService {
     
     RouteStop reassignRouteStop(Integer stopId, Integer newDriverId);
     
-    void updateRouteStopsDriverForRoute(Integer routeId, Integer driverId);
+    /**
+     * Sets the driver on every stop of a route with a single update
+     * 
+     * @return The number of route stops updated
+     */
+    int updateRouteStopsDriverForRoute(Integer routeId, Integer driverId);
+    
+    /**
+     * Sets the driver on every stop of the given routes with a single update
+     * 
+     * @return The number of route stops updated
+     */
+    int updateRouteStopsDriverForRoutes(List<Integer> routeIds, Integer driverId);
     
     void deleteRouteStop(Integer stopId);
     
@@ -25,17 +25,8 @@ import java.util.List;
  *    - All route stops for that route are deleted
  *    - All route wards for that route are deleted
  * 
- * The service uses mock bin data based on the mockBinsData.js structure:
- * - Each ward has 5 bins with IDs: (wardNumber-1)*5+1 to wardNumber*5
- * - Only bins with status = 'Active' get route stops created
- * - Some bins are 'Inactive' or 'Missing' and are excluded
- * - Examples:
- *   - Ward 1: bins 1-5 (all Active) → 5 route stops
- *   - Ward 2: bins 6-10 (4 Active, 1 Inactive) → 4 route stops
- *   - Ward 3: bins 11-15 (4 Active, 1 Missing) → 4 route stops
- * 
- * In a real implementation, this would query the bins table:
- * SELECT bin_id FROM bins WHERE ward_id = wardNumber AND status = 'Active'
+ * Active bins are read from the bins table through ActiveBinIndex, which keeps a
+ * per-ward set of active bin IDs in memory and is updated when bins are saved.
  */
 public interface RouteWardService {
     
@@ -0,0 +1,135 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.ServiceTimeEstimate;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.ServiceTimeEstimateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learned stop-to-stop minutes per bin and per ward
+ * 
+ * Each observation is the time between two consecutive arrivals in the same ward of a
+ * route, attributed to the bin arrived at and to its ward. Estimates are exponentially
+ * weighted moving averages kept in service_time_estimates and mirrored in memory; the
+ * table is read once on first use and then updated one row per observation. The memory
+ * copy of a row is refreshed from the table once the observing transaction commits, so a
+ * rollback never reaches it and concurrent observations land in the database's order.
+ * An estimate is only used once it has ecocollect.service-time.min-samples observations.
+ */
+@Service
+@Slf4j
+public class ServiceTimeModel {
+    
+    private final ServiceTimeEstimateRepository estimateRepository;
+    private final double alpha;
+    private final int minSamples;
+    private final double maxObservationMinutes;
+    
+    private final Map<String, Estimate> estimates = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    
+    public ServiceTimeModel(ServiceTimeEstimateRepository estimateRepository,
+                            @Value("${ecocollect.service-time.alpha:0.2}") double alpha,
+                            @Value("${ecocollect.service-time.min-samples:5}") int minSamples,
+                            @Value("${ecocollect.service-time.max-observation-minutes:60}") double maxObservationMinutes) {
+        this.estimateRepository = estimateRepository;
+        this.alpha = alpha;
+        this.minSamples = minSamples;
+        this.maxObservationMinutes = maxObservationMinutes;
+    }
+    
+    /**
+     * Records the minutes taken to reach and serve a bin after the previous stop in the same ward
+     * Observations outside (0, max-observation-minutes] are treated as breaks or clock errors and dropped
+     */
+    public void observe(String binId, Integer wardNumber, double minutes) {
+        if (minutes <= 0 || minutes > maxObservationMinutes) {
+            return;
+        }
+        ensureLoaded();
+        if (binId != null) {
+            record(ServiceTimeEstimate.Scope.BIN, binId, minutes);
+        }
+        if (wardNumber != null) {
+            record(ServiceTimeEstimate.Scope.WARD, wardNumber.toString(), minutes);
+        }
+    }
+    
+    /**
+     * Learned minutes per stop for a ward, or null when it has too few observations
+     */
+    public Double getWardMinutesPerStop(Integer wardNumber) {
+        return wardNumber != null ? learned(ServiceTimeEstimate.Scope.WARD, wardNumber.toString()) : null;
+    }
+    
+    /**
+     * Learned minutes to reach and serve a bin, falling back to its ward, or null when neither is learned
+     */
+    public Double getBinMinutes(String binId, Integer wardNumber) {
+        Double binMinutes = binId != null ? learned(ServiceTimeEstimate.Scope.BIN, binId) : null;
+        return binMinutes != null ? binMinutes : getWardMinutesPerStop(wardNumber);
+    }
+    
+    public int getMinSamples() {
+        return minSamples;
+    }
+    
+    private Double learned(ServiceTimeEstimate.Scope scope, String scopeKey) {
+        ensureLoaded();
+        Estimate estimate = estimates.get(key(scope, scopeKey));
+        return estimate != null && estimate.samples >= minSamples ? estimate.minutes : null;
+    }
+    
+    private void record(ServiceTimeEstimate.Scope scope, String scopeKey, double minutes) {
+        estimateRepository.upsertObservation(scope.name(), scopeKey, minutes, alpha);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(scope, scopeKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(scope, scopeKey);
+            }
+        });
+    }
+    
+    private void refresh(ServiceTimeEstimate.Scope scope, String scopeKey) {
+        try {
+            estimateRepository.findValues(scope, scopeKey).ifPresent(estimate ->
+                    estimates.put(key(scope, scopeKey), new Estimate(estimate.getEwmaMinutes(), estimate.getSampleCount())));
+        } catch (RuntimeException e) {
+            // The observation is committed; the memory copy catches up on the key's next observation
+            log.warn("Could not refresh service time estimate {}: {}", key(scope, scopeKey), e.getMessage());
+        }
+    }
+    
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                for (ServiceTimeEstimate estimate : estimateRepository.findAll()) {
+                    estimates.put(key(estimate.getScope(), estimate.getScopeKey()),
+                            new Estimate(estimate.getEwmaMinutes(), estimate.getSampleCount()));
+                }
+                loaded = true;
+                log.info("Loaded {} service time estimates", estimates.size());
+            }
+        }
+    }
+    
+    private static String key(ServiceTimeEstimate.Scope scope, String scopeKey) {
+        return scope.name() + ":" + scopeKey;
+    }
+    
+    private record Estimate(double minutes, int samples) {
+    }
+}
@@ -0,0 +1,304 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BinLoadView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CapacityPlanRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CapacityPlanResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteWard;
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.StopSequenceOptimizer;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteWardRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.CapacityPlanningService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.PlannedEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteProgressTracker;
+import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
+import com.csse.ecocollectbackend.dispatcher.trucks.repository.TruckRepository;
+import com.csse.ecocollectbackend.dispatcher.wards.entity.Ward;
+import com.csse.ecocollectbackend.dispatcher.wards.repository.WardRepository;
+import com.csse.ecocollectbackend.dispatcher.zones.entity.Zone;
+import com.csse.ecocollectbackend.dispatcher.zones.repository.ZoneRepository;
+import com.csse.ecocollectbackend.login.entity.User;
+import com.csse.ecocollectbackend.login.repository.UserRepository;
+import com.csse.ecocollectbackend.resident.dto.BinLocationView;
+import com.csse.ecocollectbackend.resident.entity.Bin;
+import com.csse.ecocollectbackend.resident.repository.BinRepository;
+import com.csse.ecocollectbackend.resident.service.BinDistanceMatrixStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+@Transactional
+public class CapacityPlanningServiceImpl implements CapacityPlanningService {
+    
+    private final ZoneRepository zoneRepository;
+    private final WardRepository wardRepository;
+    private final BinRepository binRepository;
+    private final TruckRepository truckRepository;
+    private final UserRepository userRepository;
+    private final RouteRepository routeRepository;
+    private final RouteWardRepository routeWardRepository;
+    private final RouteStopRepository routeStopRepository;
+    private final RouteStopBatchRepository routeStopBatchRepository;
+    private final PlannedEtaService plannedEtaService;
+    private final BinDistanceMatrixStore binDistanceMatrixStore;
+    private final RouteProgressTracker routeProgressTracker;
+    private final int historyDays;
+    private final double defaultBinLoadKg;
+    private final long sequencingBudgetNanos;
+    
+    public CapacityPlanningServiceImpl(ZoneRepository zoneRepository,
+                                       WardRepository wardRepository,
+                                       BinRepository binRepository,
+                                       TruckRepository truckRepository,
+                                       UserRepository userRepository,
+                                       RouteRepository routeRepository,
+                                       RouteWardRepository routeWardRepository,
+                                       RouteStopRepository routeStopRepository,
+                                       RouteStopBatchRepository routeStopBatchRepository,
+                                       PlannedEtaService plannedEtaService,
+                                       BinDistanceMatrixStore binDistanceMatrixStore,
+                                       RouteProgressTracker routeProgressTracker,
+                                       @Value("${ecocollect.capacity-planner.history-days:56}") int historyDays,
+                                       @Value("${ecocollect.capacity-planner.default-bin-load-kg:15}") double defaultBinLoadKg,
+                                       @Value("${ecocollect.route-optimizer.time-budget-ms:2000}") long sequencingBudgetMs) {
+        this.zoneRepository = zoneRepository;
+        this.wardRepository = wardRepository;
+        this.binRepository = binRepository;
+        this.truckRepository = truckRepository;
+        this.userRepository = userRepository;
+        this.routeRepository = routeRepository;
+        this.routeWardRepository = routeWardRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.routeStopBatchRepository = routeStopBatchRepository;
+        this.plannedEtaService = plannedEtaService;
+        this.binDistanceMatrixStore = binDistanceMatrixStore;
+        this.routeProgressTracker = routeProgressTracker;
+        this.historyDays = historyDays;
+        this.defaultBinLoadKg = defaultBinLoadKg;
+        this.sequencingBudgetNanos = TimeUnit.MILLISECONDS.toNanos(sequencingBudgetMs);
+    }
+    
+    @Override
+    public CapacityPlanResponse planZone(CapacityPlanRequest request) {
+        Zone zone = zoneRepository.findById(request.getZoneId())
+                .orElseThrow(() -> new RuntimeException("Zone not found"));
+        User dispatcher = userRepository.findById(request.getDispatcherId())
+                .orElseThrow(() -> new RuntimeException("Dispatcher not found"));
+        LocalDate collectionDate = request.getCollectionDate();
+        
+        Map<Integer, String> wardNames = new TreeMap<>();
+        for (Ward ward : wardRepository.findByZoneZoneId(zone.getZoneId())) {
+            wardNames.put(ward.getWardNumber(), ward.getWardName());
+        }
+        if (wardNames.isEmpty()) {
+            throw new RuntimeException("Zone has no wards");
+        }
+        List<Integer> wardNumbers = new ArrayList<>(wardNames.keySet());
+        
+        List<BinLocationView> bins = binRepository.findBinLocationsByWardNumbersAndStatus(wardNumbers, Bin.BinStatus.Active);
+        if (bins.isEmpty()) {
+            throw new RuntimeException("Zone has no active bins");
+        }
+        // Bins already on a route that day (an earlier plan or a manual route) are not planned twice
+        Set<String> routedBinIds = new HashSet<>(routeStopRepository.findRoutedBinIdsByWardNumbersAndDate(wardNumbers, collectionDate));
+        if (!routedBinIds.isEmpty()) {
+            bins = bins.stream().filter(bin -> !routedBinIds.contains(bin.getBinId())).toList();
+            if (bins.isEmpty()) {
+                throw new RuntimeException("Every active bin in the zone is already routed on " + collectionDate);
+            }
+        }
+        
+        Set<Integer> trucksInUse = new HashSet<>(routeRepository.findTruckIdsInUseOnDate(collectionDate));
+        List<Truck> trucks = truckRepository.findByStatusOrderByCapacityKgDesc(Truck.TruckStatus.Active).stream()
+                .filter(truck -> truck.getCapacityKg() != null && truck.getCapacityKg().signum() > 0)
+                .filter(truck -> !trucksInUse.contains(truck.getTruckId()))
+                .toList();
+        if (trucks.isEmpty()) {
+            throw new RuntimeException("No active trucks available on " + collectionDate);
+        }
+        
+        Map<String, Double> predictedLoads = predictLoads(wardNumbers, collectionDate);
+        double fallbackLoad = predictedLoads.isEmpty()
+                ? defaultBinLoadKg
+                : predictedLoads.values().stream().mapToDouble(Double::doubleValue).average().orElse(defaultBinLoadKg);
+        
+        // Fill the largest trucks first, cutting to the next truck when the next bin would overflow
+        List<List<BinLocationView>> assignments = new ArrayList<>();
+        List<Double> assignmentLoads = new ArrayList<>();
+        List<String> unassignedBinIds = new ArrayList<>();
+        List<BinLocationView> current = new ArrayList<>();
+        double currentLoad = 0;
+        int truckIndex = 0;
+        double totalLoad = 0;
+        
+        for (BinLocationView bin : sequenceBins(bins)) {
+            double binLoad = predictedLoads.getOrDefault(bin.getBinId(), fallbackLoad);
+            totalLoad += binLoad;
+            if (truckIndex >= trucks.size()) {
+                unassignedBinIds.add(bin.getBinId());
+                continue;
+            }
+            if (currentLoad + binLoad > trucks.get(truckIndex).getCapacityKg().doubleValue()) {
+                if (!current.isEmpty()) {
+                    assignments.add(current);
+                    assignmentLoads.add(currentLoad);
+                    current = new ArrayList<>();
+                    currentLoad = 0;
+                    truckIndex++;
+                }
+                if (truckIndex >= trucks.size() || binLoad > trucks.get(truckIndex).getCapacityKg().doubleValue()) {
+                    unassignedBinIds.add(bin.getBinId());
+                    continue;
+                }
+            }
+            current.add(bin);
+            currentLoad += binLoad;
+        }
+        if (!current.isEmpty()) {
+            assignments.add(current);
+            assignmentLoads.add(currentLoad);
+        }
+        
+        String prefix = request.getRouteNamePrefix() != null && !request.getRouteNamePrefix().isBlank()
+                ? request.getRouteNamePrefix().trim()
+                : zone.getZoneName() + " " + collectionDate;
+        
+        List<Route> routes = new ArrayList<>(assignments.size());
+        for (int i = 0; i < assignments.size(); i++) {
+            Truck truck = trucks.get(i);
+            Route route = new Route();
+            route.setRouteName(prefix + " - " + truck.getTruckName());
+            route.setZone(zone);
+            route.setCollectionDate(collectionDate);
+            route.setTruck(truck);
+            route.setDispatcher(dispatcher);
+            routes.add(route);
+        }
+        routes = routeRepository.saveAll(routes);
+        
+        List<RouteWard> routeWards = new ArrayList<>();
+        List<RouteStop> routeStops = new ArrayList<>();
+        List<CapacityPlanResponse.PlannedRoute> plannedRoutes = new ArrayList<>();
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            
+            // Bins are already in ward order, so each ward is one contiguous run
+            Map<Integer, List<BinLocationView>> binsByWard = new LinkedHashMap<>();
+            for (BinLocationView bin : assignments.get(i)) {
+                binsByWard.computeIfAbsent(bin.getWardNumber(), ward -> new ArrayList<>()).add(bin);
+            }
+            
+            int wardOrder = 1;
+            for (Map.Entry<Integer, List<BinLocationView>> ward : binsByWard.entrySet()) {
+                routeWards.add(new RouteWard(route, ward.getKey(), wardNames.get(ward.getKey()), wardOrder));
+                int stopOrder = 1;
+                for (BinLocationView bin : ward.getValue()) {
+                    routeStops.add(newRouteStop(route, bin.getBinId(), ward.getKey(), wardOrder, stopOrder++));
+                }
+                wardOrder++;
+            }
+            
+            Truck truck = route.getTruck();
+            plannedRoutes.add(new CapacityPlanResponse.PlannedRoute(route.getRouteId(), route.getRouteName(),
+                    truck.getTruckId(), truck.getTruckName(), truck.getCapacityKg(), assignmentLoads.get(i),
+                    assignments.get(i).size(), new ArrayList<>(binsByWard.keySet())));
+        }
+        routeWardRepository.saveAll(routeWards);
+        routeStopBatchRepository.insertAll(routeStops);
+        routeProgressTracker.invalidateDate(collectionDate);
+        
+        log.info("Planned zone {} on {}: {} routes, {} stops, {} bins unassigned, {} kg predicted",
+                 zone.getZoneId(), collectionDate, routes.size(), routeStops.size(),
+                 unassignedBinIds.size(), Math.round(totalLoad));
+        return new CapacityPlanResponse(zone.getZoneId(), collectionDate, totalLoad, plannedRoutes, unassignedBinIds);
+    }
+    
+    /**
+     * Predicts each bin's load as the average weight of its collected stops in the history window
+     */
+    private Map<String, Double> predictLoads(List<Integer> wardNumbers, LocalDate collectionDate) {
+        Map<String, Double> loads = new HashMap<>();
+        for (BinLoadView load : routeStopRepository.findAverageLoadsByWardNumbers(
+                wardNumbers, collectionDate.minusDays(historyDays))) {
+            if (load.getAverageWeightKg() != null) {
+                loads.put(load.getBinId(), load.getAverageWeightKg());
+            }
+        }
+        return loads;
+    }
+    
+    /**
+     * Orders bins ward by ward, and within a ward along a short path when coordinates are known
+     */
+    private List<BinLocationView> sequenceBins(List<BinLocationView> bins) {
+        Map<Integer, List<BinLocationView>> binsByWard = new LinkedHashMap<>();
+        for (BinLocationView bin : bins) {
+            binsByWard.computeIfAbsent(bin.getWardNumber(), ward -> new ArrayList<>()).add(bin);
+        }
+        
+        List<BinLocationView> sequence = new ArrayList<>(bins.size());
+        for (List<BinLocationView> wardBins : binsByWard.values()) {
+            List<BinLocationView> located = new ArrayList<>();
+            List<BinLocationView> unlocated = new ArrayList<>();
+            for (BinLocationView bin : wardBins) {
+                (bin.getLatitude() != null && bin.getLongitude() != null ? located : unlocated).add(bin);
+            }
+            
+            if (located.size() < 3) {
+                sequence.addAll(wardBins);
+                continue;
+            }
+            int n = located.size();
+            List<String> binIds = new ArrayList<>(n);
+            double[] lat = new double[n];
+            double[] lng = new double[n];
+            for (int i = 0; i < n; i++) {
+                binIds.add(located.get(i).getBinId());
+                lat[i] = located.get(i).getLatitude();
+                lng[i] = located.get(i).getLongitude();
+            }
+            int[] tour = StopSequenceOptimizer.optimize(n,
+                    binDistanceMatrixStore.distanceFunction(wardBins.get(0).getWardNumber(), binIds, lat, lng),
+                    System.nanoTime() + sequencingBudgetNanos);
+            for (int index : tour) {
+                sequence.add(located.get(index));
+            }
+            sequence.addAll(unlocated);
+        }
+        return sequence;
+    }
+    
+    private RouteStop newRouteStop(Route route, String binId, Integer wardNumber, int wardOrder, int stopOrder) {
+        RouteStop routeStop = new RouteStop();
+        routeStop.setRoute(route);
+        Bin bin = new Bin();
+        bin.setBinId(binId);
+        routeStop.setBin(bin);
+        routeStop.setStopOrder(stopOrder);
+        routeStop.setCollected(false);
+        routeStop.setStatus(RouteStop.StopStatus.PENDING);
+        routeStop.setReasonCode(RouteStop.ReasonCode.NONE);
+        routeStop.setSource(RouteStop.Source.MANUAL);
+        routeStop.setWeightKg(BigDecimal.ZERO);
+        routeStop.setPlannedEta(plannedEtaService.calculatePlannedEta(route.getCollectionDate(), wardNumber, wardOrder, stopOrder));
+        return routeStop;
+    }
+}
@@ -0,0 +1,123 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.DayBoardResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.DayBoardRowView;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteWard;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteWardRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.DayBoardService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class DayBoardServiceImpl implements DayBoardService {
+    
+    private final RouteRepository routeRepository;
+    private final RouteWardRepository routeWardRepository;
+    private final ObjectMapper objectMapper;
+    private final long cacheTtlSeconds;
+    
+    private final Map<LocalDate, CachedBoard> cache = new ConcurrentHashMap<>();
+    
+    public DayBoardServiceImpl(RouteRepository routeRepository,
+                               RouteWardRepository routeWardRepository,
+                               ObjectMapper objectMapper,
+                               @Value("${ecocollect.day-board.cache-ttl-seconds:10}") long cacheTtlSeconds) {
+        this.routeRepository = routeRepository;
+        this.routeWardRepository = routeWardRepository;
+        this.objectMapper = objectMapper;
+        this.cacheTtlSeconds = Math.max(0, cacheTtlSeconds);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public DayBoardResponse getDayBoard(LocalDate collectionDate) {
+        long now = System.nanoTime();
+        CachedBoard cached = cache.get(collectionDate);
+        if (cached != null && now < cached.expiresAtNanos) {
+            return cached.board;
+        }
+        
+        DayBoardResponse board = buildBoard(collectionDate);
+        cache.put(collectionDate, new CachedBoard(board, now + cacheTtlSeconds * 1_000_000_000L));
+        
+        // Expired boards for other dates are dropped as we go so the cache stays small
+        cache.entrySet().removeIf(entry -> now >= entry.getValue().expiresAtNanos);
+        return board;
+    }
+    
+    @Override
+    public long getCacheTtlSeconds() {
+        return cacheTtlSeconds;
+    }
+    
+    private DayBoardResponse buildBoard(LocalDate collectionDate) {
+        Map<Integer, DayBoardResponse.DayBoardRoute> routes = new LinkedHashMap<>();
+        for (DayBoardRowView row : routeRepository.findDayBoardRows(collectionDate)) {
+            DayBoardResponse.DayBoardRoute route = routes.computeIfAbsent(row.getRouteId(), id -> {
+                Map<RouteStop.StopStatus, Long> counts = new EnumMap<>(RouteStop.StopStatus.class);
+                for (RouteStop.StopStatus status : RouteStop.StopStatus.values()) {
+                    counts.put(status, 0L);
+                }
+                return new DayBoardResponse.DayBoardRoute(row.getRouteId(), row.getRouteName(),
+                        row.getZoneId(), row.getZoneName(), row.getStatus(),
+                        row.getTruckId(), row.getTruckName(), row.getCollectorId(), row.getCollectorName(),
+                        0, 0, counts, new ArrayList<>());
+            });
+            if (row.getStopStatus() != null) {
+                long stops = row.getStopCount() != null ? row.getStopCount() : 0;
+                route.setTotalStops(route.getTotalStops() + stops);
+                route.setCollectedStops(route.getCollectedStops()
+                        + (row.getCollectedCount() != null ? row.getCollectedCount() : 0));
+                route.getStopsByStatus().merge(row.getStopStatus(), stops, Long::sum);
+            }
+        }
+        
+        // Route IDs come from the lazy route reference, so this does not load the routes again
+        Map<Integer, List<DayBoardResponse.DayBoardWard>> wardsByRoute = new HashMap<>();
+        for (RouteWard ward : routeWardRepository.findByRouteCollectionDateOrderByRouteIdAndWardOrder(collectionDate)) {
+            wardsByRoute.computeIfAbsent(ward.getRoute().getRouteId(), id -> new ArrayList<>())
+                    .add(new DayBoardResponse.DayBoardWard(ward.getWardNumber(), ward.getWardName(), ward.getWardOrder()));
+        }
+        routes.values().forEach(route -> route.getWards().addAll(wardsByRoute.getOrDefault(route.getRouteId(), List.of())));
+        
+        DayBoardResponse board = new DayBoardResponse(collectionDate, new ArrayList<>(routes.values()), null);
+        board.setEtag(etagOf(board));
+        return board;
+    }
+    
+    private String etagOf(DayBoardResponse board) {
+        try {
+            return "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(board)) + "\"";
+        } catch (JsonProcessingException e) {
+            log.warn("Could not hash day board for {}: {}", board.getCollectionDate(), e.getMessage());
+            return null;
+        }
+    }
+    
+    private static final class CachedBoard {
+        private final DayBoardResponse board;
+        private final long expiresAtNanos;
+        
+        private CachedBoard(DayBoardResponse board, long expiresAtNanos) {
+            this.board = board;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopSequenceRow;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteEtaUpdatedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.LiveEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.PlannedEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.ServiceTimeModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+@Slf4j
+public class LiveEtaServiceImpl implements LiveEtaService {
+    
+    private final RouteStopBatchRepository routeStopBatchRepository;
+    private final ServiceTimeModel serviceTimeModel;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public RouteEtaUpdatedEvent reproject(RouteStop arrivedStop) {
+        LocalDateTime arrivedAt = arrivedStop.getArrivedAt();
+        RouteStopSequenceRow position = routeStopBatchRepository.findSequencePosition(arrivedStop.getStopId());
+        if (arrivedAt == null || position == null) {
+            throw new RuntimeException("Route stop not found with id: " + arrivedStop.getStopId());
+        }
+        
+        // Feed the time since the previous arrival in this ward to the service time model
+        LocalDateTime previousArrival = routeStopBatchRepository.findPreviousArrivalInWard(position, arrivedAt);
+        if (previousArrival != null) {
+            serviceTimeModel.observe(position.getBinId(), position.getWardNumber(),
+                    Duration.between(previousArrival, arrivedAt).toSeconds() / 60.0);
+        }
+        
+        List<RouteStopSequenceRow> remaining = routeStopBatchRepository.findRemainingStops(position);
+        
+        Map<Integer, LocalDateTime> liveEtas = new LinkedHashMap<>();
+        liveEtas.put(position.getStopId(), arrivedAt);
+        arrivedStop.setLiveEta(arrivedAt);
+        
+        // Within the arrived ward, step stop by stop with learned bin times where known.
+        // Elsewhere keep each stop's planned offset from the arrived stop. Never project a
+        // stop before the one ahead of it.
+        LocalDateTime previous = arrivedAt;
+        LocalDateTime anchor = position.getPlannedEta();
+        boolean stepping = true;
+        Map<Integer, LocalDateTime> updates = new LinkedHashMap<>();
+        for (RouteStopSequenceRow stop : remaining) {
+            stepping = stepping && stop.getWardOrder() == position.getWardOrder();
+            Double learnedMinutes = stepping ? serviceTimeModel.getBinMinutes(stop.getBinId(), stop.getWardNumber()) : null;
+            LocalDateTime projected;
+            if (learnedMinutes != null) {
+                projected = previous.plusSeconds(Math.round(learnedMinutes * 60));
+            } else if (anchor != null && stop.getPlannedEta() != null) {
+                projected = arrivedAt.plus(Duration.between(anchor, stop.getPlannedEta()));
+            } else {
+                projected = previous.plusMinutes(PlannedEtaService.MINUTES_PER_STOP);
+            }
+            if (projected.isBefore(previous)) {
+                projected = previous;
+            }
+            updates.put(stop.getStopId(), projected);
+            previous = projected;
+        }
+        routeStopBatchRepository.updateLiveEtas(updates);
+        liveEtas.putAll(updates);
+        
+        long latenessMinutes = anchor != null ? Duration.between(anchor, arrivedAt).toMinutes() : 0;
+        log.debug("Route {} stop {} arrived {} min late; re-projected {} remaining stops",
+                  position.getRouteId(), position.getStopId(), latenessMinutes, updates.size());
+        
+        RouteEtaUpdatedEvent event = new RouteEtaUpdatedEvent(position.getRouteId(), position.getStopId(),
+                arrivedAt, latenessMinutes, liveEtas);
+        eventPublisher.publishEvent(event);
+        return event;
+    }
+}
@@ -0,0 +1,98 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.PlannedEtaRecalculationResult;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.PlannedEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.ServiceTimeModel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Service
+@Slf4j
+public class PlannedEtaServiceImpl implements PlannedEtaService {
+    
+    private final RouteStopBatchRepository routeStopBatchRepository;
+    private final ServiceTimeModel serviceTimeModel;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkDays;
+    
+    public PlannedEtaServiceImpl(RouteStopBatchRepository routeStopBatchRepository,
+                                 ServiceTimeModel serviceTimeModel,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${ecocollect.planned-eta.chunk-days:7}") int chunkDays) {
+        this.routeStopBatchRepository = routeStopBatchRepository;
+        this.serviceTimeModel = serviceTimeModel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.chunkDays = Math.max(1, chunkDays);
+    }
+    
+    @Override
+    public LocalDateTime calculatePlannedEta(LocalDate collectionDate, Integer wardNumber, Integer wardOrder, Integer stopOrder) {
+        // Base time: 8:00 AM on the route's collection date
+        LocalDateTime baseTime = collectionDate.atTime(START_HOUR, 0, 0, 0);
+        
+        // Add time based on ward order (30 minutes per ward)
+        baseTime = baseTime.plusMinutes((long) (wardOrder - 1) * MINUTES_PER_WARD);
+        
+        // Add time based on stop order within ward (learned minutes per stop, 5 until learned)
+        Double learned = serviceTimeModel.getWardMinutesPerStop(wardNumber);
+        double minutesPerStop = learned != null ? learned : MINUTES_PER_STOP;
+        baseTime = baseTime.plusSeconds(Math.round((stopOrder - 1) * minutesPerStop * 60));
+        
+        return baseTime;
+    }
+    
+    @Override
+    public PlannedEtaRecalculationResult recalculate(LocalDate fromDate, LocalDate toDate) {
+        long started = System.currentTimeMillis();
+        int chunks = 0;
+        int updated = 0;
+        
+        // Each chunk commits on its own so no single transaction spans the whole history
+        for (LocalDate chunkStart = fromDate; !chunkStart.isAfter(toDate); chunkStart = chunkStart.plusDays(chunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays - 1L);
+            if (chunkEnd.isAfter(toDate)) {
+                chunkEnd = toDate;
+            }
+            
+            LocalDate from = chunkStart;
+            LocalDate to = chunkEnd;
+            Integer chunkUpdated = transactionTemplate.execute(status ->
+                    routeStopBatchRepository.recalculatePlannedEta(from, to,
+                            START_HOUR, MINUTES_PER_WARD, MINUTES_PER_STOP, serviceTimeModel.getMinSamples()));
+            
+            chunks++;
+            updated += chunkUpdated != null ? chunkUpdated : 0;
+            log.info("Planned ETA recalculation: {} to {} updated {} route stops ({} total so far)",
+                     from, to, chunkUpdated, updated);
+        }
+        
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Planned ETA recalculation finished: {} route stops updated in {} chunks ({} ms)",
+                 updated, chunks, elapsed);
+        return new PlannedEtaRecalculationResult(fromDate, toDate, chunks, updated, elapsed);
+    }
+    
+    @Override
+    public int recalculateRoutes(Collection<Integer> routeIds) {
+        return routeStopBatchRepository.recalculatePlannedEtaForRoutes(routeIds,
+                START_HOUR, MINUTES_PER_WARD, MINUTES_PER_STOP, serviceTimeModel.getMinSamples());
+    }
+    
+    @Override
+    public PlannedEtaRecalculationResult recalculateAll() {
+        LocalDate[] range = routeStopBatchRepository.findCollectionDateRange();
+        if (range == null) {
+            return new PlannedEtaRecalculationResult(null, null, 0, 0, 0);
+        }
+        return recalculate(range[0], range[1]);
+    }
+}
@@ -0,0 +1,274 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteOptimizationResult;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopLocationView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopOrderRow;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.DistanceFunction;
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.StopSequenceOptimizer;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.PlannedEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteOptimizationService;
+import com.csse.ecocollectbackend.resident.service.BinDistanceMatrixStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class RouteOptimizationServiceImpl implements RouteOptimizationService {
+    
+    private final RouteRepository routeRepository;
+    private final RouteStopRepository routeStopRepository;
+    private final RouteStopBatchRepository routeStopBatchRepository;
+    private final PlannedEtaService plannedEtaService;
+    private final BinDistanceMatrixStore binDistanceMatrixStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool optimizerPool;
+    private final long timeBudgetNanos;
+    
+    public RouteOptimizationServiceImpl(RouteRepository routeRepository,
+                                        RouteStopRepository routeStopRepository,
+                                        RouteStopBatchRepository routeStopBatchRepository,
+                                        PlannedEtaService plannedEtaService,
+                                        BinDistanceMatrixStore binDistanceMatrixStore,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${ecocollect.route-optimizer.time-budget-ms:2000}") long timeBudgetMs,
+                                        @Value("${ecocollect.route-optimizer.parallelism:0}") int parallelism) {
+        this.routeRepository = routeRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.routeStopBatchRepository = routeStopBatchRepository;
+        this.plannedEtaService = plannedEtaService;
+        this.binDistanceMatrixStore = binDistanceMatrixStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The locked re-read must see writes committed while the optimizer ran
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        // Own pool so long optimizations never starve the common pool used elsewhere
+        this.optimizerPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        optimizerPool.shutdown();
+    }
+    
+    @Override
+    public RouteOptimizationResult optimizeRoute(Integer routeId) {
+        if (!routeRepository.existsById(routeId)) {
+            throw new RuntimeException("Route not found");
+        }
+        return optimizeRoutes(List.of(routeId));
+    }
+    
+    @Override
+    public RouteOptimizationResult optimizeRoutesForDate(LocalDate collectionDate) {
+        return optimizeRoutes(routeRepository.findRouteIdsByCollectionDateAndStatus(collectionDate, Route.RouteStatus.pending));
+    }
+    
+    @Override
+    public RouteOptimizationResult optimizeRoutes(List<Integer> routeIds) {
+        long started = System.currentTimeMillis();
+        if (routeIds == null || routeIds.isEmpty()) {
+            return new RouteOptimizationResult(0, 0, 0, 0, 0, 0);
+        }
+        List<Integer> pendingRouteIds = routeRepository.findRouteIdsByRouteIdsAndStatus(routeIds, Route.RouteStatus.pending);
+        if (pendingRouteIds.isEmpty()) {
+            return new RouteOptimizationResult(routeIds.size(), 0, 0, 0, 0, System.currentTimeMillis() - started);
+        }
+        
+        // Rows arrive ordered by route, ward and stop order
+        Map<Integer, List<RouteStopLocationView>> stopsByRoute = new LinkedHashMap<>();
+        for (RouteStopLocationView stop : routeStopRepository.findStopLocationsByRouteIds(pendingRouteIds)) {
+            stopsByRoute.computeIfAbsent(stop.getRouteId(), id -> new ArrayList<>()).add(stop);
+        }
+        
+        List<Callable<RoutePlan>> tasks = new ArrayList<>();
+        stopsByRoute.values().forEach(stops -> tasks.add(() -> sequenceRoute(stops)));
+        
+        List<RoutePlan> plans = new ArrayList<>();
+        try {
+            for (Future<RoutePlan> future : optimizerPool.invokeAll(tasks)) {
+                plans.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Route optimization interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Route optimization failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        
+        double distanceBefore = 0;
+        double distanceAfter = 0;
+        int routesChanged = 0;
+        int stopsReordered = 0;
+        for (RoutePlan plan : plans) {
+            distanceBefore += plan.distanceBefore();
+            distanceAfter += plan.distanceAfter();
+            if (plan.wards().isEmpty()) {
+                continue;
+            }
+            // One transaction per route, so a route whose wards all changed meanwhile writes nothing
+            Integer reordered = transactionTemplate.execute(status -> applyPlan(plan));
+            if (reordered != null && reordered > 0) {
+                routesChanged++;
+                stopsReordered += reordered;
+            }
+        }
+        
+        long elapsed = System.currentTimeMillis() - started;
+        log.info("Optimized {} routes: {} changed, {} stops reordered, {} m -> {} m ({} ms)",
+                 routeIds.size(), routesChanged, stopsReordered,
+                 Math.round(distanceBefore), Math.round(distanceAfter), elapsed);
+        return new RouteOptimizationResult(routeIds.size(), routesChanged, stopsReordered,
+                distanceBefore, distanceAfter, elapsed);
+    }
+    
+    /**
+     * Writes the plan's wards that are unchanged since they were read, with the planned ETAs that follow
+     * 
+     * The route lock orders this against followup insertion, which shifts and inserts stops under
+     * it, and the stop row locks hold off collectors until the new orders commit. A ward is skipped
+     * when it started, or when its stops or their orders differ from what the optimizer read.
+     * 
+     * @return The number of stops reordered
+     */
+    private int applyPlan(RoutePlan plan) {
+        Route route = routeRepository.findByIdForUpdate(plan.routeId()).orElse(null);
+        if (route == null || route.getStatus() != Route.RouteStatus.pending) {
+            log.info("Route {} is no longer pending, keeping its stop orders", plan.routeId());
+            return 0;
+        }
+        
+        Map<Integer, Map<Integer, Integer>> ordersByWard = new HashMap<>();
+        Set<Integer> startedWards = new HashSet<>();
+        for (RouteStopOrderRow stop : routeStopBatchRepository.findStopOrdersForUpdate(plan.routeId())) {
+            ordersByWard.computeIfAbsent(stop.getWardNumber(), ward -> new HashMap<>()).put(stop.getStopId(), stop.getStopOrder());
+            if (stop.getStatus() != RouteStop.StopStatus.PENDING) {
+                startedWards.add(stop.getWardNumber());
+            }
+        }
+        
+        Map<Integer, Integer> newStopOrders = new HashMap<>();
+        for (WardPlan ward : plan.wards()) {
+            if (startedWards.contains(ward.wardNumber())
+                    || !ward.readOrders().equals(ordersByWard.getOrDefault(ward.wardNumber(), Map.of()))) {
+                log.info("Ward {} of route {} changed during optimization, keeping its stop orders",
+                         ward.wardNumber(), plan.routeId());
+                continue;
+            }
+            newStopOrders.putAll(ward.newStopOrders());
+        }
+        if (newStopOrders.isEmpty()) {
+            return 0;
+        }
+        
+        routeStopBatchRepository.updateStopOrders(newStopOrders);
+        plannedEtaService.recalculateRoutes(List.of(plan.routeId()));
+        return newStopOrders.size();
+    }
+    
+    private RoutePlan sequenceRoute(List<RouteStopLocationView> stops) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        List<WardPlan> wards = new ArrayList<>();
+        double distanceBefore = 0;
+        double distanceAfter = 0;
+        
+        Map<Integer, List<RouteStopLocationView>> stopsByWard = new LinkedHashMap<>();
+        for (RouteStopLocationView stop : stops) {
+            stopsByWard.computeIfAbsent(stop.getWardNumber(), ward -> new ArrayList<>()).add(stop);
+        }
+        
+        for (List<RouteStopLocationView> wardStops : stopsByWard.values()) {
+            // Once a ward has started, the collector is already following its order
+            if (wardStops.stream().anyMatch(stop -> stop.getStatus() != RouteStop.StopStatus.PENDING)) {
+                continue;
+            }
+            
+            List<RouteStopLocationView> located = new ArrayList<>();
+            List<RouteStopLocationView> unlocated = new ArrayList<>();
+            for (RouteStopLocationView stop : wardStops) {
+                (stop.getLatitude() != null && stop.getLongitude() != null ? located : unlocated).add(stop);
+            }
+            if (located.size() < 3) {
+                continue;
+            }
+            
+            int n = located.size();
+            List<String> binIds = new ArrayList<>(n);
+            double[] lat = new double[n];
+            double[] lng = new double[n];
+            int[] current = new int[n];
+            for (int i = 0; i < n; i++) {
+                binIds.add(located.get(i).getBinId());
+                lat[i] = located.get(i).getLatitude();
+                lng[i] = located.get(i).getLongitude();
+                current[i] = i;
+            }
+            DistanceFunction distance = binDistanceMatrixStore.distanceFunction(
+                    wardStops.get(0).getWardNumber(), binIds, lat, lng);
+            
+            double before = StopSequenceOptimizer.pathLength(current, distance);
+            int[] tour = StopSequenceOptimizer.optimize(n, distance, deadline);
+            double after = StopSequenceOptimizer.pathLength(tour, distance);
+            distanceBefore += before;
+            if (after >= before) {
+                distanceAfter += before;
+                continue;
+            }
+            distanceAfter += after;
+            
+            // Stops without coordinates keep their relative order after the located ones
+            Map<Integer, Integer> readOrders = new HashMap<>();
+            wardStops.forEach(stop -> readOrders.put(stop.getStopId(), stop.getStopOrder()));
+            Map<Integer, Integer> newStopOrders = new HashMap<>();
+            int order = 1;
+            for (int index : tour) {
+                putIfChanged(newStopOrders, located.get(index), order++);
+            }
+            for (RouteStopLocationView stop : unlocated) {
+                putIfChanged(newStopOrders, stop, order++);
+            }
+            if (!newStopOrders.isEmpty()) {
+                wards.add(new WardPlan(wardStops.get(0).getWardNumber(), readOrders, newStopOrders));
+            }
+        }
+        
+        return new RoutePlan(stops.get(0).getRouteId(), wards, distanceBefore, distanceAfter);
+    }
+    
+    private void putIfChanged(Map<Integer, Integer> newStopOrders, RouteStopLocationView stop, int order) {
+        if (!Objects.equals(stop.getStopOrder(), order)) {
+            newStopOrders.put(stop.getStopId(), order);
+        }
+    }
+    
+    private record RoutePlan(Integer routeId, List<WardPlan> wards, double distanceBefore, double distanceAfter) {
+    }
+    
+    // readOrders is every stop of the ward as the optimizer read it, checked again before writing
+    private record WardPlan(Integer wardNumber, Map<Integer, Integer> readOrders, Map<Integer, Integer> newStopOrders) {
+    }
+}
@@ -1,9 +1,13 @@
 package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
 
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BulkAssignCollectorRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.BulkAssignCollectorResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.dto.CreateRouteRequest;
 import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
 import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteProgressTracker;
 import com.csse.ecocollectbackend.dispatcher.routes.service.RouteService;
 import com.csse.ecocollectbackend.dispatcher.routes.service.RouteStopService;
 import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
@@ -17,9 +21,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +35,8 @@ public class RouteServiceImpl implements RouteService {
     private final TruckRepository truckRepository;
     private final UserRepository userRepository;
     private final RouteStopService routeStopService;
+    private final RouteProgressTracker routeProgressTracker;
+    private final ChangeVersionService changeVersionService;
     
     @Override
     public RouteResponse createRoute(CreateRouteRequest request) {
@@ -60,62 +66,50 @@ public class RouteServiceImpl implements RouteService {
         }
         
         Route savedRoute = routeRepository.save(route);
+        routeProgressTracker.invalidateDate(savedRoute.getCollectionDate());
         return RouteResponse.fromEntity(savedRoute);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<RouteResponse> getAllRoutes() {
-        return routeRepository.findAll().stream()
-                .map(RouteResponse::fromEntity)
-                .collect(Collectors.toList());
+        return routeRepository.findAllResponses();
     }
     
     @Override
     @Transactional(readOnly = true)
     public Optional<RouteResponse> getRouteById(Integer routeId) {
-        return routeRepository.findById(routeId)
-                .map(RouteResponse::fromEntity);
+        return routeRepository.findResponseById(routeId);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<RouteResponse> getRoutesByDispatcher(Integer dispatcherId) {
-        return routeRepository.findByDispatcherUserId(dispatcherId).stream()
-                .map(RouteResponse::fromEntity)
-                .collect(Collectors.toList());
+        return routeRepository.findResponsesByDispatcherId(dispatcherId);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<RouteResponse> getRoutesByCollector(Integer collectorId) {
-        return routeRepository.findByCollectorUserId(collectorId).stream()
-                .map(RouteResponse::fromEntity)
-                .collect(Collectors.toList());
+        return routeRepository.findResponsesByCollectorId(collectorId);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<RouteResponse> getRoutesByZone(Long zoneId) {
-        return routeRepository.findByZoneZoneId(zoneId).stream()
-                .map(RouteResponse::fromEntity)
-                .collect(Collectors.toList());
+        return routeRepository.findResponsesByZoneId(zoneId);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<RouteResponse> getRoutesByDate(LocalDate date) {
-        return routeRepository.findByCollectionDate(date).stream()
-                .map(RouteResponse::fromEntity)
-                .collect(Collectors.toList());
+        return routeRepository.findResponsesByCollectionDate(date);
     }
     
     @Override
     @Transactional(readOnly = true)
     public List<RouteResponse> getRoutesByStatus(Route.RouteStatus status) {
-        return routeRepository.findByStatus(status).stream()
-                .map(RouteResponse::fromEntity)
-                .collect(Collectors.toList());
+        return routeRepository.findResponsesByStatus(status);
     }
     
     @Override
@@ -144,6 +138,32 @@ public class RouteServiceImpl implements RouteService {
         return RouteResponse.fromEntity(updatedRoute);
     }
     
+    @Override
+    public BulkAssignCollectorResponse assignCollectorToRoutes(BulkAssignCollectorRequest request) {
+        List<Integer> routeIds;
+        if (request.getRouteIds() != null && !request.getRouteIds().isEmpty()) {
+            routeIds = request.getRouteIds();
+        } else if (request.getZoneId() != null && request.getCollectionDate() != null) {
+            routeIds = routeRepository.findRouteIdsByZoneAndCollectionDate(
+                    request.getZoneId(), request.getCollectionDate());
+        } else {
+            throw new RuntimeException("Either routeIds or zoneId and collectionDate are required");
+        }
+        
+        User collector = userRepository.findById(request.getCollectorId())
+                .orElseThrow(() -> new RuntimeException("Collector not found"));
+        
+        if (routeIds.isEmpty()) {
+            return new BulkAssignCollectorResponse(collector.getUserId(), routeIds, 0, 0);
+        }
+        
+        int routesUpdated = routeRepository.updateCollectorByRouteIds(routeIds, collector, LocalDateTime.now(),
+                                                                 changeVersionService.current());
+        int routeStopsUpdated = routeStopService.updateRouteStopsDriverForRoutes(routeIds, collector.getUserId());
+        
+        return new BulkAssignCollectorResponse(collector.getUserId(), routeIds, routesUpdated, routeStopsUpdated);
+    }
+    
     @Override
     public RouteResponse assignTruck(Integer routeId, Integer truckId) {
         Route route = routeRepository.findById(routeId)
@@ -163,5 +183,6 @@ public class RouteServiceImpl implements RouteService {
             throw new RuntimeException("Route not found");
         }
         routeRepository.deleteById(routeId);
+        routeProgressTracker.invalidateRoute(routeId);
     }
 }
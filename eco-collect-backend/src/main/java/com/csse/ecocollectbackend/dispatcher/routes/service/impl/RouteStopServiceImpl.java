@@ -1,7 +1,18 @@
 package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
 
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.PlannedEtaRecalculationResult;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteProgressResponse;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopOwnerRow;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopPatchRequest;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopPatchResponse;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteStopChangedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
 import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.LiveEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.PlannedEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteProgressTracker;
 import com.csse.ecocollectbackend.dispatcher.routes.service.RouteStopService;
 import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
 import com.csse.ecocollectbackend.followup.service.FollowupService;
@@ -9,11 +20,15 @@ import com.csse.ecocollectbackend.login.entity.User;
 import com.csse.ecocollectbackend.login.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -22,9 +37,17 @@ import java.util.Optional;
 @Slf4j
 public class RouteStopServiceImpl implements RouteStopService {
     
+    private static final int MAX_STATUS_ATTEMPTS = 5;
+    
     private final RouteStopRepository routeStopRepository;
     private final UserRepository userRepository;
     private final FollowupService followupService;
+    private final LiveEtaService liveEtaService;
+    private final PlannedEtaService plannedEtaService;
+    private final RouteProgressTracker routeProgressTracker;
+    private final RouteStopBatchRepository routeStopBatchRepository;
+    private final ChangeVersionService changeVersionService;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Override
     public RouteStop createRouteStop(RouteStop routeStop) {
@@ -118,32 +141,51 @@ public class RouteStopServiceImpl implements RouteStopService {
     @Override
     @Transactional(readOnly = true)
     public Long countRouteStopsByRouteId(Integer routeId) {
-        return routeStopRepository.countByRoute(routeId);
+        return routeProgressTracker.getProgress(routeId).map(RouteProgressResponse::getTotalStops).orElse(0L);
     }
     
     @Override
     @Transactional(readOnly = true)
     public Long countCollectedRouteStopsByRouteId(Integer routeId) {
-        return routeStopRepository.countCollectedByRoute(routeId);
+        return routeProgressTracker.getProgress(routeId).map(RouteProgressResponse::getCollectedStops).orElse(0L);
     }
     
     @Override
     @Transactional(readOnly = true)
     public Long countRouteStopsByRouteAndStatus(Integer routeId, RouteStop.StopStatus status) {
-        return routeStopRepository.countByRouteAndStatus(routeId, status);
+        return routeProgressTracker.getProgress(routeId)
+                .map(progress -> progress.getStopsByStatus().getOrDefault(status, 0L))
+                .orElse(0L);
     }
     
+    /**
+     * A changed status goes through the same compare-and-set as the other status writes; the
+     * stop's row stays locked from then on, so saving the remaining fields cannot race it
+     */
     @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public RouteStop updateRouteStop(RouteStop routeStop) {
+        if (routeStop.getStopId() != null && routeStop.getStatus() != null) {
+            RouteStopOwnerRow before = transitionStatus(routeStop.getStopId(), routeStop.getStatus());
+            if (before != null) {
+                stopChanged(before, routeStop.getStatus(), before.getCollected(), before.getArrivedAt());
+            }
+        }
         return routeStopRepository.save(routeStop);
     }
     
     @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public RouteStop updateRouteStopStatus(Integer stopId, RouteStop.StopStatus status) {
-        RouteStop routeStop = routeStopRepository.findById(stopId)
+        if (status == null) {
+            throw new RuntimeException("Status is required");
+        }
+        RouteStopOwnerRow before = transitionStatus(stopId, status);
+        if (before != null) {
+            stopChanged(before, status, before.getCollected(), before.getArrivedAt());
+        }
+        return routeStopRepository.findById(stopId)
                 .orElseThrow(() -> new RuntimeException("Route stop not found with id: " + stopId));
-        routeStop.setStatus(status);
-        return routeStopRepository.save(routeStop);
     }
     
     @Override
@@ -159,6 +201,9 @@ public class RouteStopServiceImpl implements RouteStopService {
         RouteStop routeStop = routeStopRepository.findById(stopId)
                 .orElseThrow(() -> new RuntimeException("Route stop not found with id: " + stopId));
         routeStop.setArrivedAt(arrivedAt);
+        if (arrivedAt != null) {
+            liveEtaService.reproject(routeStop);
+        }
         return routeStopRepository.save(routeStop);
     }
     
@@ -170,6 +215,63 @@ public class RouteStopServiceImpl implements RouteStopService {
         return routeStopRepository.save(routeStop);
     }
     
+    @Override
+    public Optional<RouteStopPatchResponse> patchRouteStop(Integer stopId, RouteStopPatchRequest patch) {
+        if (patch == null || patch.isEmpty()) {
+            throw new RuntimeException("No route stop fields to update");
+        }
+        // The previous values are only read, under a row lock, when counters, ETAs or the stream need them
+        RouteStopOwnerRow before = null;
+        if (patch.touchesTrackedFields()) {
+            List<RouteStopOwnerRow> rows = routeStopBatchRepository.findOwnersForUpdate(List.of(stopId));
+            if (rows.isEmpty()) {
+                return Optional.empty();
+            }
+            before = rows.get(0);
+            RouteStop.StopStatus current = statusOf(before);
+            if (patch.getStatus() != null && patch.getStatus() != current && !current.canTransitionTo(patch.getStatus())) {
+                throw new RuntimeException("Route stop " + stopId + " cannot change from " + current + " to " + patch.getStatus());
+            }
+        }
+        
+        LocalDateTime updatedAt = LocalDateTime.now();
+        long changeVersion = changeVersionService.current();
+        if (routeStopBatchRepository.patchFields(stopId, patch, updatedAt, changeVersion) == 0) {
+            return Optional.empty();
+        }
+        if (before != null) {
+            afterPatch(before, patch);
+        }
+        
+        return Optional.of(new RouteStopPatchResponse(stopId, before != null ? before.getRouteId() : null,
+                patch.getStatus(), patch.getCollected(), patch.getArrivedAt(), patch.getPhotoUrl(),
+                patch.getWeightKg(), patch.getNotes(), patch.getReasonCode(), updatedAt, changeVersion));
+    }
+    
+    // What RouteStopChangeListener and updateRouteStopArrivedAt do for a stop saved through JPA
+    private void afterPatch(RouteStopOwnerRow before, RouteStopPatchRequest patch) {
+        stopChanged(before,
+                patch.getStatus() != null ? patch.getStatus() : before.getStatus(),
+                patch.getCollected() != null ? patch.getCollected() : before.getCollected(),
+                patch.getArrivedAt() != null ? patch.getArrivedAt() : before.getArrivedAt());
+        if (patch.getArrivedAt() != null) {
+            RouteStop arrivedStop = new RouteStop();
+            arrivedStop.setStopId(before.getStopId());
+            arrivedStop.setArrivedAt(patch.getArrivedAt());
+            liveEtaService.reproject(arrivedStop);
+        }
+    }
+    
+    // Progress counters and the change stream for a stop written without going through the entity
+    private void stopChanged(RouteStopOwnerRow before, RouteStop.StopStatus status, Boolean collected, LocalDateTime arrivedAt) {
+        routeProgressTracker.onStopChanged(before.getRouteId(), before.getStatus(), before.getCollected(), status, collected);
+        if (status != before.getStatus() || !Objects.equals(collected, before.getCollected())
+                || !Objects.equals(arrivedAt, before.getArrivedAt())) {
+            eventPublisher.publishEvent(new RouteStopChangedEvent(before.getRouteId(), before.getStopId(),
+                    before.getBinId(), status, collected, arrivedAt));
+        }
+    }
+    
     @Override
     public RouteStop updateRouteStopWeight(Integer stopId, java.math.BigDecimal weightKg) {
         RouteStop routeStop = routeStopRepository.findById(stopId)
@@ -208,19 +310,24 @@ public class RouteStopServiceImpl implements RouteStopService {
     
     @Override
     @Transactional
-    public void updateRouteStopsDriverForRoute(Integer routeId, Integer driverId) {
-        // Get all route stops for the route
-        List<RouteStop> routeStops = routeStopRepository.findByRouteRouteId(routeId);
-        
-        // Get the driver user
+    public int updateRouteStopsDriverForRoute(Integer routeId, Integer driverId) {
         User driver = userRepository.findById(driverId)
                 .orElseThrow(() -> new RuntimeException("Driver not found with id: " + driverId));
         
-        // Update all route stops with the driver
-        for (RouteStop routeStop : routeStops) {
-            routeStop.setDriver(driver);
-            routeStopRepository.save(routeStop);
+        // Single UPDATE for all stops on the route
+        return routeStopRepository.updateDriverByRouteId(routeId, driver, LocalDateTime.now());
+    }
+    
+    @Override
+    @Transactional
+    public int updateRouteStopsDriverForRoutes(List<Integer> routeIds, Integer driverId) {
+        if (routeIds == null || routeIds.isEmpty()) {
+            return 0;
         }
+        User driver = userRepository.findById(driverId)
+                .orElseThrow(() -> new RuntimeException("Driver not found with id: " + driverId));
+        
+        return routeStopRepository.updateDriverByRouteIds(routeIds, driver, LocalDateTime.now());
     }
     
     @Override
@@ -234,28 +341,43 @@ public class RouteStopServiceImpl implements RouteStopService {
         return routeStopRepository.existsById(stopId);
     }
     
+    /**
+     * Moves the stop with a compare-and-set on its status instead of a read-modify-save, so when a
+     * collector and a dispatcher race only one of them wins a transition and creates a followup
+     * Read committed so each retry sees the status the other writer committed
+     */
     @Override
-    @Transactional
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public RouteStop updateRouteStopStatusWithFollowup(Integer stopId, RouteStop.StopStatus status) {
+        if (status == null) {
+            throw new RuntimeException("Status is required");
+        }
+        RouteStopOwnerRow before = transitionStatus(stopId, status);
         RouteStop routeStop = routeStopRepository.findById(stopId)
                 .orElseThrow(() -> new RuntimeException("Route stop not found with id: " + stopId));
-        
-        RouteStop.StopStatus previousStatus = routeStop.getStatus();
-        routeStop.setStatus(status);
-        RouteStop savedRouteStop = routeStopRepository.save(routeStop);
+        if (before == null) {
+            log.info("No followup created for route stop ID: {} - already {}", stopId, status);
+            return routeStop;
+        }
+        RouteStop.StopStatus previousStatus = before.getStatus();
+        stopChanged(before, status, before.getCollected(), before.getArrivedAt());
         
         // Create followup if status changed to MISSED or SKIPPED
-        if ((status == RouteStop.StopStatus.MISSED || status == RouteStop.StopStatus.SKIPPED) 
-            && previousStatus != status) {
+        if (status == RouteStop.StopStatus.MISSED || status == RouteStop.StopStatus.SKIPPED) {
             try {
                 FollowupPickup.ReasonCode reasonCode = status == RouteStop.StopStatus.MISSED 
                         ? FollowupPickup.ReasonCode.MISSED 
                         : FollowupPickup.ReasonCode.SKIPPED;
                 
-                log.info("Creating followup for route stop ID: {} - Status changed from {} to {}", 
-                         stopId, previousStatus, status);
-                followupService.createFromRouteStop(routeStop, reasonCode);
-                log.info("Successfully created followup pickup for {} route stop ID: {}", status, stopId);
+                // The stop's row lock from the status update keeps the check and the insert atomic, so
+                // a stop moving between MISSED and SKIPPED, or missed again, keeps its one followup
+                if (followupService.createFromRouteStopIfAbsent(routeStop, reasonCode).isPresent()) {
+                    log.info("Created followup pickup for route stop ID: {} - Status changed from {} to {}",
+                             stopId, previousStatus, status);
+                } else {
+                    log.info("Route stop ID: {} already has a followup - Status changed from {} to {}",
+                             stopId, previousStatus, status);
+                }
             } catch (Exception e) {
                 log.error("Failed to create followup for {} route stop ID: {} - {}", 
                          status, stopId, e.getMessage());
@@ -266,58 +388,51 @@ public class RouteStopServiceImpl implements RouteStopService {
                      stopId, status, previousStatus);
         }
         
-        return savedRouteStop;
+        return routeStop;
     }
     
     /**
-     * Updates all existing route stops to have planned_eta based on their route's collection_date
-     * This method fixes route stops that were created before the planned_eta calculation was corrected
+     * Applies one status transition, retrying when another writer changes the status in between
+     * 
+     * @return The stop as it was before the transition, or null when it already had the status
      */
-    @Override
-    @Transactional
-    public int updateAllRouteStopsPlannedEta() {
-        List<RouteStop> allRouteStops = routeStopRepository.findAll();
-        int updatedCount = 0;
-        
-        for (RouteStop routeStop : allRouteStops) {
-            try {
-                // Calculate the correct planned ETA based on route's collection date
-                LocalDateTime correctPlannedEta = calculatePlannedEtaFromRouteStop(routeStop);
-                
-                // Only update if the planned ETA is different
-                if (!correctPlannedEta.equals(routeStop.getPlannedEta())) {
-                    routeStop.setPlannedEta(correctPlannedEta);
-                    routeStopRepository.save(routeStop);
-                    updatedCount++;
-                    log.info("Updated route stop ID: {} planned_eta from {} to {}", 
-                             routeStop.getStopId(), routeStop.getPlannedEta(), correctPlannedEta);
-                }
-            } catch (Exception e) {
-                log.error("Failed to update planned_eta for route stop ID: {} - {}", 
-                         routeStop.getStopId(), e.getMessage());
+    private RouteStopOwnerRow transitionStatus(Integer stopId, RouteStop.StopStatus status) {
+        for (int attempt = 1; attempt <= MAX_STATUS_ATTEMPTS; attempt++) {
+            RouteStopOwnerRow current = routeStopBatchRepository.findOwner(stopId);
+            if (current == null) {
+                throw new RuntimeException("Route stop not found with id: " + stopId);
+            }
+            RouteStop.StopStatus currentStatus = statusOf(current);
+            if (currentStatus == status) {
+                return null;
             }
+            if (!currentStatus.canTransitionTo(status)) {
+                throw new RuntimeException("Route stop " + stopId + " cannot change from " + currentStatus + " to " + status);
+            }
+            if (routeStopRepository.compareAndSetStatus(stopId, currentStatus, status,
+                    RouteStop.StopStatus.predecessorsOf(status), RouteStop.StopStatus.PENDING,
+                    LocalDateTime.now(), changeVersionService.current()) == 1) {
+                return current;
+            }
+            log.debug("Status of route stop ID: {} changed concurrently, retrying (attempt {})", stopId, attempt);
         }
-        
-        log.info("Updated {} route stops with correct planned_eta values", updatedCount);
-        return updatedCount;
+        throw new RuntimeException("Route stop " + stopId + " is being updated concurrently, please retry");
+    }
+    
+    // A stop without a status counts as PENDING, as in the status updates' predicates
+    private static RouteStop.StopStatus statusOf(RouteStopOwnerRow stop) {
+        return stop.getStatus() != null ? stop.getStatus() : RouteStop.StopStatus.PENDING;
     }
     
     /**
-     * Calculates the correct planned ETA for a route stop based on its route's collection date
-     * This method replicates the logic from RouteWardServiceImpl.calculatePlannedEta
+     * Updates all existing route stops to have planned_eta based on their route's collection_date
+     * Runs as set-based updates in date chunks, each in its own transaction, via PlannedEtaService
      */
-    private LocalDateTime calculatePlannedEtaFromRouteStop(RouteStop routeStop) {
-        // Base time: 8:00 AM on the route's collection date
-        LocalDateTime baseTime = routeStop.getRoute().getCollectionDate().atTime(8, 0, 0, 0);
-        
-        // We need to get the ward order from the route ward
-        // For now, we'll use a simplified calculation based on stop order
-        // In a real scenario, you might want to join with route_wards table
-        
-        // Add time based on stop order (5 minutes per stop)
-        // This is a simplified approach - ideally we'd get the ward order
-        baseTime = baseTime.plusMinutes((routeStop.getStopOrder() - 1) * 5);
-        
-        return baseTime;
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int updateAllRouteStopsPlannedEta() {
+        PlannedEtaRecalculationResult result = plannedEtaService.recalculateAll();
+        log.info("Updated {} route stops with correct planned_eta values", result.getRouteStopsUpdated());
+        return result.getRouteStopsUpdated();
     }
 }
@@ -0,0 +1,414 @@
+package com.csse.ecocollectbackend.dispatcher.routes.stream;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteScopeView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStreamEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteChangedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteEtaUpdatedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteStopChangedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import com.csse.ecocollectbackend.followup.event.FollowupCreatedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans route stop, ETA and followup changes out to Server-Sent Events subscribers
+ *
+ * Each change is serialized once and offered to the subscribers whose scope matches it
+ * (everything, a collection date, a zone, a zone on a date, or one route). Every subscriber
+ * has its own bounded buffer drained by a small sender pool, so a slow client never blocks
+ * the committing thread or other clients: when its buffer is full the oldest change is
+ * dropped and an "overflow" event tells it how many it missed, so it can reload. A client
+ * that misses a whole buffer's worth, or whose write does not finish within send-timeout-ms,
+ * is dropped; each write runs on a writer thread, so a stuck socket holds that thread only.
+ */
+@Service
+@Slf4j
+public class RouteStreamHub {
+
+    private static final String ALL = "all";
+    private static final int MAX_CACHED_ROUTE_SCOPES = 10_000;
+
+    private final RouteRepository routeRepository;
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long sendTimeoutMs;
+    private final ExecutorService sender;
+    private final ExecutorService writer;
+
+    private final Map<String, Set<Subscriber>> subscribersByScope = new ConcurrentHashMap<>();
+    private final Map<Integer, RouteScope> scopeByRoute = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong eventIds = new AtomicLong();
+
+    public RouteStreamHub(RouteRepository routeRepository,
+                          ObjectMapper objectMapper,
+                          @Value("${ecocollect.route-stream.buffer-size:64}") int bufferSize,
+                          @Value("${ecocollect.route-stream.timeout-ms:1800000}") long timeoutMs,
+                          @Value("${ecocollect.route-stream.send-threads:4}") int sendThreads,
+                          @Value("${ecocollect.route-stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.routeRepository = routeRepository;
+        this.objectMapper = objectMapper;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutMs = Math.max(1, sendTimeoutMs);
+        AtomicInteger threadIds = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, sendThreads), runnable -> {
+            Thread thread = new Thread(runnable, "route-stream-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Grows only with writes in progress, one per subscriber at most, and stuck subscribers are dropped
+        AtomicInteger writerIds = new AtomicInteger();
+        this.writer = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "route-stream-writer-" + writerIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        writer.shutdownNow();
+        for (Set<Subscriber> subscribers : subscribersByScope.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        subscribersByScope.clear();
+    }
+
+    /**
+     * Opens a stream scoped to the most specific filter given: route, then zone and/or date, else everything
+     */
+    public SseEmitter subscribe(LocalDate collectionDate, Long zoneId, Integer routeId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, scopeKey(collectionDate, zoneId, routeId));
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+
+        subscribersByScope.computeIfAbsent(subscriber.scopeKey, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriberCount.incrementAndGet();
+        subscriber.offer(Outgoing.comment("subscribed " + subscriber.scopeKey));
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${ecocollect.route-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        Outgoing ping = Outgoing.comment("ping");
+        for (Set<Subscriber> subscribers : subscribersByScope.values()) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(ping);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteStopChanged(RouteStopChangedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        RouteScope scope = scopeOf(event.getRouteId());
+        if (scope == null) {
+            return;
+        }
+        RouteStreamEvent change = scope.event(RouteStreamEvent.STOP_CHANGED);
+        change.setStopId(event.getStopId());
+        change.setBinId(event.getBinId());
+        change.setStatus(event.getStatus());
+        change.setCollected(event.getCollected());
+        change.setArrivedAt(event.getArrivedAt());
+        broadcast(scope, change);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteEtaUpdated(RouteEtaUpdatedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        RouteScope scope = scopeOf(event.getRouteId());
+        if (scope == null) {
+            return;
+        }
+        RouteStreamEvent change = scope.event(RouteStreamEvent.ETAS_UPDATED);
+        change.setStopId(event.getArrivedStopId());
+        change.setArrivedAt(event.getArrivedAt());
+        change.setLiveEtas(event.getLiveEtas());
+        broadcast(scope, change);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFollowupCreated(FollowupCreatedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        RouteScope scope = scopeOf(event.getRouteId());
+        if (scope == null) {
+            return;
+        }
+        RouteStreamEvent change = scope.event(RouteStreamEvent.FOLLOWUP_CREATED);
+        change.setStopId(event.getSourceRouteStopId());
+        change.setBinId(event.getBinId());
+        change.setFollowupId(event.getFollowupId());
+        broadcast(scope, change);
+    }
+
+    /**
+     * Forgets a route's cached scope when the route is updated or deleted, so a changed zone or
+     * date is read again
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        scopeByRoute.remove(event.getRouteId());
+    }
+
+    private void broadcast(RouteScope scope, RouteStreamEvent change) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} event for route {}: {}", change.getType(), scope.routeId, e.getMessage());
+            return;
+        }
+        Outgoing outgoing = new Outgoing(eventIds.incrementAndGet(), change.getType(), payload);
+        offerTo(ALL, outgoing);
+        offerTo(scopeKey(scope.collectionDate, null, null), outgoing);
+        offerTo(scopeKey(null, scope.zoneId, null), outgoing);
+        offerTo(scopeKey(scope.collectionDate, scope.zoneId, null), outgoing);
+        offerTo(scopeKey(null, null, scope.routeId), outgoing);
+    }
+
+    private void offerTo(String scopeKey, Outgoing outgoing) {
+        Set<Subscriber> subscribers = subscribersByScope.get(scopeKey);
+        if (subscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(outgoing);
+        }
+    }
+
+    private RouteScope scopeOf(Integer routeId) {
+        if (routeId == null) {
+            return null;
+        }
+        RouteScope scope = scopeByRoute.get(routeId);
+        if (scope != null) {
+            return scope;
+        }
+        RouteScopeView view = routeRepository.findScopeByRouteId(routeId).orElse(null);
+        if (view == null) {
+            return null;
+        }
+        if (scopeByRoute.size() >= MAX_CACHED_ROUTE_SCOPES) {
+            scopeByRoute.clear();
+        }
+        scope = new RouteScope(view.getRouteId(), view.getCollectionDate(), view.getZoneId());
+        scopeByRoute.put(routeId, scope);
+        return scope;
+    }
+
+    // Completes the emitter on a writer thread, since it waits for a write that may be stuck
+    private void drop(Subscriber subscriber, Throwable reason) {
+        unsubscribe(subscriber);
+        try {
+            writer.execute(() -> subscriber.emitter.completeWithError(reason));
+        } catch (RejectedExecutionException e) {
+            log.debug("Route stream writer stopped before dropping a subscriber");
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.close()) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        subscribersByScope.computeIfPresent(subscriber.scopeKey, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    private static String scopeKey(LocalDate collectionDate, Long zoneId, Integer routeId) {
+        if (routeId != null) {
+            return "route:" + routeId;
+        }
+        if (zoneId != null && collectionDate != null) {
+            return "zone:" + zoneId + ":date:" + collectionDate;
+        }
+        if (zoneId != null) {
+            return "zone:" + zoneId;
+        }
+        if (collectionDate != null) {
+            return "date:" + collectionDate;
+        }
+        return ALL;
+    }
+
+    private record RouteScope(Integer routeId, LocalDate collectionDate, Long zoneId) {
+
+        private RouteStreamEvent event(String type) {
+            RouteStreamEvent event = new RouteStreamEvent();
+            event.setType(type);
+            event.setRouteId(routeId);
+            event.setZoneId(zoneId);
+            event.setCollectionDate(collectionDate);
+            event.setOccurredAt(LocalDateTime.now());
+            return event;
+        }
+    }
+
+    // An event already serialized for sending, or a comment line when name is null
+    private record Outgoing(long id, String name, String data) {
+
+        private static Outgoing comment(String text) {
+            return new Outgoing(0, null, text);
+        }
+    }
+
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final String scopeKey;
+        private final ArrayDeque<Outgoing> buffer = new ArrayDeque<>();
+        private int dropped;
+        private boolean draining;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, String scopeKey) {
+            this.emitter = emitter;
+            this.scopeKey = scopeKey;
+        }
+
+        private void offer(Outgoing outgoing) {
+            boolean fellBehind;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                // A whole buffer lost since the last write: it has to reload anyway, so stop feeding it
+                fellBehind = dropped >= bufferSize;
+                if (!fellBehind) {
+                    buffer.addLast(outgoing);
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                }
+            }
+            if (fellBehind) {
+                log.debug("Dropping route stream subscriber {} that fell {} events behind", scopeKey, bufferSize);
+                drop(this, new IllegalStateException("Subscriber fell behind"));
+                return;
+            }
+            try {
+                sender.execute(this);
+            } catch (RejectedExecutionException e) {
+                unsubscribe(this);
+            }
+        }
+
+        private synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            buffer.clear();
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Outgoing next;
+                int lost;
+                synchronized (this) {
+                    next = buffer.pollFirst();
+                    lost = dropped;
+                    dropped = 0;
+                    if (next == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    if (lost > 0) {
+                        send(SseEmitter.event().name("overflow").data(Map.of("dropped", lost)));
+                    }
+                    send(build(next));
+                } catch (IOException | IllegalStateException | TimeoutException | RejectedExecutionException e) {
+                    drop(this, e);
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        // Waits at most send-timeout-ms for the write, so a stuck client cannot hold a sender thread
+        private void send(SseEmitter.SseEventBuilder event) throws IOException, TimeoutException {
+            Future<?> write = writer.submit(() -> {
+                emitter.send(event);
+                return null;
+            });
+            try {
+                write.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                write.cancel(true);
+                throw e;
+            } catch (InterruptedException e) {
+                write.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        private SseEmitter.SseEventBuilder build(Outgoing outgoing) {
+            if (outgoing.name() == null) {
+                return SseEmitter.event().comment(outgoing.data());
+            }
+            return SseEmitter.event()
+                    .id(Long.toString(outgoing.id()))
+                    .name(outgoing.name())
+                    .data(outgoing.data());
+        }
+    }
+}
@@ -4,10 +4,12 @@ import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TruckRepository extends JpaRepository<Truck, Integer> {
     Optional<Truck> findByTruckName(String truckName);
     boolean existsByTruckName(String truckName);
+    List<Truck> findByStatusOrderByCapacityKgDesc(Truck.TruckStatus status);
 }
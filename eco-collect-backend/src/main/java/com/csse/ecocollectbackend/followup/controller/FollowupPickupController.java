@@ -1,16 +1,25 @@
 package com.csse.ecocollectbackend.followup.controller;
 
 import com.csse.ecocollectbackend.dispatcher.common.dto.ApiResponse;
+import com.csse.ecocollectbackend.followup.dto.FollowupAssignmentResult;
 import com.csse.ecocollectbackend.followup.dto.FollowupDto;
+import com.csse.ecocollectbackend.followup.dto.FollowupInsertionOption;
+import com.csse.ecocollectbackend.followup.dto.FollowupPageDto;
+import com.csse.ecocollectbackend.followup.dto.PriorityRecomputeResult;
 import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import com.csse.ecocollectbackend.followup.service.FollowupAutoAssignmentService;
+import com.csse.ecocollectbackend.followup.service.FollowupDetector;
+import com.csse.ecocollectbackend.followup.service.FollowupInsertionService;
 import com.csse.ecocollectbackend.followup.service.FollowupService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -29,6 +38,9 @@ import java.util.List;
 public class FollowupPickupController {
     
     private final FollowupService followupService;
+    private final FollowupDetector followupDetector;
+    private final FollowupInsertionService followupInsertionService;
+    private final FollowupAutoAssignmentService followupAutoAssignmentService;
     
     /**
      * Get all followup pickups with optional filters
@@ -56,23 +68,7 @@ public class FollowupPickupController {
             @RequestParam(required = false) Integer wardId,
             @RequestParam(required = false) Integer driverId) {
         try {
-            List<FollowupDto> followups = status != null ? 
-                    followupService.getByStatus(status) : 
-                    followupService.getAll();
-            
-            // Apply additional filters if provided
-            if (wardId != null) {
-                followups = followups.stream()
-                        .filter(f -> wardId.equals(f.getWardId()))
-                        .toList();
-            }
-            
-            if (driverId != null) {
-                followups = followups.stream()
-                        .filter(f -> driverId.equals(f.getOriginalDriverId()) || 
-                                   driverId.equals(f.getNewAssignedDriverId()))
-                        .toList();
-            }
+            List<FollowupDto> followups = followupService.search(status, wardId, driverId);
             
             return ResponseEntity.ok(ApiResponse.success("Followup pickups retrieved successfully", followups));
         } catch (Exception e) {
@@ -82,6 +78,46 @@ public class FollowupPickupController {
         }
     }
     
+    /**
+     * Get one page of followup pickups with optional filters, using keyset pagination
+     * 
+     * @param status Optional status filter (PENDING, ASSIGNED, IN_PROGRESS, DONE, CANCELLED)
+     * @param wardId Optional ward ID filter
+     * @param driverId Optional driver ID filter
+     * @param cursor Optional cursor returned as nextCursor by the previous page
+     * @param size Page size (default 50, max 200)
+     * @return Page of followup pickups ordered by due date and ID
+     * 
+     * @apiExample Get the first page of pending followups:
+     * GET /api/followup-pickups/page?status=PENDING&size=50
+     * 
+     * @apiExample Get the next page:
+     * GET /api/followup-pickups/page?status=PENDING&size=50&cursor={nextCursor}
+     * 
+     * @apiResponse 200 Success response with the page and next cursor
+     * @apiResponse 400 Invalid cursor
+     * @apiResponse 500 Internal server error
+     */
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<FollowupPageDto>> getFollowupPage(
+            @RequestParam(required = false) FollowupPickup.FollowupStatus status,
+            @RequestParam(required = false) Integer wardId,
+            @RequestParam(required = false) Integer driverId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            FollowupPageDto page = followupService.searchPage(status, wardId, driverId, cursor, size);
+            return ResponseEntity.ok(ApiResponse.success("Followup pickups retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error retrieving followup pickup page: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to retrieve followup pickups: " + e.getMessage()));
+        }
+    }
+    
     /**
      * Get a specific followup pickup by ID
      * 
@@ -368,8 +404,9 @@ public class FollowupPickupController {
     public ResponseEntity<ApiResponse<String>> processExistingMissedSkippedStops() {
         try {
             log.info("Processing existing MISSED and SKIPPED route stops...");
-            followupService.detectMissedSkippedRouteStops();
-            return ResponseEntity.ok(ApiResponse.success("Successfully processed existing missed/skipped route stops", null));
+            int createdCount = followupDetector.detect();
+            return ResponseEntity.ok(ApiResponse.success(
+                "Successfully processed existing missed/skipped route stops: " + createdCount + " followups created", null));
         } catch (Exception e) {
             log.error("Error processing existing missed/skipped route stops: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -402,4 +439,109 @@ public class FollowupPickupController {
                     .body(ApiResponse.error("Failed to update followup priority and reason codes: " + e.getMessage()));
         }
     }
+    
+    /**
+     * Recompute followup priorities from reason codes in one bulk update
+     * 
+     * @param status Optional status filter
+     * @param from Optional start of the created date range (inclusive)
+     * @param to Optional end of the created date range (inclusive)
+     * @return Number of followups moved to each priority
+     * 
+     * @apiExample Recompute pending followup priorities for October:
+     * POST /api/followup-pickups/recompute-priorities?status=PENDING&from=2025-10-01&to=2025-10-31
+     * 
+     * @apiResponse 200 Success response with per-priority change counts
+     * @apiResponse 500 Internal server error
+     */
+    @PostMapping("/recompute-priorities")
+    public ResponseEntity<ApiResponse<PriorityRecomputeResult>> recomputePriorities(
+            @RequestParam(required = false) FollowupPickup.FollowupStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            PriorityRecomputeResult result = followupService.recomputePriorities(status, from, to);
+            return ResponseEntity.ok(ApiResponse.success(
+                "Successfully recomputed priorities for " + result.getTotalChanged() + " followup entries", result));
+        } catch (Exception e) {
+            log.error("Error recomputing followup priorities: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to recompute followup priorities: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Cheapest feasible slots for a pending followup in today's in-progress routes
+     * 
+     * @param id The followup pickup ID
+     * @return Up to ecocollect.followup-insertion.max-options slots, lowest detour first
+     * 
+     * @apiExample Offer slots for followup 123:
+     * GET /api/followup-pickups/123/insertion-options
+     * 
+     * @apiResponse 200 Success response with insertion options (empty when no route can take it)
+     * @apiResponse 400 Bad request - followup not found or not pending
+     */
+    @GetMapping("/{id}/insertion-options")
+    public ResponseEntity<ApiResponse<List<FollowupInsertionOption>>> getInsertionOptions(@PathVariable Integer id) {
+        try {
+            List<FollowupInsertionOption> options = followupInsertionService.evaluate(id);
+            return ResponseEntity.ok(ApiResponse.success("Found " + options.size() + " insertion options", options));
+        } catch (Exception e) {
+            log.error("Error evaluating insertion options for followup {}: {}", id, e.getMessage(), e);
+            return ResponseEntity.badRequest().body(ApiResponse.error("Failed to evaluate insertion options: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Insert a pending followup into an in-progress route and assign it to that route's crew
+     * 
+     * @param id The followup pickup ID
+     * @param routeId Optional route to insert into; the cheapest feasible route when omitted
+     * @return The applied slot with the new route stop ID
+     * 
+     * @apiExample Insert followup 123 into its best route:
+     * POST /api/followup-pickups/123/insert
+     * 
+     * @apiResponse 200 Success response with the applied slot
+     * @apiResponse 400 Bad request - no feasible slot, or followup not pending
+     */
+    @PostMapping("/{id}/insert")
+    public ResponseEntity<ApiResponse<FollowupInsertionOption>> insertIntoRoute(
+            @PathVariable Integer id,
+            @RequestParam(required = false) Integer routeId) {
+        try {
+            FollowupInsertionOption applied = followupInsertionService.apply(id, routeId);
+            return ResponseEntity.ok(ApiResponse.success("Followup inserted into route " + applied.getRouteId(), applied));
+        } catch (Exception e) {
+            log.error("Error inserting followup {} into a route: {}", id, e.getMessage(), e);
+            return ResponseEntity.badRequest().body(ApiResponse.error("Failed to insert followup: " + e.getMessage()));
+        }
+    }
+    
+    /**
+     * Assign all pending followups due by a date to collector crews in one batch
+     * 
+     * @param date The collection date; followups due on or before it are included
+     * @return The assignments written and the followups left unassigned
+     * 
+     * @apiExample Auto-assign for a date:
+     * POST /api/followup-pickups/auto-assign?date=2025-10-20
+     * 
+     * @apiResponse 200 Success response with assignments and unassigned followup IDs
+     * @apiResponse 500 Internal server error
+     */
+    @PostMapping("/auto-assign")
+    public ResponseEntity<ApiResponse<FollowupAssignmentResult>> autoAssign(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        try {
+            FollowupAssignmentResult result = followupAutoAssignmentService.assignPending(date);
+            return ResponseEntity.ok(ApiResponse.success(
+                "Assigned " + result.getAssignments().size() + " of " + result.getCandidates() + " pending followups", result));
+        } catch (Exception e) {
+            log.error("Error auto-assigning followups for {}: {}", date, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to auto-assign followups: " + e.getMessage()));
+        }
+    }
 }
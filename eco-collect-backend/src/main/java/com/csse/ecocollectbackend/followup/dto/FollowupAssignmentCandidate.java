@@ -0,0 +1,25 @@
+package com.csse.ecocollectbackend.followup.dto;
+
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A pending followup with its bin's ward and coordinates, read for batch assignment
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowupAssignmentCandidate {
+    
+    private Integer followupId;
+    private String binId;
+    private Integer wardNumber;
+    private Double latitude;
+    private Double longitude;
+    private FollowupPickup.Priority priority;
+    private LocalDateTime dueAt;
+}
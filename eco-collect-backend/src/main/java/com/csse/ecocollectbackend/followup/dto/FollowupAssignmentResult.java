@@ -0,0 +1,39 @@
+package com.csse.ecocollectbackend.followup.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Outcome of a batch auto-assignment: who got which followup, and what was left for the dispatcher
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowupAssignmentResult {
+    
+    private LocalDate collectionDate;
+    private int candidates;
+    private int crews;
+    private List<Assignment> assignments;
+    private List<Integer> unassignedFollowupIds;
+    
+    // Followups that were matched but had already left PENDING when the batch was written
+    private List<Integer> skippedFollowupIds;
+    
+    private double totalDistanceKm;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Assignment {
+        private Integer followupId;
+        private Integer driverId;
+        private String driverName;
+        private Integer truckId;
+        private double distanceKm;
+    }
+}
@@ -0,0 +1,31 @@
+package com.csse.ecocollectbackend.followup.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A feasible slot for a followup in an in-progress route: right after afterStopId, at stopOrder in its ward
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowupInsertionOption {
+    
+    private Integer followupId;
+    private Integer routeId;
+    private Integer collectorId;
+    private Integer truckId;
+    private Integer wardNumber;
+    private Integer afterStopId;
+    private int stopOrder;
+    private double detourMeters;
+    private double delayMinutes;
+    private LocalDateTime estimatedArrival;
+    private double remainingCapacityKg;
+    
+    // Set once the slot has been written to the route
+    private Integer insertedStopId;
+}
@@ -0,0 +1,23 @@
+package com.csse.ecocollectbackend.followup.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page of followups ordered by (dueAt, id)
+ * Pass nextCursor back as the cursor parameter to read the following page
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FollowupPageDto {
+    
+    private List<FollowupDto> items;
+    
+    private String nextCursor;
+    
+    private boolean hasMore;
+}
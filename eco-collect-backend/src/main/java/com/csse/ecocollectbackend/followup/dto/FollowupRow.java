@@ -0,0 +1,33 @@
+package com.csse.ecocollectbackend.followup.dto;
+
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat followup projection read with all associations left-joined in one statement
+ * Converted to FollowupDto without touching any lazy association
+ */
+public interface FollowupRow {
+    Integer getId();
+    Integer getSourceRouteStopId();
+    Integer getSourceAlertId();
+    Integer getWardId();
+    String getWardName();
+    String getBinId();
+    FollowupPickup.WasteType getWasteType();
+    Integer getOriginalDriverId();
+    String getOriginalDriverName();
+    Integer getNewAssignedDriverId();
+    String getNewAssignedDriverName();
+    Integer getAssignedTruckId();
+    String getAssignedTruckName();
+    FollowupPickup.Priority getPriority();
+    LocalDateTime getDueAt();
+    FollowupPickup.FollowupStatus getStatus();
+    LocalDateTime getCompletedAt();
+    FollowupPickup.ReasonCode getReasonCode();
+    String getNotes();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,14 @@
+package com.csse.ecocollectbackend.followup.dto;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+
+import java.time.LocalDateTime;
+
+/**
+ * MISSED or SKIPPED route stop that has no followup yet
+ */
+public interface MissedStopCandidate {
+    Integer getStopId();
+    RouteStop.StopStatus getStatus();
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,21 @@
+package com.csse.ecocollectbackend.followup.dto;
+
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Outcome of a bulk priority recompute: how many followups moved to each priority
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriorityRecomputeResult {
+    
+    private Map<FollowupPickup.Priority, Integer> changedByPriority;
+    
+    private int totalChanged;
+}
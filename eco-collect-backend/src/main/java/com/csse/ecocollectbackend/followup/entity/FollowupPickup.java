@@ -1,5 +1,7 @@
 package com.csse.ecocollectbackend.followup.entity;
 
+import com.csse.ecocollectbackend.common.version.ChangeVersionListener;
+import com.csse.ecocollectbackend.common.version.ChangeVersioned;
 import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
 import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
 import com.csse.ecocollectbackend.dispatcher.wards.entity.Ward;
@@ -19,12 +21,23 @@ import java.time.LocalDateTime;
  * Follows SOLID principles with encapsulated business logic and factory methods
  */
 @Entity
-@Table(name = "followup_pickups")
+@Table(name = "followup_pickups",
+       uniqueConstraints = @UniqueConstraint(name = FollowupPickup.SOURCE_ROUTE_STOP_KEY, columnNames = {"source_route_stop_id"}),
+       indexes = {
+           @Index(name = "idx_followup_due_at_id", columnList = "due_at, id"),
+           @Index(name = "idx_followup_status_due_at_id", columnList = "status, due_at, id"),
+           @Index(name = "idx_followup_driver_change_version", columnList = "new_assigned_driver_id, change_version"),
+           @Index(name = "idx_followup_inserted_route_stop", columnList = "inserted_route_stop_id")
+       })
+@EntityListeners(ChangeVersionListener.class)
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class FollowupPickup {
+public class FollowupPickup implements ChangeVersioned {
+    
+    // One followup per source stop
+    public static final String SOURCE_ROUTE_STOP_KEY = "uk_followup_source_route_stop";
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -39,6 +52,10 @@ public class FollowupPickup {
     @Column(name = "source_alert_id")
     private Integer sourceAlertId;
     
+    // Stop the followup was inserted into an in-progress route as; collecting it closes the followup
+    @Column(name = "inserted_route_stop_id")
+    private Integer insertedRouteStopId;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ward_id", nullable = false)
     @NotNull(message = "Ward is required")
@@ -99,6 +116,10 @@ public class FollowupPickup {
     @Builder.Default
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    // Version of the last transaction that wrote the row, for collector delta downloads
+    @Column(name = "change_version")
+    private Long changeVersion;
+    
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
@@ -118,7 +139,7 @@ public class FollowupPickup {
         return FollowupPickup.builder()
                 .sourceRouteStop(routeStop)
                 .ward(null) // Ward will be set by service layer based on route
-                .binId(routeStop.getBinId())
+                .binId(routeStop.getBin() != null ? routeStop.getBin().getBinId() : null)
                 .wasteType(determineWasteType(routeStop))
                 .originalDriver(routeStop.getDriver())
                 .dueAt(calculateDueDate(reasonCode))
@@ -0,0 +1,20 @@
+package com.csse.ecocollectbackend.followup.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a followup pickup is created from a missed or skipped route stop
+ */
+@Data
+@AllArgsConstructor
+public class FollowupCreatedEvent {
+    
+    private Integer followupId;
+    private Integer routeId;
+    private Integer sourceRouteStopId;
+    private String binId;
+    private LocalDateTime dueAt;
+}
@@ -0,0 +1,105 @@
+package com.csse.ecocollectbackend.followup.optimizer;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of items to capacitated groups, with an opt-out cost per item
+ * 
+ * Each group is expanded into one column per unit of capacity and each item gets a private
+ * "unassigned" column, then the rectangular Hungarian method (O(rows^2 * columns)) finds the
+ * cheapest complete matching. An item ends up unassigned only when that is cheaper than every
+ * group slot still free, so a high opt-out cost is how an item claims priority for capacity.
+ */
+public final class MinCostAssignment {
+    
+    private MinCostAssignment() {
+    }
+    
+    /**
+     * Returns the group chosen for each item, or -1 where leaving it unassigned is cheaper
+     * 
+     * @param cost Finite cost of putting item i in group g, as cost[i][g]
+     * @param capacity Maximum number of items per group
+     * @param unassignedCost Finite cost of leaving item i unassigned
+     */
+    public static int[] solve(double[][] cost, int[] capacity, double[] unassignedCost) {
+        int rows = cost.length;
+        int[] result = new int[rows];
+        Arrays.fill(result, -1);
+        if (rows == 0) {
+            return result;
+        }
+        
+        // Slots beyond the number of items can never be used
+        int slots = 0;
+        for (int c : capacity) {
+            slots += Math.min(Math.max(c, 0), rows);
+        }
+        int[] groupOfColumn = new int[slots + 1];
+        int column = 1;
+        for (int g = 0; g < capacity.length; g++) {
+            for (int k = Math.min(Math.max(capacity[g], 0), rows); k > 0; k--) {
+                groupOfColumn[column++] = g;
+            }
+        }
+        int columns = slots + rows;
+        
+        // Potentials and matching are 1-based; column 0 and row 0 are the algorithm's sentinels
+        double[] u = new double[rows + 1];
+        double[] v = new double[columns + 1];
+        int[] rowOfColumn = new int[columns + 1];
+        int[] way = new int[columns + 1];
+        double[] minReduced = new double[columns + 1];
+        boolean[] used = new boolean[columns + 1];
+        
+        for (int i = 1; i <= rows; i++) {
+            rowOfColumn[0] = i;
+            int j0 = 0;
+            Arrays.fill(minReduced, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = rowOfColumn[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= columns; j++) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double c = j <= slots ? cost[i0 - 1][groupOfColumn[j]] : unassignedCost[i0 - 1];
+                    double reduced = c - u[i0] - v[j];
+                    if (reduced < minReduced[j]) {
+                        minReduced[j] = reduced;
+                        way[j] = j0;
+                    }
+                    if (minReduced[j] < delta) {
+                        delta = minReduced[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= columns; j++) {
+                    if (used[j]) {
+                        u[rowOfColumn[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minReduced[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (rowOfColumn[j0] != 0);
+            
+            do {
+                int j1 = way[j0];
+                rowOfColumn[j0] = rowOfColumn[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+        
+        for (int j = 1; j <= slots; j++) {
+            if (rowOfColumn[j] != 0) {
+                result[rowOfColumn[j] - 1] = groupOfColumn[j];
+            }
+        }
+        return result;
+    }
+}
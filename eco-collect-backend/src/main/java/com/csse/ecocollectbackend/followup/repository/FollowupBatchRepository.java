@@ -0,0 +1,190 @@
+package com.csse.ecocollectbackend.followup.repository;
+
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.followup.dto.FollowupAssignmentCandidate;
+import com.csse.ecocollectbackend.followup.dto.FollowupAssignmentResult;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based writes for followup pickups that would otherwise load the whole table
+ */
+@Repository
+public class FollowupBatchRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ChangeVersionService changeVersionService;
+    
+    public FollowupBatchRepository(JdbcTemplate jdbcTemplate, ChangeVersionService changeVersionService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.changeVersionService = changeVersionService;
+    }
+    
+    /**
+     * Sets priority from reason code in one UPDATE ... CASE over the scoped rows
+     * 
+     * The rows that will change are counted and locked first, so the per-priority counts match
+     * what the update writes. Rows already at their target priority are not touched.
+     * 
+     * @param priorityByReason Target priority for each reason code
+     * @param status Only followups in this status, or all when null
+     * @param fromDate Only followups created on or after this date, or unbounded when null
+     * @param toDate Only followups created on or before this date, or unbounded when null
+     * @return The number of followups moved to each priority
+     */
+    public Map<FollowupPickup.Priority, Integer> recomputePriorities(
+            Map<FollowupPickup.ReasonCode, FollowupPickup.Priority> priorityByReason,
+            FollowupPickup.FollowupStatus status, LocalDate fromDate, LocalDate toDate) {
+        
+        // Enum names are inlined; they come from our own enums, never from request input
+        StringBuilder caseExpr = new StringBuilder("CASE reason_code");
+        priorityByReason.forEach((reason, priority) ->
+                caseExpr.append(" WHEN '").append(reason.name()).append("' THEN '").append(priority.name()).append("'"));
+        caseExpr.append(" ELSE priority END");
+        
+        StringBuilder where = new StringBuilder(" WHERE (priority IS NULL OR priority <> ").append(caseExpr).append(")");
+        List<Object> params = new ArrayList<>();
+        if (status != null) {
+            where.append(" AND status = ?");
+            params.add(status.name());
+        }
+        if (fromDate != null) {
+            where.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(fromDate.atStartOfDay()));
+        }
+        if (toDate != null) {
+            where.append(" AND created_at < ?");
+            params.add(Timestamp.valueOf(toDate.plusDays(1).atStartOfDay()));
+        }
+        
+        Map<FollowupPickup.Priority, Integer> changed = new EnumMap<>(FollowupPickup.Priority.class);
+        jdbcTemplate.query(
+                "SELECT " + caseExpr + " AS target_priority, COUNT(*) FROM followup_pickups" + where +
+                " GROUP BY target_priority FOR UPDATE",
+                rs -> {
+                    if (rs.getString(1) != null) {
+                        changed.put(FollowupPickup.Priority.valueOf(rs.getString(1)), rs.getInt(2));
+                    }
+                },
+                params.toArray());
+        
+        if (!changed.isEmpty()) {
+            List<Object> updateParams = new ArrayList<>();
+            updateParams.add(changeVersionService.current());
+            updateParams.addAll(params);
+            jdbcTemplate.update(
+                    "UPDATE followup_pickups SET priority = " + caseExpr + ", updated_at = NOW(), change_version = ?" + where,
+                    updateParams.toArray());
+        }
+        return changed;
+    }
+    
+    /**
+     * Returns followups in the given status due before a cut-off, with their bin's ward and coordinates,
+     * most urgent first
+     */
+    public List<FollowupAssignmentCandidate> findAssignmentCandidates(FollowupPickup.FollowupStatus status,
+                                                                      LocalDateTime dueBefore) {
+        return jdbcTemplate.query(
+                "SELECT fp.id, fp.bin_id, z.ward_number, b.latitude, b.longitude, fp.priority, fp.due_at " +
+                "FROM followup_pickups fp " +
+                "LEFT JOIN bins b ON b.bin_id = fp.bin_id " +
+                "LEFT JOIN zones z ON z.zone_id = b.zone_id " +
+                "WHERE fp.status = ? AND fp.due_at < ? " +
+                "ORDER BY fp.due_at, fp.id",
+                (rs, rowNum) -> new FollowupAssignmentCandidate(
+                        rs.getInt("id"), rs.getString("bin_id"), rs.getObject("ward_number", Integer.class),
+                        rs.getObject("latitude", Double.class), rs.getObject("longitude", Double.class),
+                        rs.getString("priority") != null ? FollowupPickup.Priority.valueOf(rs.getString("priority")) : null,
+                        rs.getTimestamp("due_at").toLocalDateTime()),
+                status.name(), Timestamp.valueOf(dueBefore));
+    }
+    
+    /**
+     * Moves one followup between statuses only if it is still in the expected one
+     * 
+     * @return Whether this call moved it; false when another writer got there first
+     */
+    public boolean claim(Integer followupId, FollowupPickup.FollowupStatus expected, FollowupPickup.FollowupStatus next) {
+        return jdbcTemplate.update(
+                "UPDATE followup_pickups SET status = ?, updated_at = ?, change_version = ? WHERE id = ? AND status = ?",
+                next.name(), Timestamp.valueOf(LocalDateTime.now()), changeVersionService.current(),
+                followupId, expected.name()) == 1;
+    }
+    
+    /**
+     * Closes the followup that was inserted into a route as the given stop, if it is still open
+     * 
+     * @return The number of followups closed
+     */
+    public int completeForInsertedStop(Integer routeStopId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.update(
+                "UPDATE followup_pickups SET status = 'DONE', completed_at = ?, updated_at = ?, change_version = ? " +
+                "WHERE inserted_route_stop_id = ? AND status IN ('ASSIGNED', 'IN_PROGRESS')",
+                now, now, changeVersionService.current(), routeStopId);
+    }
+    
+    /**
+     * Assigns driver and truck to each followup that is still PENDING, using JDBC batching
+     * 
+     * @return For each assignment, whether its row was updated (false when it had already left PENDING)
+     */
+    public boolean[] assignAll(List<FollowupAssignmentResult.Assignment> assignments) {
+        boolean[] applied = new boolean[assignments.size()];
+        if (assignments.isEmpty()) {
+            return applied;
+        }
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long changeVersion = changeVersionService.current();
+        int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE followup_pickups SET new_assigned_driver_id = ?, assigned_truck_id = ?, " +
+                "status = 'ASSIGNED', updated_at = ?, change_version = ? WHERE id = ? AND status = 'PENDING'",
+                assignments.stream().map(a -> new Object[] {
+                        a.getDriverId(), a.getTruckId(), now, changeVersion, a.getFollowupId() }).toList());
+        List<Integer> unknown = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            // SUCCESS_NO_INFO (-2) is reported by some drivers for rewritten batches; those rows are checked below
+            if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                unknown.add(i);
+            } else {
+                applied[i] = counts[i] > 0;
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Set<Integer> written = findWrittenBy(changeVersion, unknown.stream()
+                    .map(i -> assignments.get(i).getFollowupId()).toList());
+            for (int i : unknown) {
+                applied[i] = written.contains(assignments.get(i).getFollowupId());
+            }
+        }
+        return applied;
+    }
+    
+    // The change version belongs to this transaction alone, so a row carrying it was assigned here
+    private Set<Integer> findWrittenBy(long changeVersion, List<Integer> followupIds) {
+        Object[] params = new Object[followupIds.size() + 1];
+        params[0] = changeVersion;
+        for (int i = 0; i < followupIds.size(); i++) {
+            params[i + 1] = followupIds.get(i);
+        }
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM followup_pickups WHERE change_version = ? AND status = 'ASSIGNED' " +
+                "AND id IN (" + String.join(", ", Collections.nCopies(followupIds.size(), "?")) + ")",
+                Integer.class, params));
+    }
+}
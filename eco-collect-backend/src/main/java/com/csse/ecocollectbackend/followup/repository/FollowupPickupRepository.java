@@ -1,6 +1,10 @@
 package com.csse.ecocollectbackend.followup.repository;
 
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.followup.dto.FollowupRow;
+import com.csse.ecocollectbackend.followup.dto.MissedStopCandidate;
 import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,10 +20,36 @@ import java.util.Optional;
  * Interface Segregation: Only exposes necessary methods
  */
 @Repository
-public interface FollowupPickupRepository extends JpaRepository<FollowupPickup, Integer> {
+public interface FollowupPickupRepository extends JpaRepository<FollowupPickup, Integer>, FollowupRowQueries {
     
     // Essential queries only - following YAGNI principle
     
+    /**
+     * Select list for FollowupRow projections; every association is left-joined so one statement covers the DTO
+     * The filtered listings build the same select with the Criteria API in FollowupRowQueriesImpl
+     */
+    String FOLLOWUP_ROW_SELECT =
+            "SELECT fp.id AS id, rs.stopId AS sourceRouteStopId, fp.sourceAlertId AS sourceAlertId, " +
+            "w.wardId AS wardId, w.wardName AS wardName, fp.binId AS binId, fp.wasteType AS wasteType, " +
+            "od.userId AS originalDriverId, od.name AS originalDriverName, " +
+            "nd.userId AS newAssignedDriverId, nd.name AS newAssignedDriverName, " +
+            "t.truckId AS assignedTruckId, t.truckName AS assignedTruckName, " +
+            "fp.priority AS priority, fp.dueAt AS dueAt, fp.status AS status, fp.completedAt AS completedAt, " +
+            "fp.reasonCode AS reasonCode, fp.notes AS notes, fp.createdAt AS createdAt, fp.updatedAt AS updatedAt " +
+            "FROM FollowupPickup fp " +
+            "LEFT JOIN fp.sourceRouteStop rs " +
+            "LEFT JOIN fp.ward w " +
+            "LEFT JOIN fp.originalDriver od " +
+            "LEFT JOIN fp.newAssignedDriver nd " +
+            "LEFT JOIN fp.assignedTruck t ";
+    
+    /**
+     * Find followup rows with the given status whose due date has passed
+     */
+    @Query(FOLLOWUP_ROW_SELECT + "WHERE fp.status = :status AND fp.dueAt < :currentDateTime ORDER BY fp.dueAt, fp.id")
+    List<FollowupRow> findOverdueRows(@Param("status") FollowupPickup.FollowupStatus status,
+                                      @Param("currentDateTime") LocalDateTime currentDateTime);
+    
     /**
      * Find followup pickups by status
      */
@@ -38,6 +68,22 @@ public interface FollowupPickupRepository extends JpaRepository<FollowupPickup,
     @Query("SELECT fp FROM FollowupPickup fp WHERE fp.sourceRouteStop.stopId = :routeStopId")
     Optional<FollowupPickup> findBySourceRouteStopStopId(@Param("routeStopId") Integer routeStopId);
     
+    boolean existsBySourceRouteStopStopId(Integer routeStopId);
+    
+    /**
+     * Find MISSED/SKIPPED route stops that have no followup yet, ordered by (updated_at, stop_id)
+     * and starting after the given key, so rows that could not get a followup are paged past
+     */
+    @Query("SELECT rs.stopId AS stopId, rs.status AS status, rs.updatedAt AS updatedAt FROM RouteStop rs " +
+           "WHERE rs.status IN :statuses " +
+           "AND (rs.updatedAt > :since OR (rs.updatedAt = :since AND rs.stopId > :afterStopId)) " +
+           "AND NOT EXISTS (SELECT fp.id FROM FollowupPickup fp WHERE fp.sourceRouteStop.stopId = rs.stopId) " +
+           "ORDER BY rs.updatedAt, rs.stopId")
+    List<MissedStopCandidate> findStopsNeedingFollowup(@Param("statuses") List<RouteStop.StopStatus> statuses,
+                                                       @Param("since") LocalDateTime since,
+                                                       @Param("afterStopId") Integer afterStopId,
+                                                       Pageable pageable);
+    
     /**
      * Find followup pickups by driver (original or assigned)
      */
@@ -0,0 +1,22 @@
+package com.csse.ecocollectbackend.followup.repository;
+
+import com.csse.ecocollectbackend.followup.dto.FollowupRow;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Criteria-built followup row queries, mixed into FollowupPickupRepository
+ */
+public interface FollowupRowQueries {
+    
+    /**
+     * Reads followup rows matching the filter, ordered by (dueAt, id), with all associations
+     * left-joined in one statement
+     * 
+     * @param filter Filters from FollowupSpecifications combined with Specification.allOf, or null for all rows
+     * @param limit Maximum number of rows, or 0 for all of them
+     */
+    List<FollowupRow> findRows(Specification<FollowupPickup> filter, int limit);
+}
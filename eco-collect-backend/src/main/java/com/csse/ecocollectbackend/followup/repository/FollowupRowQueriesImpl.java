@@ -0,0 +1,82 @@
+package com.csse.ecocollectbackend.followup.repository;
+
+import com.csse.ecocollectbackend.followup.dto.FollowupRow;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the FollowupRow select with the Criteria API, adding a predicate only for each filter
+ * that is present, so the database sees no catch-all (:x IS NULL OR ...) conditions
+ */
+class FollowupRowQueriesImpl implements FollowupRowQueries {
+    
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<FollowupRow> findRows(Specification<FollowupPickup> filter, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<FollowupPickup> fp = query.from(FollowupPickup.class);
+        Join<?, ?> rs = fp.join("sourceRouteStop", JoinType.LEFT);
+        Join<?, ?> w = fp.join("ward", JoinType.LEFT);
+        Join<?, ?> od = fp.join("originalDriver", JoinType.LEFT);
+        Join<?, ?> nd = fp.join("newAssignedDriver", JoinType.LEFT);
+        Join<?, ?> t = fp.join("assignedTruck", JoinType.LEFT);
+        
+        // Aliases match the FollowupRow getters
+        query.multiselect(
+                fp.get("id").alias("id"), rs.get("stopId").alias("sourceRouteStopId"),
+                fp.get("sourceAlertId").alias("sourceAlertId"),
+                w.get("wardId").alias("wardId"), w.get("wardName").alias("wardName"),
+                fp.get("binId").alias("binId"), fp.get("wasteType").alias("wasteType"),
+                od.get("userId").alias("originalDriverId"), od.get("name").alias("originalDriverName"),
+                nd.get("userId").alias("newAssignedDriverId"), nd.get("name").alias("newAssignedDriverName"),
+                t.get("truckId").alias("assignedTruckId"), t.get("truckName").alias("assignedTruckName"),
+                fp.get("priority").alias("priority"), fp.get("dueAt").alias("dueAt"),
+                fp.get("status").alias("status"), fp.get("completedAt").alias("completedAt"),
+                fp.get("reasonCode").alias("reasonCode"), fp.get("notes").alias("notes"),
+                fp.get("createdAt").alias("createdAt"), fp.get("updatedAt").alias("updatedAt"));
+        
+        Predicate predicate = filter != null ? filter.toPredicate(fp, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Follows idx_followup_due_at_id
+        query.orderBy(cb.asc(fp.get("dueAt")), cb.asc(fp.get("id")));
+        
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (limit > 0) {
+            typed.setMaxResults(limit);
+        }
+        List<FollowupRow> rows = new ArrayList<>();
+        for (Tuple tuple : typed.getResultList()) {
+            Map<String, Object> values = new HashMap<>();
+            for (TupleElement<?> element : tuple.getElements()) {
+                values.put(element.getAlias(), tuple.get(element));
+            }
+            rows.add(projectionFactory.createProjection(FollowupRow.class, values));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,46 @@
+package com.csse.ecocollectbackend.followup.repository;
+
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Specification building blocks for followup listing queries
+ * Each filter returns null when its argument is absent, so callers can combine them freely;
+ * FollowupRowQueries applies them to its one-statement row query
+ */
+public final class FollowupSpecifications {
+    
+    private FollowupSpecifications() {
+    }
+    
+    public static Specification<FollowupPickup> hasStatus(FollowupPickup.FollowupStatus status) {
+        return status == null ? null : (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+    
+    public static Specification<FollowupPickup> inWard(Integer wardId) {
+        return wardId == null ? null : (root, query, cb) -> cb.equal(root.get("ward").get("wardId"), wardId);
+    }
+    
+    /**
+     * Matches followups where the driver is either the original or the newly assigned driver
+     */
+    public static Specification<FollowupPickup> forDriver(Integer driverId) {
+        return driverId == null ? null : (root, query, cb) -> cb.or(
+                cb.equal(root.get("originalDriver").get("userId"), driverId),
+                cb.equal(root.get("newAssignedDriver").get("userId"), driverId));
+    }
+    
+    /**
+     * Keyset predicate: rows strictly after (dueAt, id) in (dueAt, id) order
+     */
+    public static Specification<FollowupPickup> after(LocalDateTime dueAt, Integer id) {
+        if (dueAt == null || id == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.or(
+                cb.greaterThan(root.get("dueAt"), dueAt),
+                cb.and(cb.equal(root.get("dueAt"), dueAt), cb.greaterThan(root.get("id"), id)));
+    }
+}
@@ -0,0 +1,271 @@
+package com.csse.ecocollectbackend.followup.service;
+
+import com.csse.ecocollectbackend.common.model.Role;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CollectorWardView;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.CrewLoadView;
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.GeoDistance;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteWardRepository;
+import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
+import com.csse.ecocollectbackend.dispatcher.trucks.repository.TruckRepository;
+import com.csse.ecocollectbackend.followup.dto.FollowupAssignmentCandidate;
+import com.csse.ecocollectbackend.followup.dto.FollowupAssignmentResult;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import com.csse.ecocollectbackend.followup.optimizer.MinCostAssignment;
+import com.csse.ecocollectbackend.followup.repository.FollowupBatchRepository;
+import com.csse.ecocollectbackend.login.entity.User;
+import com.csse.ecocollectbackend.login.repository.UserRepository;
+import com.csse.ecocollectbackend.resident.dto.WardCentroidView;
+import com.csse.ecocollectbackend.resident.repository.BinRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Assigns a day's pending followups to collector crews in one batch
+ *
+ * A crew is a Collector user with an Active truck: collectors already on a route that day keep
+ * their route's truck, the rest are paired with the largest Active trucks still free. Each crew
+ * takes as many followups as its truck has room for after its planned stops, capped by max-per-crew.
+ *
+ * Putting a followup with a crew costs the distance from the bin to the nearest ward the crew is
+ * working that day (idle crews cost a flat idle-crew-km). Leaving it unassigned costs
+ * unassigned-penalty-km, scaled up for HIGH priority and for every day overdue, so when crews
+ * run out of room the urgent followups keep their slots. The cheapest overall matching is
+ * written in one transaction.
+ */
+@Service
+@Slf4j
+public class FollowupAutoAssignmentService {
+
+    private final FollowupBatchRepository followupBatchRepository;
+    private final UserRepository userRepository;
+    private final TruckRepository truckRepository;
+    private final RouteRepository routeRepository;
+    private final RouteWardRepository routeWardRepository;
+    private final BinRepository binRepository;
+    private final int maxPerCrew;
+    private final double defaultBinLoadKg;
+    private final double idleCrewKm;
+    private final double unassignedPenaltyKm;
+    private final double highPriorityWeight;
+
+    public FollowupAutoAssignmentService(FollowupBatchRepository followupBatchRepository,
+                                         UserRepository userRepository,
+                                         TruckRepository truckRepository,
+                                         RouteRepository routeRepository,
+                                         RouteWardRepository routeWardRepository,
+                                         BinRepository binRepository,
+                                         @Value("${ecocollect.followup-assignment.max-per-crew:15}") int maxPerCrew,
+                                         @Value("${ecocollect.capacity-planner.default-bin-load-kg:15}") double defaultBinLoadKg,
+                                         @Value("${ecocollect.followup-assignment.idle-crew-km:10}") double idleCrewKm,
+                                         @Value("${ecocollect.followup-assignment.unassigned-penalty-km:100}") double unassignedPenaltyKm,
+                                         @Value("${ecocollect.followup-assignment.high-priority-weight:3}") double highPriorityWeight) {
+        this.followupBatchRepository = followupBatchRepository;
+        this.userRepository = userRepository;
+        this.truckRepository = truckRepository;
+        this.routeRepository = routeRepository;
+        this.routeWardRepository = routeWardRepository;
+        this.binRepository = binRepository;
+        this.maxPerCrew = maxPerCrew;
+        this.defaultBinLoadKg = defaultBinLoadKg;
+        this.idleCrewKm = idleCrewKm;
+        this.unassignedPenaltyKm = unassignedPenaltyKm;
+        this.highPriorityWeight = highPriorityWeight;
+    }
+
+    /**
+     * Assigns every PENDING followup due by the end of collectionDate (overdue ones included)
+     *
+     * @param collectionDate The day the crews will collect on
+     * @return The assignments written and the followups left for manual dispatch
+     */
+    @Transactional
+    public FollowupAssignmentResult assignPending(LocalDate collectionDate) {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<FollowupAssignmentCandidate> candidates = followupBatchRepository.findAssignmentCandidates(
+                FollowupPickup.FollowupStatus.PENDING, collectionDate.plusDays(1).atStartOfDay());
+        List<Crew> crews = loadCrews(collectionDate);
+
+        FollowupAssignmentResult result = new FollowupAssignmentResult(collectionDate, candidates.size(), crews.size(),
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 0);
+        if (candidates.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, double[]> centroids = new HashMap<>();
+        for (WardCentroidView centroid : binRepository.findWardCentroids()) {
+            centroids.put(centroid.getWardNumber(), new double[] { centroid.getLatitude(), centroid.getLongitude() });
+        }
+
+        double[][] cost = new double[candidates.size()][crews.size()];
+        double[] unassignedCost = new double[candidates.size()];
+        int[] capacity = new int[crews.size()];
+        for (int g = 0; g < crews.size(); g++) {
+            capacity[g] = crews.get(g).slots;
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            FollowupAssignmentCandidate candidate = candidates.get(i);
+            double[] location = locate(candidate, centroids);
+            for (int g = 0; g < crews.size(); g++) {
+                cost[i][g] = distanceKm(location, candidate.getWardNumber(), crews.get(g), centroids);
+            }
+            unassignedCost[i] = unassignedPenalty(candidate, now);
+        }
+
+        int[] crewOf = MinCostAssignment.solve(cost, capacity, unassignedCost);
+
+        List<FollowupAssignmentResult.Assignment> assignments = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Integer followupId = candidates.get(i).getFollowupId();
+            if (crewOf[i] < 0) {
+                result.getUnassignedFollowupIds().add(followupId);
+                continue;
+            }
+            Crew crew = crews.get(crewOf[i]);
+            assignments.add(new FollowupAssignmentResult.Assignment(followupId, crew.driver.getUserId(),
+                    crew.driver.getName(), crew.truckId, cost[i][crewOf[i]]));
+        }
+
+        boolean[] applied = followupBatchRepository.assignAll(assignments);
+        double totalKm = 0;
+        for (int i = 0; i < assignments.size(); i++) {
+            if (applied[i]) {
+                result.getAssignments().add(assignments.get(i));
+                totalKm += assignments.get(i).getDistanceKm();
+            } else {
+                result.getSkippedFollowupIds().add(assignments.get(i).getFollowupId());
+            }
+        }
+        result.setTotalDistanceKm(totalKm);
+
+        log.info("Auto-assigned {} of {} followups for {} across {} crews ({} unassigned, {} skipped) in {} ms",
+                 result.getAssignments().size(), candidates.size(), collectionDate, crews.size(),
+                 result.getUnassignedFollowupIds().size(), result.getSkippedFollowupIds().size(),
+                 System.currentTimeMillis() - started);
+        return result;
+    }
+
+    private List<Crew> loadCrews(LocalDate collectionDate) {
+        Map<Integer, User> collectors = new LinkedHashMap<>();
+        for (User user : userRepository.findByRole(Role.Collector)) {
+            collectors.put(user.getUserId(), user);
+        }
+
+        Map<Integer, Set<Integer>> wardsByCollector = new HashMap<>();
+        for (CollectorWardView ward : routeWardRepository.findCollectorWardsByCollectionDate(collectionDate)) {
+            wardsByCollector.computeIfAbsent(ward.getCollectorId(), id -> new HashSet<>()).add(ward.getWardNumber());
+        }
+
+        // Collectors already out that day keep their largest Active route truck
+        List<Crew> crews = new ArrayList<>();
+        Set<Integer> crewed = new HashSet<>();
+        List<CrewLoadView> loads = routeRepository.findCrewLoadsByCollectionDate(collectionDate);
+        Map<Integer, Long> stopsByCollector = new HashMap<>();
+        for (CrewLoadView load : loads) {
+            stopsByCollector.merge(load.getCollectorId(), load.getStopCount() != null ? load.getStopCount() : 0L, Long::sum);
+        }
+        for (CrewLoadView load : loads) {
+            User driver = collectors.get(load.getCollectorId());
+            if (driver == null || load.getTruckId() == null || load.getTruckStatus() != Truck.TruckStatus.Active
+                    || !crewed.add(driver.getUserId())) {
+                continue;
+            }
+            crews.add(new Crew(driver, load.getTruckId(),
+                    slots(load.getCapacityKg() != null ? load.getCapacityKg().doubleValue() : null,
+                          stopsByCollector.getOrDefault(driver.getUserId(), 0L)),
+                    wardsByCollector.getOrDefault(driver.getUserId(), Set.of())));
+        }
+
+        // Remaining collectors get the largest Active trucks nobody is using that day
+        Set<Integer> trucksInUse = new HashSet<>(routeRepository.findTruckIdsInUseOnDate(collectionDate));
+        List<Truck> freeTrucks = truckRepository.findByStatusOrderByCapacityKgDesc(Truck.TruckStatus.Active).stream()
+                .filter(truck -> !trucksInUse.contains(truck.getTruckId()))
+                .toList();
+        int nextTruck = 0;
+        for (User driver : collectors.values()) {
+            if (nextTruck >= freeTrucks.size()) {
+                break;
+            }
+            if (crewed.contains(driver.getUserId()) || wardsByCollector.containsKey(driver.getUserId())) {
+                continue;
+            }
+            Truck truck = freeTrucks.get(nextTruck++);
+            crews.add(new Crew(driver, truck.getTruckId(),
+                    slots(truck.getCapacityKg() != null ? truck.getCapacityKg().doubleValue() : null, 0),
+                    Set.of()));
+        }
+        return crews;
+    }
+
+    private int slots(Double capacityKg, long plannedStops) {
+        if (capacityKg == null || defaultBinLoadKg <= 0) {
+            return maxPerCrew;
+        }
+        long room = (long) Math.floor(capacityKg / defaultBinLoadKg) - plannedStops;
+        return (int) Math.max(0, Math.min(maxPerCrew, room));
+    }
+
+    private double[] locate(FollowupAssignmentCandidate candidate, Map<Integer, double[]> centroids) {
+        if (candidate.getLatitude() != null && candidate.getLongitude() != null) {
+            return new double[] { candidate.getLatitude(), candidate.getLongitude() };
+        }
+        return candidate.getWardNumber() != null ? centroids.get(candidate.getWardNumber()) : null;
+    }
+
+    private double distanceKm(double[] location, Integer wardNumber, Crew crew, Map<Integer, double[]> centroids) {
+        if (crew.wards.isEmpty()) {
+            return idleCrewKm;
+        }
+        if (wardNumber != null && crew.wards.contains(wardNumber)) {
+            return 0;
+        }
+        if (location == null) {
+            return idleCrewKm;
+        }
+        double best = Double.MAX_VALUE;
+        for (Integer ward : crew.wards) {
+            double[] centroid = centroids.get(ward);
+            if (centroid != null) {
+                best = Math.min(best, GeoDistance.haversineMeters(location[0], location[1], centroid[0], centroid[1]) / 1000.0);
+            }
+        }
+        return best == Double.MAX_VALUE ? idleCrewKm : best;
+    }
+
+    private double unassignedPenalty(FollowupAssignmentCandidate candidate, LocalDateTime now) {
+        double weight = candidate.getPriority() == FollowupPickup.Priority.HIGH ? highPriorityWeight : 1.0;
+        if (candidate.getDueAt().isBefore(now)) {
+            weight += Duration.between(candidate.getDueAt(), now).toHours() / 24.0;
+        }
+        return unassignedPenaltyKm * weight;
+    }
+
+    private static final class Crew {
+        private final User driver;
+        private final Integer truckId;
+        private final int slots;
+        private final Set<Integer> wards;
+
+        private Crew(User driver, Integer truckId, int slots, Set<Integer> wards) {
+            this.driver = driver;
+            this.truckId = truckId;
+            this.slots = slots;
+            this.wards = wards;
+        }
+    }
+}
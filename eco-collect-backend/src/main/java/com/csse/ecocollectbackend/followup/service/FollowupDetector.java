@@ -0,0 +1,170 @@
+package com.csse.ecocollectbackend.followup.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
+import com.csse.ecocollectbackend.followup.dto.MissedStopCandidate;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import com.csse.ecocollectbackend.followup.repository.FollowupPickupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Incremental detector that turns MISSED and SKIPPED route stops into followup pickups
+ * 
+ * Each run reads only stops whose updated_at is past the high-water mark and that have no
+ * followup yet (NOT EXISTS anti-join), so cost follows new misses rather than all history.
+ * The mark trails the newest stop seen by a small overlap so late commits are not skipped,
+ * and never passes a stop whose followup failed, so the next run retries it; re-reading a stop
+ * is harmless because the anti-join and the existence check keep creation idempotent.
+ */
+@Service
+@Slf4j
+public class FollowupDetector {
+    
+    private static final List<RouteStop.StopStatus> FOLLOWUP_STATUSES =
+            List.of(RouteStop.StopStatus.MISSED, RouteStop.StopStatus.SKIPPED);
+    
+    // Before the first run every unfollowed miss on record is a candidate
+    private static final LocalDateTime NO_MARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private final FollowupPickupRepository followupRepository;
+    private final RouteStopRepository routeStopRepository;
+    private final FollowupService followupService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long overlapSeconds;
+    
+    private volatile LocalDateTime highWaterMark = NO_MARK;
+    
+    public FollowupDetector(FollowupPickupRepository followupRepository,
+                            RouteStopRepository routeStopRepository,
+                            FollowupService followupService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${ecocollect.followup.detection.batch-size:500}") int batchSize,
+                            @Value("${ecocollect.followup.detection.overlap-seconds:300}") long overlapSeconds) {
+        this.followupRepository = followupRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.followupService = followupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = batchSize;
+        this.overlapSeconds = overlapSeconds;
+    }
+    
+    @Scheduled(fixedDelayString = "${ecocollect.followup.detection.interval-ms:60000}",
+               initialDelayString = "${ecocollect.followup.detection.initial-delay-ms:30000}")
+    public void scheduledDetect() {
+        try {
+            detect();
+        } catch (Exception e) {
+            log.error("Scheduled followup detection failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Creates followups for MISSED and SKIPPED stops changed since the last run
+     * 
+     * @return The number of followups created
+     */
+    public synchronized int detect() {
+        LocalDateTime since = highWaterMark;
+        LocalDateTime pageAfter = since;
+        Integer pageAfterStopId = 0;
+        LocalDateTime newest = null;
+        LocalDateTime oldestFailed = null;
+        int created = 0;
+        int failed = 0;
+        
+        List<MissedStopCandidate> batch;
+        do {
+            batch = followupRepository.findStopsNeedingFollowup(FOLLOWUP_STATUSES, pageAfter, pageAfterStopId,
+                    PageRequest.of(0, batchSize));
+            for (MissedStopCandidate candidate : batch) {
+                try {
+                    if (createFollowup(candidate)) {
+                        created++;
+                    }
+                } catch (Exception e) {
+                    log.error("Failed to create followup for route stop ID: {} - {}", candidate.getStopId(), e.getMessage());
+                    failed++;
+                    if (oldestFailed == null || candidate.getUpdatedAt().isBefore(oldestFailed)) {
+                        oldestFailed = candidate.getUpdatedAt();
+                    }
+                }
+                if (newest == null || candidate.getUpdatedAt().isAfter(newest)) {
+                    newest = candidate.getUpdatedAt();
+                }
+            }
+            // Keyset paging moves past failed rows, which stay in the anti-join, instead of re-reading them
+            if (!batch.isEmpty()) {
+                MissedStopCandidate last = batch.get(batch.size() - 1);
+                pageAfter = last.getUpdatedAt();
+                pageAfterStopId = last.getStopId();
+            }
+        } while (batch.size() == batchSize);
+        
+        if (newest != null) {
+            LocalDateTime next = newest.minusSeconds(overlapSeconds);
+            if (oldestFailed != null && !next.isBefore(oldestFailed)) {
+                // Stay just behind the oldest failure so the next run reads it again
+                next = oldestFailed.minusSeconds(1);
+            }
+            if (next.isAfter(highWaterMark)) {
+                highWaterMark = next;
+            }
+        }
+        
+        log.info("Followup detection created {} followups, {} failed (changes since {})", created, failed, since);
+        return created;
+    }
+    
+    /**
+     * @return Whether a followup was created, false when the stop already had one or is gone
+     */
+    private boolean createFollowup(MissedStopCandidate candidate) {
+        FollowupPickup.ReasonCode reasonCode = candidate.getStatus() == RouteStop.StopStatus.MISSED
+                ? FollowupPickup.ReasonCode.MISSED
+                : FollowupPickup.ReasonCode.SKIPPED;
+        try {
+            // Own transaction per stop so one bad row does not roll back the rest; the stop's row
+            // lock orders this against a status update creating the same followup
+            Boolean created = transactionTemplate.execute(status -> routeStopRepository.findByIdForUpdate(candidate.getStopId())
+                    .map(routeStop -> followupService.createFromRouteStopIfAbsent(routeStop, reasonCode).isPresent())
+                    .orElse(false));
+            return Boolean.TRUE.equals(created);
+        } catch (DataIntegrityViolationException e) {
+            // Only the source stop's unique key means another writer got there first; anything
+            // else (a NOT NULL column, say) is a real failure and keeps the stop behind the mark
+            if (!violatesSourceStopKey(e)) {
+                throw e;
+            }
+            log.debug("Followup already exists for route stop ID: {}", candidate.getStopId());
+            return false;
+        }
+    }
+    
+    private static boolean violatesSourceStopKey(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                return violation.getConstraintName().toLowerCase(Locale.ROOT)
+                        .contains(FollowupPickup.SOURCE_ROUTE_STOP_KEY);
+            }
+            if (cause instanceof SQLException sql && sql.getMessage() != null) {
+                return sql.getMessage().toLowerCase(Locale.ROOT).contains(FollowupPickup.SOURCE_ROUTE_STOP_KEY);
+            }
+        }
+        return false;
+    }
+}
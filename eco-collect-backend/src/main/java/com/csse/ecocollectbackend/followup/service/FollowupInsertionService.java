@@ -0,0 +1,392 @@
+package com.csse.ecocollectbackend.followup.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.dto.PendingStopLocationRow;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteLoadView;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteEtaUpdatedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteStopChangedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.GeoDistance;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.ServiceTimeModel;
+import com.csse.ecocollectbackend.followup.dto.FollowupInsertionOption;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import com.csse.ecocollectbackend.followup.event.FollowupCreatedEvent;
+import com.csse.ecocollectbackend.followup.repository.FollowupBatchRepository;
+import com.csse.ecocollectbackend.followup.repository.FollowupPickupRepository;
+import com.csse.ecocollectbackend.resident.dto.BinLocationView;
+import com.csse.ecocollectbackend.resident.repository.BinRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cheapest-insertion engine that slots followup pickups into today's in-progress routes
+ *
+ * The pending stops of every in-progress route are held in a short-lived in-memory snapshot
+ * (two queries to build), so evaluating a followup is a single pass over that snapshot plus two
+ * primary-key lookups. A slot is right after a remaining stop in the followup bin's ward; it is
+ * feasible when the truck still has room for the predicted load, the followup is reached before
+ * it is due, and the route's last stop still finishes before the end of the shift.
+ *
+ * Options are offered through evaluate; apply writes the best (or a chosen route's best) slot.
+ * With ecocollect.followup-insertion.auto-apply set, each new followup is applied as soon as its
+ * creating transaction commits.
+ */
+@Service
+@Slf4j
+public class FollowupInsertionService {
+
+    private final FollowupPickupRepository followupRepository;
+    private final FollowupBatchRepository followupBatchRepository;
+    private final BinRepository binRepository;
+    private final RouteRepository routeRepository;
+    private final RouteStopRepository routeStopRepository;
+    private final RouteStopBatchRepository routeStopBatchRepository;
+    private final ServiceTimeModel serviceTimeModel;
+    private final TransactionTemplate transactionTemplate;
+    private final double metersPerMinute;
+    private final double defaultStopMinutes;
+    private final double defaultBinLoadKg;
+    private final LocalTime shiftEnd;
+    private final long snapshotTtlNanos;
+    private final int maxOptions;
+    private final boolean autoApply;
+
+    private volatile Snapshot snapshot;
+
+    public FollowupInsertionService(FollowupPickupRepository followupRepository,
+                                    FollowupBatchRepository followupBatchRepository,
+                                    BinRepository binRepository,
+                                    RouteRepository routeRepository,
+                                    RouteStopRepository routeStopRepository,
+                                    RouteStopBatchRepository routeStopBatchRepository,
+                                    ServiceTimeModel serviceTimeModel,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${ecocollect.followup-insertion.speed-kmh:25}") double speedKmh,
+                                    @Value("${ecocollect.followup-insertion.stop-minutes:5}") double defaultStopMinutes,
+                                    @Value("${ecocollect.capacity-planner.default-bin-load-kg:15}") double defaultBinLoadKg,
+                                    @Value("${ecocollect.followup-insertion.shift-end:17:00}") String shiftEnd,
+                                    @Value("${ecocollect.followup-insertion.snapshot-ttl-seconds:30}") long snapshotTtlSeconds,
+                                    @Value("${ecocollect.followup-insertion.max-options:5}") int maxOptions,
+                                    @Value("${ecocollect.followup-insertion.auto-apply:false}") boolean autoApply) {
+        this.followupRepository = followupRepository;
+        this.followupBatchRepository = followupBatchRepository;
+        this.binRepository = binRepository;
+        this.routeRepository = routeRepository;
+        this.routeStopRepository = routeStopRepository;
+        this.routeStopBatchRepository = routeStopBatchRepository;
+        this.serviceTimeModel = serviceTimeModel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        // The auto-apply path calls apply on this instance, bypassing its annotation
+        this.transactionTemplate.setIsolationLevel(TransactionTemplate.ISOLATION_READ_COMMITTED);
+        this.metersPerMinute = speedKmh * 1000.0 / 60.0;
+        this.defaultStopMinutes = defaultStopMinutes;
+        this.defaultBinLoadKg = defaultBinLoadKg;
+        this.shiftEnd = LocalTime.parse(shiftEnd);
+        this.snapshotTtlNanos = snapshotTtlSeconds * 1_000_000_000L;
+        this.maxOptions = Math.max(1, maxOptions);
+        this.autoApply = autoApply;
+    }
+
+    /**
+     * Returns the cheapest feasible slots for a pending followup across today's in-progress routes,
+     * lowest detour first
+     */
+    @Transactional(readOnly = true)
+    public List<FollowupInsertionOption> evaluate(Integer followupId) {
+        FollowupPickup followup = followupRepository.findById(followupId)
+                .orElseThrow(() -> new RuntimeException("Followup not found with ID: " + followupId));
+        if (followup.getStatus() != FollowupPickup.FollowupStatus.PENDING) {
+            throw new IllegalStateException("Only pending followups can be inserted into a route");
+        }
+        return evaluate(followup, currentSnapshot(false), null);
+    }
+
+    /**
+     * Inserts a pending followup into the best feasible slot, or the best slot on routeId when given,
+     * and assigns it to that route's collector and truck
+     *
+     * The followup is claimed first by moving it from PENDING to IN_PROGRESS in one conditional
+     * UPDATE, so two callers cannot insert it twice; a failure later rolls the claim back. The
+     * route row is then locked and re-evaluated from fresh data before anything is written, so two
+     * insertions into the same route cannot open the same stop order. READ_COMMITTED, since under
+     * REPEATABLE READ the reads before the lock would fix a view that misses an insertion committed
+     * while this one waited for the route.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public FollowupInsertionOption apply(Integer followupId, Integer routeId) {
+        if (!followupBatchRepository.claim(followupId, FollowupPickup.FollowupStatus.PENDING,
+                FollowupPickup.FollowupStatus.IN_PROGRESS)) {
+            throw new RuntimeException("Followup " + followupId + " is not pending or was not found");
+        }
+        FollowupPickup followup = followupRepository.findById(followupId)
+                .orElseThrow(() -> new RuntimeException("Followup not found with ID: " + followupId));
+
+        Integer targetRouteId = routeId;
+        if (targetRouteId == null) {
+            List<FollowupInsertionOption> options = evaluate(followup, currentSnapshot(true), null);
+            if (options.isEmpty()) {
+                throw new RuntimeException("No feasible in-progress route for followup " + followupId);
+            }
+            targetRouteId = options.get(0).getRouteId();
+        }
+
+        Route route = routeRepository.findByIdForUpdate(targetRouteId)
+                .orElseThrow(() -> new RuntimeException("Route not found"));
+        Snapshot locked = currentSnapshot(true);
+        List<FollowupInsertionOption> options = evaluate(followup, locked, targetRouteId);
+        if (options.isEmpty()) {
+            throw new RuntimeException("No feasible slot on route " + targetRouteId + " for followup " + followupId);
+        }
+        FollowupInsertionOption option = options.get(0);
+
+        // Open the slot, push everything after it back by the detour, then write the stop itself
+        routeStopBatchRepository.shiftStopOrders(route.getRouteId(), option.getWardNumber(), option.getStopOrder());
+        int wardOrder = locked.wardOrderOf(option.getAfterStopId());
+        routeStopBatchRepository.delayRemainingStops(route.getRouteId(), wardOrder, option.getStopOrder(),
+                Math.round(option.getDelayMinutes() * 60));
+
+        RouteStop source = followup.getSourceRouteStop();
+        RouteStop inserted = new RouteStop();
+        inserted.setRoute(route);
+        inserted.setBin(source.getBin());
+        inserted.setDriver(route.getCollector());
+        inserted.setResident(source.getResident());
+        inserted.setStopOrder(option.getStopOrder());
+        inserted.setCollected(false);
+        inserted.setStatus(RouteStop.StopStatus.PENDING);
+        inserted.setReasonCode(RouteStop.ReasonCode.NONE);
+        inserted.setSource(RouteStop.Source.MANUAL);
+        inserted.setWeightKg(BigDecimal.ZERO);
+        inserted.setPlannedEta(option.getEstimatedArrival());
+        inserted.setLiveEta(option.getEstimatedArrival());
+        inserted.setNotes("Followup #" + followupId);
+        inserted = routeStopRepository.save(inserted);
+
+        // Already IN_PROGRESS from the claim
+        followup.setNewAssignedDriver(route.getCollector());
+        followup.setAssignedTruck(route.getTruck());
+        followup.setInsertedRouteStopId(inserted.getStopId());
+        followupRepository.save(followup);
+
+        snapshot = null;
+        option.setInsertedStopId(inserted.getStopId());
+        log.info("Inserted followup {} into route {} as stop {} (order {} in ward {}, detour {} m, delay {} min)",
+                 followupId, route.getRouteId(), inserted.getStopId(), option.getStopOrder(),
+                 option.getWardNumber(), Math.round(option.getDetourMeters()), Math.round(option.getDelayMinutes()));
+        return option;
+    }
+
+    /**
+     * Auto-applies new followups once the transaction that created them has committed
+     */
+    @TransactionalEventListener
+    public void onFollowupCreated(FollowupCreatedEvent event) {
+        if (!autoApply || event.getDueAt() == null || event.getDueAt().toLocalDate().isBefore(LocalDate.now())) {
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> apply(event.getFollowupId(), null));
+        } catch (RuntimeException e) {
+            log.info("Followup {} left for dispatch: {}", event.getFollowupId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Closes a followup when the stop it was inserted as is collected, in the transaction that
+     * collects it; stop writes from every path publish this event
+     */
+    @EventListener
+    public void onRouteStopChanged(RouteStopChangedEvent event) {
+        if (event.getStatus() != RouteStop.StopStatus.DONE && !Boolean.TRUE.equals(event.getCollected())) {
+            return;
+        }
+        if (followupBatchRepository.completeForInsertedStop(event.getStopId()) > 0) {
+            log.info("Closed followup inserted as route stop {} now that it is collected", event.getStopId());
+        }
+    }
+
+    /**
+     * Drops the snapshot when live ETAs move so the next evaluation sees them
+     */
+    @EventListener
+    public void onRouteEtaUpdated(RouteEtaUpdatedEvent event) {
+        snapshot = null;
+    }
+
+    private List<FollowupInsertionOption> evaluate(FollowupPickup followup, Snapshot current, Integer onlyRouteId) {
+        BinLocationView bin = binRepository.findLocationByBinId(followup.getBinId())
+                .orElseThrow(() -> new RuntimeException("Bin not found"));
+        if (bin.getLatitude() == null || bin.getLongitude() == null || bin.getWardNumber() == null) {
+            return List.of();
+        }
+
+        long started = System.nanoTime();
+        double lat = bin.getLatitude();
+        double lng = bin.getLongitude();
+        int ward = bin.getWardNumber();
+        Double learnedMinutes = serviceTimeModel.getBinMinutes(bin.getBinId(), ward);
+        double stopMinutes = learnedMinutes != null ? learnedMinutes : defaultStopMinutes;
+        LocalDateTime latestEnd = current.date.atTime(shiftEnd);
+
+        List<FollowupInsertionOption> options = new ArrayList<>();
+        for (RouteState route : current.routes) {
+            if (onlyRouteId != null && !onlyRouteId.equals(route.routeId)) {
+                continue;
+            }
+            double remainingKg = route.remainingKg - defaultBinLoadKg;
+            if (remainingKg < 0) {
+                continue;
+            }
+
+            FollowupInsertionOption best = null;
+            for (int i = 0; i < route.size(); i++) {
+                PendingStopLocationRow stop = route.stops.get(i);
+                if (stop.getWardNumber() == null || stop.getWardNumber() != ward
+                        || stop.getLatitude() == null || stop.getEta() == null) {
+                    continue;
+                }
+
+                double toFollowup = GeoDistance.haversineMeters(stop.getLatitude(), stop.getLongitude(), lat, lng);
+                double detour = toFollowup;
+                PendingStopLocationRow next = i + 1 < route.size() ? route.stops.get(i + 1) : null;
+                if (next != null && next.getLatitude() != null) {
+                    detour += GeoDistance.haversineMeters(lat, lng, next.getLatitude(), next.getLongitude())
+                            - GeoDistance.haversineMeters(stop.getLatitude(), stop.getLongitude(),
+                                                          next.getLatitude(), next.getLongitude());
+                }
+                if (best != null && detour >= best.getDetourMeters()) {
+                    continue;
+                }
+
+                double delayMinutes = detour / metersPerMinute + stopMinutes;
+                LocalDateTime arrival = stop.getEta()
+                        .plusSeconds(Math.round((stopMinutes + toFollowup / metersPerMinute) * 60));
+                if (followup.getDueAt() != null && arrival.isAfter(followup.getDueAt())) {
+                    continue;
+                }
+                if (route.lastEta != null
+                        && route.lastEta.plusSeconds(Math.round(delayMinutes * 60)).isAfter(latestEnd)) {
+                    continue;
+                }
+
+                best = new FollowupInsertionOption(followup.getId(), route.routeId, route.collectorId, route.truckId,
+                        ward, stop.getStopId(), stop.getStopOrder() + 1, detour, delayMinutes, arrival,
+                        remainingKg, null);
+            }
+            if (best != null) {
+                options.add(best);
+            }
+        }
+
+        options.sort(Comparator.comparingDouble(FollowupInsertionOption::getDetourMeters)
+                .thenComparingDouble(FollowupInsertionOption::getDelayMinutes));
+        if (options.size() > maxOptions) {
+            options = new ArrayList<>(options.subList(0, maxOptions));
+        }
+        log.debug("Evaluated followup {} against {} routes in {} us", followup.getId(),
+                  current.routes.size(), (System.nanoTime() - started) / 1_000);
+        return options;
+    }
+
+    private Snapshot currentSnapshot(boolean fresh) {
+        LocalDate today = LocalDate.now();
+        Snapshot current = snapshot;
+        if (fresh || current == null || !current.date.equals(today)
+                || System.nanoTime() - current.loadedAtNanos > snapshotTtlNanos) {
+            current = loadSnapshot(today);
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private Snapshot loadSnapshot(LocalDate date) {
+        Map<Integer, RouteState> routesById = new HashMap<>();
+        List<RouteState> routes = new ArrayList<>();
+        for (RouteLoadView load : routeRepository.findRouteLoadsByCollectionDateAndStatus(
+                date, Route.RouteStatus.in_progress, RouteStop.StopStatus.PENDING)) {
+            if (load.getCapacityKg() == null) {
+                continue;
+            }
+            double collectedKg = load.getCollectedKg() != null ? load.getCollectedKg().doubleValue() : 0;
+            long pendingStops = load.getPendingStops() != null ? load.getPendingStops() : 0;
+            RouteState route = new RouteState(load.getRouteId(), load.getCollectorId(), load.getTruckId(),
+                    load.getCapacityKg().doubleValue() - collectedKg - pendingStops * defaultBinLoadKg);
+            routesById.put(route.routeId, route);
+            routes.add(route);
+        }
+
+        Map<Integer, Integer> wardOrderByStopId = new HashMap<>();
+        for (PendingStopLocationRow row : routeStopBatchRepository.findPendingStopLocations(
+                date, Route.RouteStatus.in_progress.name())) {
+            wardOrderByStopId.put(row.getStopId(), row.getWardOrder());
+            RouteState route = routesById.get(row.getRouteId());
+            if (route != null) {
+                route.stops.add(row);
+                if (row.getEta() != null && (route.lastEta == null || row.getEta().isAfter(route.lastEta))) {
+                    route.lastEta = row.getEta();
+                }
+            }
+        }
+        return new Snapshot(date, System.nanoTime(), routes, wardOrderByStopId);
+    }
+
+    private static final class Snapshot {
+        private final LocalDate date;
+        private final long loadedAtNanos;
+        private final List<RouteState> routes;
+        private final Map<Integer, Integer> wardOrderByStopId;
+
+        private Snapshot(LocalDate date, long loadedAtNanos, List<RouteState> routes,
+                         Map<Integer, Integer> wardOrderByStopId) {
+            this.date = date;
+            this.loadedAtNanos = loadedAtNanos;
+            this.routes = routes;
+            this.wardOrderByStopId = wardOrderByStopId;
+        }
+
+        private int wardOrderOf(Integer stopId) {
+            return wardOrderByStopId.getOrDefault(stopId, 1);
+        }
+    }
+
+    private static final class RouteState {
+        private final Integer routeId;
+        private final Integer collectorId;
+        private final Integer truckId;
+        private final double remainingKg;
+        private final List<PendingStopLocationRow> stops = new ArrayList<>();
+        private LocalDateTime lastEta;
+
+        private RouteState(Integer routeId, Integer collectorId, Integer truckId, double remainingKg) {
+            this.routeId = routeId;
+            this.collectorId = collectorId;
+            this.truckId = truckId;
+            this.remainingKg = remainingKg;
+        }
+
+        private int size() {
+            return stops.size();
+        }
+    }
+}
@@ -2,18 +2,33 @@ package com.csse.ecocollectbackend.followup.service;
 
 import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
 import com.csse.ecocollectbackend.followup.dto.FollowupDto;
+import com.csse.ecocollectbackend.followup.dto.FollowupPageDto;
+import com.csse.ecocollectbackend.followup.dto.FollowupRow;
+import com.csse.ecocollectbackend.followup.dto.PriorityRecomputeResult;
 import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import com.csse.ecocollectbackend.followup.event.FollowupCreatedEvent;
+import com.csse.ecocollectbackend.followup.repository.FollowupBatchRepository;
 import com.csse.ecocollectbackend.followup.repository.FollowupPickupRepository;
+import com.csse.ecocollectbackend.followup.repository.FollowupSpecifications;
 import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
 import com.csse.ecocollectbackend.dispatcher.trucks.repository.TruckRepository;
 import com.csse.ecocollectbackend.login.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -29,9 +44,13 @@ import java.util.stream.Collectors;
 public class FollowupService {
     
     private final FollowupPickupRepository followupRepository;
+    private final FollowupBatchRepository followupBatchRepository;
     private final RouteStopRepository routeStopRepository;
     private final TruckRepository truckRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private static final int MAX_PAGE_SIZE = 200;
     
     /**
      * Core business operations
@@ -44,19 +63,33 @@ public class FollowupService {
         // Set ward from route - this would need proper ward lookup logic
         // For now, we'll leave it null and handle in the DTO conversion
         FollowupPickup saved = followupRepository.save(followup);
+        eventPublisher.publishEvent(new FollowupCreatedEvent(
+                saved.getId(), routeStop.getRoute() != null ? routeStop.getRoute().getRouteId() : null,
+                routeStop.getStopId(), saved.getBinId(), saved.getDueAt()));
         return convertToDto(saved);
     }
     
+    /**
+     * Creates the route stop's followup unless it already has one
+     * The caller holds the stop's row lock, so the check and the insert cannot interleave with
+     * another writer's, and the unique key never fails inside the caller's transaction
+     * 
+     * @return The new followup, or empty when the stop already had one
+     */
+    public Optional<FollowupDto> createFromRouteStopIfAbsent(RouteStop routeStop, FollowupPickup.ReasonCode reasonCode) {
+        if (followupRepository.existsBySourceRouteStopStopId(routeStop.getStopId())) {
+            log.debug("Route stop {} already has a followup", routeStop.getStopId());
+            return Optional.empty();
+        }
+        return Optional.of(createFromRouteStop(routeStop, reasonCode));
+    }
+    
     public List<FollowupDto> getAll() {
-        return followupRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return search(null, null, null);
     }
     
     public List<FollowupDto> getByStatus(FollowupPickup.FollowupStatus status) {
-        return followupRepository.findByStatus(status).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return search(status, null, null);
     }
     
     public List<FollowupDto> getPending() {
@@ -64,13 +97,60 @@ public class FollowupService {
     }
     
     public List<FollowupDto> getOverdue() {
-        return followupRepository.findPendingOverdue(
+        return followupRepository.findOverdueRows(
                 FollowupPickup.FollowupStatus.PENDING, LocalDateTime.now())
                 .stream()
-                .map(this::convertToDto)
+                .map(this::convertRowToDto)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Lists followups matching the optional filters, evaluated in the database as one flat query
+     */
+    public List<FollowupDto> search(FollowupPickup.FollowupStatus status, Integer wardId, Integer driverId) {
+        return followupRepository.findRows(filters(status, wardId, driverId), 0).stream()
+                .map(this::convertRowToDto)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Reads one keyset page of followups ordered by (dueAt, id)
+     * 
+     * @param cursor Opaque cursor from a previous page's nextCursor, or null for the first page
+     * @param size Maximum number of items to return
+     */
+    public FollowupPageDto searchPage(FollowupPickup.FollowupStatus status, Integer wardId, Integer driverId,
+                                      String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Cursor after = cursor != null && !cursor.isBlank() ? decodeCursor(cursor) : null;
+        
+        // One projection statement per page; one extra row tells whether another page follows
+        Specification<FollowupPickup> filter = filters(status, wardId, driverId);
+        if (after != null) {
+            filter = filter.and(FollowupSpecifications.after(after.dueAt(), after.id()));
+        }
+        List<FollowupRow> rows = followupRepository.findRows(filter, pageSize + 1);
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<FollowupRow> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            FollowupRow last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getDueAt(), last.getId());
+        }
+        List<FollowupDto> items = page.stream()
+                .map(this::convertRowToDto)
+                .collect(Collectors.toList());
+        
+        return new FollowupPageDto(items, nextCursor, hasMore);
+    }
+    
+    private static Specification<FollowupPickup> filters(FollowupPickup.FollowupStatus status,
+                                                         Integer wardId, Integer driverId) {
+        return Specification.allOf(FollowupSpecifications.hasStatus(status),
+                FollowupSpecifications.inWard(wardId), FollowupSpecifications.forDriver(driverId));
+    }
+    
     public FollowupDto getById(Integer id) {
         return followupRepository.findById(id)
                 .map(this::convertToDto)
@@ -136,55 +216,69 @@ public class FollowupService {
     }
     
     /**
-     * Detection operations
+     * Bulk maintenance operations
      */
     
-    public void detectMissedSkippedRouteStops() {
-        log.info("Detecting missed and skipped route stops for followup creation");
-        
-        List<RouteStop> missedStops = routeStopRepository.findByStatus(RouteStop.StopStatus.MISSED);
-        List<RouteStop> skippedStops = routeStopRepository.findByStatus(RouteStop.StopStatus.SKIPPED);
-        
-        missedStops.stream()
-                .filter(stop -> !followupExistsForRouteStop(stop.getStopId()))
-                .forEach(stop -> createFromRouteStop(stop, FollowupPickup.ReasonCode.MISSED));
-        
-        skippedStops.stream()
-                .filter(stop -> !followupExistsForRouteStop(stop.getStopId()))
-                .forEach(stop -> createFromRouteStop(stop, FollowupPickup.ReasonCode.SKIPPED));
+    public int updatePriorityAndReasonCodes() {
+        return recomputePriorities(null, null, null).getTotalChanged();
     }
     
-    public int updatePriorityAndReasonCodes() {
-        log.info("Updating followup priority and reason codes based on business rules");
-        
-        List<FollowupPickup> followups = followupRepository.findAll();
-        int updatedCount = 0;
+    /**
+     * Re-applies the reason-code priority rules in one set-based update
+     * 
+     * @param status Limit to followups in this status, or null for all
+     * @param fromDate Limit to followups created on or after this date, or null
+     * @param toDate Limit to followups created on or before this date, or null
+     */
+    public PriorityRecomputeResult recomputePriorities(FollowupPickup.FollowupStatus status,
+                                                       LocalDate fromDate, LocalDate toDate) {
+        log.info("Recomputing followup priorities (status: {}, from: {}, to: {})", status, fromDate, toDate);
         
-        for (FollowupPickup followup : followups) {
-            FollowupPickup.Priority newPriority = determinePriority(followup.getReasonCode());
-            if (!followup.getPriority().equals(newPriority)) {
-                followup.setPriority(newPriority);
-                followupRepository.save(followup);
-                updatedCount++;
-            }
+        Map<FollowupPickup.ReasonCode, FollowupPickup.Priority> priorityByReason =
+                new EnumMap<>(FollowupPickup.ReasonCode.class);
+        for (FollowupPickup.ReasonCode reasonCode : FollowupPickup.ReasonCode.values()) {
+            priorityByReason.put(reasonCode, determinePriority(reasonCode));
         }
         
-        return updatedCount;
+        Map<FollowupPickup.Priority, Integer> changed =
+                followupBatchRepository.recomputePriorities(priorityByReason, status, fromDate, toDate);
+        int total = changed.values().stream().mapToInt(Integer::intValue).sum();
+        
+        log.info("Recomputed followup priorities: {} changed {}", total, changed);
+        return new PriorityRecomputeResult(changed, total);
     }
     
     /**
      * Utility methods
      */
     
+    private String encodeCursor(LocalDateTime dueAt, Integer id) {
+        String raw = dueAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // Every malformed cursor, whatever part fails to parse, is reported as the same bad request
+    private Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new Cursor(LocalDateTime.parse(parts[0]), Integer.valueOf(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+    
+    private record Cursor(LocalDateTime dueAt, Integer id) {
+    }
+    
     private FollowupPickup findById(Integer id) {
         return followupRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Followup not found with ID: " + id));
     }
     
-    private boolean followupExistsForRouteStop(Integer routeStopId) {
-        return followupRepository.findBySourceRouteStopStopId(routeStopId).isPresent();
-    }
-    
     private FollowupPickup.Priority determinePriority(FollowupPickup.ReasonCode reasonCode) {
         return switch (reasonCode) {
             case MISSED, MANUAL, OVERDUE -> FollowupPickup.Priority.HIGH;
@@ -200,6 +294,37 @@ public class FollowupService {
         routeStopRepository.save(routeStop);
     }
     
+    private FollowupDto convertRowToDto(FollowupRow row) {
+        return FollowupDto.builder()
+                .id(row.getId())
+                .sourceRouteStopId(row.getSourceRouteStopId())
+                .sourceAlertId(row.getSourceAlertId())
+                .wardId(row.getWardId())
+                .wardName(row.getWardName())
+                .binId(row.getBinId())
+                .wasteType(row.getWasteType())
+                .originalDriverId(row.getOriginalDriverId())
+                .originalDriverName(row.getOriginalDriverName())
+                .newAssignedDriverId(row.getNewAssignedDriverId())
+                .newAssignedDriverName(row.getNewAssignedDriverName())
+                .assignedTruckId(row.getAssignedTruckId())
+                .assignedTruckName(row.getAssignedTruckName())
+                .priority(row.getPriority())
+                .dueAt(row.getDueAt())
+                .status(row.getStatus())
+                .completedAt(row.getCompletedAt())
+                .reasonCode(row.getReasonCode())
+                .notes(row.getNotes())
+                .createdAt(row.getCreatedAt())
+                .updatedAt(row.getUpdatedAt())
+                .isOverdue(row.getDueAt() != null && row.getDueAt().isBefore(LocalDateTime.now())
+                        && row.getStatus() != FollowupPickup.FollowupStatus.DONE
+                        && row.getStatus() != FollowupPickup.FollowupStatus.CANCELLED)
+                .daysUntilDue(row.getDueAt() != null ?
+                        java.time.Duration.between(LocalDateTime.now(), row.getDueAt()).toDays() : 0)
+                .build();
+    }
+    
     private FollowupDto convertToDto(FollowupPickup followup) {
         return FollowupDto.builder()
                 .id(followup.getId())
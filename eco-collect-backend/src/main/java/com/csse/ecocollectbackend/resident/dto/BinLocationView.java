@@ -0,0 +1,11 @@
+package com.csse.ecocollectbackend.resident.dto;
+
+/**
+ * Bin ID with its ward and coordinates, for planning and distance lookups
+ */
+public interface BinLocationView {
+    String getBinId();
+    Integer getWardNumber();
+    Double getLatitude();
+    Double getLongitude();
+}
@@ -0,0 +1,10 @@
+package com.csse.ecocollectbackend.resident.dto;
+
+/**
+ * Mean position of a ward's bins, used as the ward's location for proximity
+ */
+public interface WardCentroidView {
+    Integer getWardNumber();
+    Double getLatitude();
+    Double getLongitude();
+}
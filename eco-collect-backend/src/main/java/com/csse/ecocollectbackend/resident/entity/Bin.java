@@ -11,7 +11,8 @@ import lombok.NoArgsConstructor;
 
 
 @Entity
-@Table(name = "bins")
+@Table(name = "bins",
+        indexes = @Index(name = "idx_bins_zone_status", columnList = "zone_id, status"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -40,6 +41,12 @@ public class Bin {
     @Column
     private String location;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "bin_type")
     private BinType binType;
@@ -1,11 +1,16 @@
 package com.csse.ecocollectbackend.resident.repository;
 
+import com.csse.ecocollectbackend.resident.dto.BinLocationView;
+import com.csse.ecocollectbackend.resident.dto.WardCentroidView;
 import com.csse.ecocollectbackend.resident.entity.Bin;
 import com.csse.ecocollectbackend.resident.entity.Zone;
 import com.csse.ecocollectbackend.login.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BinRepository extends JpaRepository<Bin, Integer> {
@@ -18,5 +23,27 @@ public interface BinRepository extends JpaRepository<Bin, Integer> {
 
     // Find bin by QR code
     Bin findByQrCode(String qrCode);
-}
 
+    // Find bin IDs in a ward with the given status (served by idx_bins_zone_status)
+    @Query("SELECT b.binId FROM Bin b WHERE b.zone.wardNumber = :wardNumber AND b.status = :status")
+    List<String> findBinIdsByWardNumberAndStatus(@Param("wardNumber") Integer wardNumber,
+                                                 @Param("status") Bin.BinStatus status);
+
+    // Active bins with ward and coordinates for a set of wards, in ward then bin ID order
+    @Query("SELECT b.binId AS binId, z.wardNumber AS wardNumber, b.latitude AS latitude, b.longitude AS longitude " +
+           "FROM Bin b JOIN b.zone z WHERE z.wardNumber IN :wardNumbers AND b.status = :status " +
+           "ORDER BY z.wardNumber, b.binId")
+    List<BinLocationView> findBinLocationsByWardNumbersAndStatus(@Param("wardNumbers") List<Integer> wardNumbers,
+                                                                  @Param("status") Bin.BinStatus status);
+
+    // A single bin's ward and coordinates
+    @Query("SELECT b.binId AS binId, z.wardNumber AS wardNumber, b.latitude AS latitude, b.longitude AS longitude " +
+           "FROM Bin b LEFT JOIN b.zone z WHERE b.binId = :binId")
+    Optional<BinLocationView> findLocationByBinId(@Param("binId") String binId);
+
+    // Mean bin position per ward, over bins that have coordinates
+    @Query("SELECT z.wardNumber AS wardNumber, AVG(b.latitude) AS latitude, AVG(b.longitude) AS longitude " +
+           "FROM Bin b JOIN b.zone z WHERE b.latitude IS NOT NULL AND b.longitude IS NOT NULL " +
+           "GROUP BY z.wardNumber")
+    List<WardCentroidView> findWardCentroids();
+}
@@ -0,0 +1,178 @@
+package com.csse.ecocollectbackend.resident.service;
+
+import com.csse.ecocollectbackend.resident.entity.Bin;
+import com.csse.ecocollectbackend.resident.repository.BinRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of active bin IDs per ward
+ *
+ * A ward is loaded from the bins table the first time it is asked for, using
+ * the (zone_id, status) index. After that it is kept current by onBinChanged,
+ * which BinServiceImpl and the collector flow call whenever they save a bin; the
+ * change is applied once the saving transaction commits, so a rollback leaves the
+ * index alone. A ward loads outside the map; changes that commit while it loads are
+ * queued and replayed over the loaded IDs, since the load may have read before them.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActiveBinIndex {
+
+    // Numeric-looking IDs sort by value ("9" before "10"), others fall back to text order
+    private static final Comparator<String> BIN_ID_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private final BinRepository binRepository;
+
+    private final Map<Integer, WardBins> activeBinsByWard = new ConcurrentHashMap<>();
+    private final Map<String, Integer> wardByBin = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the active bin IDs for a ward in bin ID order
+     */
+    public List<String> getActiveBinIds(Integer wardNumber) {
+        WardBins ward = activeBinsByWard.get(wardNumber);
+        if (ward == null) {
+            WardBins loading = new WardBins();
+            ward = activeBinsByWard.putIfAbsent(wardNumber, loading);
+            if (ward == null) {
+                ward = loading;
+                try {
+                    loading.loaded(loadWard(wardNumber));
+                } catch (RuntimeException e) {
+                    activeBinsByWard.remove(wardNumber, loading);
+                    loading.failed(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return new ArrayList<>(ward.binIds.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Applies a saved bin to the index once the current transaction commits, moving or dropping
+     * it as its ward and status require
+     */
+    public void onBinChanged(Bin bin) {
+        if (bin == null || bin.getBinId() == null) {
+            return;
+        }
+
+        // Read now, while the bin's zone can still be loaded
+        String binId = bin.getBinId();
+        Integer wardNumber = bin.getZone() != null ? bin.getZone().getWardNumber() : null;
+        boolean active = bin.getStatus() == Bin.BinStatus.Active;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(binId, wardNumber, active);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(binId, wardNumber, active);
+            }
+        });
+    }
+
+    /**
+     * Drops all cached wards so they are reloaded on next use
+     */
+    public void invalidateAll() {
+        activeBinsByWard.clear();
+        wardByBin.clear();
+    }
+
+    private void apply(String binId, Integer wardNumber, boolean active) {
+        Integer previousWard = wardNumber != null
+                ? wardByBin.put(binId, wardNumber)
+                : wardByBin.remove(binId);
+
+        if (previousWard != null && !previousWard.equals(wardNumber)) {
+            WardBins previous = activeBinsByWard.get(previousWard);
+            if (previous != null) {
+                previous.change(binId, false);
+            }
+        }
+
+        if (wardNumber == null) {
+            return;
+        }
+        WardBins current = activeBinsByWard.get(wardNumber);
+        if (current == null) {
+            // Ward not loaded yet - it will pick the bin up from the database on first use
+            return;
+        }
+        current.change(binId, active);
+    }
+
+    private NavigableSet<String> loadWard(Integer wardNumber) {
+        NavigableSet<String> binIds = new ConcurrentSkipListSet<>(BIN_ID_ORDER);
+        for (String binId : binRepository.findBinIdsByWardNumberAndStatus(wardNumber, Bin.BinStatus.Active)) {
+            binIds.add(binId);
+            // A bin moved by a change applied during the load keeps its newer ward
+            wardByBin.putIfAbsent(binId, wardNumber);
+        }
+        return binIds;
+    }
+
+    /**
+     * One ward's active bin IDs, with the changes that commit while they load
+     */
+    private static final class WardBins {
+        private final CompletableFuture<NavigableSet<String>> binIds = new CompletableFuture<>();
+        private List<BinChange> changesDuringLoad = new ArrayList<>();
+
+        synchronized void change(String binId, boolean active) {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(new BinChange(binId, active));
+            } else if (!binIds.isCompletedExceptionally()) {
+                set(binIds.join(), binId, active);
+            }
+        }
+
+        // Replayed in commit order, so a bin changed twice during the load ends in its last state
+        synchronized void loaded(NavigableSet<String> loaded) {
+            for (BinChange change : changesDuringLoad) {
+                set(loaded, change.binId(), change.active());
+            }
+            changesDuringLoad = null;
+            binIds.complete(loaded);
+        }
+
+        synchronized void failed(RuntimeException e) {
+            changesDuringLoad = null;
+            binIds.completeExceptionally(e);
+        }
+
+        private static void set(NavigableSet<String> binIds, String binId, boolean active) {
+            if (active) {
+                binIds.add(binId);
+            } else {
+                binIds.remove(binId);
+            }
+        }
+    }
+
+    private record BinChange(String binId, boolean active) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.csse.ecocollectbackend.resident.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.DistanceFunction;
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.DistanceMatrix;
+import com.csse.ecocollectbackend.dispatcher.routes.optimizer.GeoDistance;
+import com.csse.ecocollectbackend.resident.dto.BinLocationView;
+import com.csse.ecocollectbackend.resident.entity.Bin;
+import com.csse.ecocollectbackend.resident.repository.BinRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Per-ward distance matrices between bins, keyed by bin ID
+ *
+ * A ward's matrix is built from its active, geocoded bins the first time it is asked
+ * for, in parallel, into a memory-mapped file under ecocollect.distance-matrix.directory.
+ * After that onBinChanged appends or moves single bins, so registering a bin costs one
+ * row of distances rather than a rebuild. Each ward holds a future while its matrix builds, so
+ * callers for the same ward wait on one build without blocking the map for other wards.
+ */
+@Service
+@Slf4j
+public class BinDistanceMatrixStore {
+
+    private final BinRepository binRepository;
+    private final Path directory;
+    private final ForkJoinPool buildPool;
+
+    private final Map<Integer, CompletableFuture<DistanceMatrix>> matricesByWard = new ConcurrentHashMap<>();
+
+    public BinDistanceMatrixStore(BinRepository binRepository,
+                                  @Value("${ecocollect.distance-matrix.directory:${java.io.tmpdir}/ecocollect-distance-matrix}") String directory,
+                                  @Value("${ecocollect.distance-matrix.parallelism:0}") int parallelism) {
+        this.binRepository = binRepository;
+        this.directory = Path.of(directory);
+        this.buildPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the ward's distance matrix, building it on first use
+     */
+    public DistanceMatrix getMatrix(Integer wardNumber) {
+        CompletableFuture<DistanceMatrix> matrix = matricesByWard.get(wardNumber);
+        if (matrix == null) {
+            CompletableFuture<DistanceMatrix> building = new CompletableFuture<>();
+            matrix = matricesByWard.putIfAbsent(wardNumber, building);
+            if (matrix == null) {
+                // Built outside the map, so only callers for this ward wait on it
+                matrix = building;
+                try {
+                    building.complete(build(wardNumber));
+                } catch (RuntimeException e) {
+                    matricesByWard.remove(wardNumber, building);
+                    building.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return matrix.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Distance function over the given bins of a ward, addressed by their position in binIds
+     *
+     * Reads from the ward's matrix when every bin is in it, and falls back to computing
+     * haversine distances from the given coordinates otherwise.
+     */
+    public DistanceFunction distanceFunction(Integer wardNumber, List<String> binIds,
+                                             double[] latitudes, double[] longitudes) {
+        if (wardNumber != null) {
+            DistanceMatrix matrix = getMatrix(wardNumber);
+            int[] indexes = new int[binIds.size()];
+            boolean complete = true;
+            for (int i = 0; i < indexes.length && complete; i++) {
+                indexes[i] = matrix.indexOf(binIds.get(i));
+                complete = indexes[i] >= 0;
+            }
+            if (complete) {
+                return matrix.over(indexes);
+            }
+        }
+        return (from, to) -> GeoDistance.haversineMeters(latitudes[from], longitudes[from], latitudes[to], longitudes[to]);
+    }
+
+    /**
+     * Applies a saved bin to its ward's matrix if that matrix is loaded
+     *
+     * Bins are never removed, since route stops can still point at inactive bins; their
+     * rows simply stop being looked up.
+     */
+    public void onBinChanged(Bin bin) {
+        if (bin == null || bin.getBinId() == null || bin.getZone() == null
+                || bin.getLatitude() == null || bin.getLongitude() == null) {
+            return;
+        }
+        CompletableFuture<DistanceMatrix> matrix = matricesByWard.get(bin.getZone().getWardNumber());
+        if (matrix != null && bin.getStatus() == Bin.BinStatus.Active) {
+            // Not loaded yet means the bin is picked up from the database on first use; a build
+            // in progress may have read the bins before this one, so it is applied once it finishes
+            matrix.thenAccept(loaded -> loaded.put(bin.getBinId(), bin.getLatitude(), bin.getLongitude()));
+        }
+    }
+
+    /**
+     * Drops a ward's matrix so it is rebuilt on next use
+     */
+    public void invalidate(Integer wardNumber) {
+        CompletableFuture<DistanceMatrix> matrix = matricesByWard.remove(wardNumber);
+        if (matrix != null) {
+            matrix.thenAccept(DistanceMatrix::close);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matricesByWard.keySet().forEach(this::invalidate);
+        buildPool.shutdown();
+    }
+
+    private DistanceMatrix build(Integer wardNumber) {
+        long started = System.currentTimeMillis();
+        List<String> binIds = new ArrayList<>();
+        List<double[]> coordinates = new ArrayList<>();
+        for (BinLocationView bin : binRepository.findBinLocationsByWardNumbersAndStatus(List.of(wardNumber), Bin.BinStatus.Active)) {
+            if (bin.getLatitude() != null && bin.getLongitude() != null) {
+                binIds.add(bin.getBinId());
+                coordinates.add(new double[] { bin.getLatitude(), bin.getLongitude() });
+            }
+        }
+
+        double[] latitudes = new double[binIds.size()];
+        double[] longitudes = new double[binIds.size()];
+        for (int i = 0; i < binIds.size(); i++) {
+            latitudes[i] = coordinates.get(i)[0];
+            longitudes[i] = coordinates.get(i)[1];
+        }
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create distance matrix directory " + directory, e);
+        }
+        DistanceMatrix matrix = DistanceMatrix.build(directory.resolve("ward-" + wardNumber + ".dm"),
+                binIds, latitudes, longitudes, buildPool);
+        log.info("Built distance matrix for ward {}: {} bins in {} ms",
+                 wardNumber, binIds.size(), System.currentTimeMillis() - started);
+        return matrix;
+    }
+}
@@ -3,6 +3,8 @@ package com.csse.ecocollectbackend.resident.service.impl;
 import com.csse.ecocollectbackend.resident.dto.BinSummary;
 import com.csse.ecocollectbackend.resident.entity.Bin;
 import com.csse.ecocollectbackend.resident.repository.BinRepository;
+import com.csse.ecocollectbackend.resident.service.ActiveBinIndex;
+import com.csse.ecocollectbackend.resident.service.BinDistanceMatrixStore;
 import com.csse.ecocollectbackend.resident.service.BinService;
 import com.csse.ecocollectbackend.login.entity.User;
 import org.springframework.stereotype.Service;
@@ -15,9 +17,14 @@ import java.util.List;
 public class BinServiceImpl implements BinService {
 
     private final BinRepository binRepository;
+    private final ActiveBinIndex activeBinIndex;
+    private final BinDistanceMatrixStore binDistanceMatrixStore;
 
-    public BinServiceImpl(BinRepository binRepository) {
+    public BinServiceImpl(BinRepository binRepository, ActiveBinIndex activeBinIndex,
+                          BinDistanceMatrixStore binDistanceMatrixStore) {
         this.binRepository = binRepository;
+        this.activeBinIndex = activeBinIndex;
+        this.binDistanceMatrixStore = binDistanceMatrixStore;
     }
 
     @Override
@@ -62,7 +69,10 @@ public class BinServiceImpl implements BinService {
         bin.setResident(resident);
         bin.setStatus(Bin.BinStatus.Active);
         bin.setCreatedAt(LocalDateTime.now());
-        return binRepository.save(bin);
+        Bin saved = binRepository.save(bin);
+        activeBinIndex.onBinChanged(saved);
+        binDistanceMatrixStore.onBinChanged(saved);
+        return saved;
     }
 
     @Override
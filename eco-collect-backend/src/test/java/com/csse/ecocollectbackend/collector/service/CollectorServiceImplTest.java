@@ -0,0 +1,117 @@
+package com.csse.ecocollectbackend.collector.service;
+
+import com.csse.ecocollectbackend.collector.dto.CollectorRouteDTO;
+import com.csse.ecocollectbackend.collector.dto.CollectorRouteStopDTO;
+import com.csse.ecocollectbackend.collector.service.impl.CollectorServiceImpl;
+import com.csse.ecocollectbackend.common.model.Role;
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.zones.entity.Zone;
+import com.csse.ecocollectbackend.login.entity.User;
+import com.csse.ecocollectbackend.resident.entity.Bin;
+import com.csse.ecocollectbackend.resident.service.ActiveBinIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CollectorServiceImpl.class, ActiveBinIndex.class})
+class CollectorServiceImplTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CollectorService collectorService;
+
+    @MockitoBean
+    private RouteStopBatchRepository routeStopBatchRepository;
+
+    @MockitoBean
+    private ChangeVersionService changeVersionService;
+
+    @Test
+    void getTodaysRoutesUsesConstantQueriesAndOrdersStops() {
+        User collector = persistUser("Collector One", Role.Collector);
+        User dispatcher = persistUser("Dispatcher One", Role.Dispatcher);
+
+        // Both zone entities map the zones table; the resident mapping carries the ward columns
+        com.csse.ecocollectbackend.resident.entity.Zone ward = new com.csse.ecocollectbackend.resident.entity.Zone();
+        ward.setZoneName("North");
+        ward.setWardNumber(1);
+        ward.setWardName("Ward 1");
+        entityManager.persistAndFlush(ward);
+        Zone zone = entityManager.find(Zone.class, ward.getZoneId().longValue());
+
+        for (int i = 1; i <= 2; i++) {
+            Route route = new Route();
+            route.setRouteName("Route " + i);
+            route.setZone(zone);
+            route.setCollectionDate(LocalDate.now());
+            route.setDispatcher(dispatcher);
+            route.setCollector(collector);
+            entityManager.persist(route);
+
+            // Insert stops out of order to check the payload comes back in stopOrder
+            for (int stopOrder : new int[] {3, 1, 2}) {
+                Bin bin = new Bin();
+                bin.setBinId(i + "-" + stopOrder);
+                bin.setRoute(route);
+                bin.setZone(ward);
+                bin.setCollector(collector);
+                bin.setLocation("Street " + stopOrder);
+                entityManager.persist(bin);
+
+                RouteStop stop = new RouteStop();
+                stop.setRoute(route);
+                stop.setBin(bin);
+                stop.setStopOrder(stopOrder);
+                entityManager.persist(stop);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<CollectorRouteDTO> routes = collectorService.getTodaysRoutes(collector.getUserId());
+
+        assertEquals(2, routes.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected at most 2 statements but was " + statistics.getPrepareStatementCount());
+        for (CollectorRouteDTO route : routes) {
+            List<Integer> stopOrders = route.getStops().stream().map(CollectorRouteStopDTO::getStopOrder).toList();
+            assertEquals(List.of(1, 2, 3), stopOrders);
+            assertEquals("Street 1", route.getStops().get(0).getLocation());
+        }
+    }
+
+    private User persistUser(String name, Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.replace(' ', '.').toLowerCase() + "@example.com");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,51 @@
+package com.csse.ecocollectbackend.dispatcher.routes.entity;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop.StopStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteStopStatusTest {
+
+    @Test
+    void allowsTheDocumentedTransitions() {
+        assertTrue(StopStatus.PENDING.canTransitionTo(StopStatus.IN_PROGRESS));
+        assertTrue(StopStatus.PENDING.canTransitionTo(StopStatus.DONE));
+        assertTrue(StopStatus.IN_PROGRESS.canTransitionTo(StopStatus.PENDING));
+        assertTrue(StopStatus.IN_PROGRESS.canTransitionTo(StopStatus.MISSED));
+        assertTrue(StopStatus.MISSED.canTransitionTo(StopStatus.DONE));
+        assertTrue(StopStatus.MISSED.canTransitionTo(StopStatus.SKIPPED));
+        assertTrue(StopStatus.SKIPPED.canTransitionTo(StopStatus.PENDING));
+        assertTrue(StopStatus.SKIPPED.canTransitionTo(StopStatus.MISSED));
+    }
+
+    @Test
+    void rejectsLeavingDoneAndStayingPut() {
+        for (StopStatus next : StopStatus.values()) {
+            assertFalse(StopStatus.DONE.canTransitionTo(next), "DONE -> " + next);
+        }
+        for (StopStatus status : StopStatus.values()) {
+            // Staying in a status is not a transition; writers treat it as a no-op instead
+            assertFalse(status.canTransitionTo(status), status + " -> " + status);
+            assertFalse(status.canTransitionTo(null), status + " -> null");
+        }
+    }
+
+    @Test
+    void predecessorsIncludeTheStatusItself() {
+        assertEquals(EnumSet.allOf(StopStatus.class), StopStatus.predecessorsOf(StopStatus.DONE));
+        assertEquals(EnumSet.of(StopStatus.PENDING, StopStatus.IN_PROGRESS, StopStatus.MISSED, StopStatus.SKIPPED),
+                StopStatus.predecessorsOf(StopStatus.PENDING));
+        for (StopStatus next : StopStatus.values()) {
+            assertTrue(StopStatus.predecessorsOf(next).contains(next), next.toString());
+            if (next != StopStatus.DONE) {
+                // DONE is final, so it only ever precedes itself
+                assertFalse(StopStatus.predecessorsOf(next).contains(StopStatus.DONE), next.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.csse.ecocollectbackend.dispatcher.routes.optimizer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistanceMatrixTest {
+
+    // 32 floats per segment, so a few dozen bins span many segments and rows straddle their boundaries
+    private static final int SMALL_SEGMENT_SHIFT = 5;
+    private static final double TOLERANCE_METERS = 0.5;
+
+    private static ForkJoinPool pool;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void buildMatchesHaversineAcrossSegments() {
+        Random random = new Random(3);
+        int n = 30;
+        List<String> binIds = new ArrayList<>();
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        fill(random, binIds, lat, lng);
+
+        try (DistanceMatrix matrix = DistanceMatrix.build(directory.resolve("ward.dm"), binIds, lat, lng, pool,
+                SMALL_SEGMENT_SHIFT)) {
+            assertEquals(n, matrix.size());
+            assertDistances(matrix, binIds, lat, lng);
+        }
+    }
+
+    @Test
+    void putAppendsAndMovesBinsUpdatingBothTriangles() {
+        Random random = new Random(5);
+        List<String> binIds = new ArrayList<>();
+        double[] lat = new double[40];
+        double[] lng = new double[40];
+        fill(random, binIds, lat, lng);
+
+        try (DistanceMatrix matrix = DistanceMatrix.build(directory.resolve("ward.dm"), binIds.subList(0, 10),
+                lat, lng, pool, SMALL_SEGMENT_SHIFT)) {
+            // Appending grows the file past several segment boundaries
+            for (int i = 10; i < 40; i++) {
+                assertEquals(i, matrix.put(binIds.get(i), lat[i], lng[i]));
+            }
+            assertDistances(matrix, binIds, lat, lng);
+
+            // Moving a bin rewrites its row (lower triangle) and its column in later rows (upper triangle)
+            for (int moved : new int[] { 0, 17, 39 }) {
+                lat[moved] = 6.9 + random.nextDouble() * 0.1;
+                lng[moved] = 79.8 + random.nextDouble() * 0.1;
+                assertEquals(moved, matrix.put(binIds.get(moved), lat[moved], lng[moved]));
+            }
+            assertEquals(40, matrix.size());
+            assertDistances(matrix, binIds, lat, lng);
+        }
+    }
+
+    @Test
+    void rebuildReplacesTheFileAndClosingTheOldMatrixKeepsIt() {
+        Random random = new Random(9);
+        List<String> binIds = new ArrayList<>();
+        double[] lat = new double[20];
+        double[] lng = new double[20];
+        fill(random, binIds, lat, lng);
+        Path file = directory.resolve("ward.dm");
+
+        DistanceMatrix old = DistanceMatrix.build(file, binIds.subList(0, 5), lat, lng, pool, SMALL_SEGMENT_SHIFT);
+        try (DistanceMatrix rebuilt = DistanceMatrix.build(file, binIds, lat, lng, pool, SMALL_SEGMENT_SHIFT)) {
+            // The old mapping still reads its own distances after the rename
+            assertDistances(old, binIds.subList(0, 5), lat, lng);
+            old.close();
+
+            assertTrue(Files.exists(file));
+            assertDistances(rebuilt, binIds, lat, lng);
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    private static void fill(Random random, List<String> binIds, double[] lat, double[] lng) {
+        for (int i = 0; i < lat.length; i++) {
+            binIds.add("BIN-" + i);
+            lat[i] = 6.8 + random.nextDouble() * 0.2;
+            lng[i] = 79.8 + random.nextDouble() * 0.2;
+        }
+    }
+
+    private static void assertDistances(DistanceMatrix matrix, List<String> binIds, double[] lat, double[] lng) {
+        for (int i = 0; i < binIds.size(); i++) {
+            assertEquals(i, matrix.indexOf(binIds.get(i)));
+            assertEquals(0f, matrix.distance(i, i));
+            for (int j = 0; j < i; j++) {
+                double expected = GeoDistance.haversineMeters(lat[i], lng[i], lat[j], lng[j]);
+                assertEquals(expected, matrix.distance(i, j), TOLERANCE_METERS, i + "," + j);
+                assertEquals(matrix.distance(i, j), matrix.distance(j, i), i + "," + j);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.csse.ecocollectbackend.dispatcher.routes.optimizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StopSequenceOptimizerTest {
+
+    private static final long NO_LIMIT = Long.MAX_VALUE;
+
+    @Test
+    void neverLongerThanTheNearestNeighbourSeed() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            int size = 3 + random.nextInt(40);
+            DistanceFunction distance = randomPoints(random, size);
+
+            double seed = StopSequenceOptimizer.pathLength(StopSequenceOptimizer.nearestNeighbour(size, distance), distance);
+            int[] tour = StopSequenceOptimizer.optimize(size, distance, NO_LIMIT);
+
+            assertPermutation(size, tour);
+            assertTrue(StopSequenceOptimizer.pathLength(tour, distance) <= seed + 1e-6, "trial " + trial);
+        }
+    }
+
+    @Test
+    void returnsThePermutationWhenTheDeadlineHasPassed() {
+        Random random = new Random(11);
+        int size = 25;
+        DistanceFunction distance = randomPoints(random, size);
+
+        int[] tour = StopSequenceOptimizer.optimize(size, distance, System.nanoTime() - 1);
+
+        assertPermutation(size, tour);
+        assertArrayEquals(StopSequenceOptimizer.nearestNeighbour(size, distance), tour);
+    }
+
+    @Test
+    void handlesTinyInputs() {
+        DistanceFunction distance = (from, to) -> Math.abs(from - to);
+
+        assertArrayEquals(new int[0], StopSequenceOptimizer.optimize(0, distance, NO_LIMIT));
+        assertArrayEquals(new int[] { 0 }, StopSequenceOptimizer.optimize(1, distance, NO_LIMIT));
+        assertArrayEquals(new int[] { 0, 1 }, StopSequenceOptimizer.optimize(2, distance, NO_LIMIT));
+    }
+
+    private static DistanceFunction randomPoints(Random random, int size) {
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = random.nextDouble() * 1000;
+            y[i] = random.nextDouble() * 1000;
+        }
+        return (from, to) -> Math.hypot(x[from] - x[to], y[from] - y[to]);
+    }
+
+    private static void assertPermutation(int size, int[] tour) {
+        int[] sorted = tour.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(IntStream.range(0, size).toArray(), sorted);
+    }
+}
@@ -0,0 +1,118 @@
+package com.csse.ecocollectbackend.dispatcher.routes.service.impl;
+
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.dispatcher.routes.dto.RouteStopOwnerRow;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop.StopStatus;
+import com.csse.ecocollectbackend.dispatcher.routes.event.RouteStopChangedEvent;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopBatchRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
+import com.csse.ecocollectbackend.dispatcher.routes.service.LiveEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.PlannedEtaService;
+import com.csse.ecocollectbackend.dispatcher.routes.service.RouteProgressTracker;
+import com.csse.ecocollectbackend.followup.service.FollowupService;
+import com.csse.ecocollectbackend.login.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RouteStopServiceImplTest {
+
+    private static final int STOP_ID = 7;
+    private static final int ROUTE_ID = 3;
+
+    private RouteStopRepository routeStopRepository;
+    private RouteStopBatchRepository routeStopBatchRepository;
+    private RouteProgressTracker routeProgressTracker;
+    private ApplicationEventPublisher eventPublisher;
+    private RouteStopServiceImpl service;
+    private RouteStop stop;
+
+    @BeforeEach
+    void setUp() {
+        routeStopRepository = mock(RouteStopRepository.class);
+        routeStopBatchRepository = mock(RouteStopBatchRepository.class);
+        routeProgressTracker = mock(RouteProgressTracker.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        ChangeVersionService changeVersionService = mock(ChangeVersionService.class);
+        service = new RouteStopServiceImpl(routeStopRepository, mock(UserRepository.class), mock(FollowupService.class),
+                mock(LiveEtaService.class), mock(PlannedEtaService.class), routeProgressTracker,
+                routeStopBatchRepository, changeVersionService, eventPublisher);
+
+        stop = new RouteStop();
+        stop.setStopId(STOP_ID);
+        when(changeVersionService.current()).thenReturn(42L);
+        when(routeStopRepository.findById(STOP_ID)).thenReturn(Optional.of(stop));
+    }
+
+    @Test
+    void retriesWhenTheStatusChangesBetweenReadAndWrite() {
+        when(routeStopBatchRepository.findOwner(STOP_ID))
+                .thenReturn(owner(StopStatus.PENDING), owner(StopStatus.IN_PROGRESS));
+        when(compareAndSet(StopStatus.PENDING)).thenReturn(0);
+        when(compareAndSet(StopStatus.IN_PROGRESS)).thenReturn(1);
+
+        assertSame(stop, service.updateRouteStopStatus(STOP_ID, StopStatus.DONE));
+
+        verify(routeStopBatchRepository, times(2)).findOwner(STOP_ID);
+        verify(routeProgressTracker).onStopChanged(ROUTE_ID, StopStatus.IN_PROGRESS, false, StopStatus.DONE, false);
+        verify(eventPublisher).publishEvent(any(RouteStopChangedEvent.class));
+    }
+
+    @Test
+    void givesUpAfterRepeatedConflicts() {
+        when(routeStopBatchRepository.findOwner(STOP_ID)).thenReturn(owner(StopStatus.PENDING));
+        when(compareAndSet(StopStatus.PENDING)).thenReturn(0);
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> service.updateRouteStopStatus(STOP_ID, StopStatus.DONE));
+
+        assertTrue(e.getMessage().contains("concurrently"), e.getMessage());
+        verify(routeStopRepository, times(5)).compareAndSetStatus(eq(STOP_ID), eq(StopStatus.PENDING),
+                eq(StopStatus.DONE), any(), eq(StopStatus.PENDING), any(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void rejectsLeavingDoneWithoutWriting() {
+        when(routeStopBatchRepository.findOwner(STOP_ID)).thenReturn(owner(StopStatus.DONE));
+
+        assertThrows(RuntimeException.class, () -> service.updateRouteStopStatus(STOP_ID, StopStatus.PENDING));
+
+        verify(routeStopRepository, never()).compareAndSetStatus(any(), any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void sameStatusIsANoOp() {
+        // A stop without a status counts as PENDING
+        when(routeStopBatchRepository.findOwner(STOP_ID)).thenReturn(owner(null));
+
+        assertSame(stop, service.updateRouteStopStatus(STOP_ID, StopStatus.PENDING));
+
+        verify(routeStopRepository, never()).compareAndSetStatus(any(), any(), any(), any(), any(), any(), anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private int compareAndSet(StopStatus expected) {
+        return routeStopRepository.compareAndSetStatus(eq(STOP_ID), eq(expected), eq(StopStatus.DONE),
+                eq(StopStatus.predecessorsOf(StopStatus.DONE)), eq(StopStatus.PENDING), any(), eq(42L));
+    }
+
+    private static RouteStopOwnerRow owner(StopStatus status) {
+        return new RouteStopOwnerRow(STOP_ID, ROUTE_ID, "BIN-1", 10, 20, null, status, false, null);
+    }
+}
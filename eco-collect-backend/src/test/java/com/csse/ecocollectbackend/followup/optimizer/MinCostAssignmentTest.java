@@ -0,0 +1,93 @@
+package com.csse.ecocollectbackend.followup.optimizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinCostAssignmentTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void matchesBruteForceOnSmallRandomInstances() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 500; trial++) {
+            int items = random.nextInt(7);
+            int groups = 1 + random.nextInt(3);
+            double[][] cost = new double[items][groups];
+            double[] unassignedCost = new double[items];
+            int[] capacity = new int[groups];
+            for (int g = 0; g < groups; g++) {
+                capacity[g] = random.nextInt(4);
+            }
+            for (int i = 0; i < items; i++) {
+                for (int g = 0; g < groups; g++) {
+                    cost[i][g] = random.nextInt(100);
+                }
+                unassignedCost[i] = random.nextInt(150);
+            }
+
+            int[] result = MinCostAssignment.solve(cost, capacity, unassignedCost);
+
+            assertEquals(items, result.length);
+            int[] used = new int[groups];
+            for (int group : result) {
+                assertTrue(group >= -1 && group < groups);
+                if (group >= 0) {
+                    used[group]++;
+                }
+            }
+            for (int g = 0; g < groups; g++) {
+                assertTrue(used[g] <= capacity[g], "group " + g + " over capacity in trial " + trial);
+            }
+            assertEquals(bruteForce(cost, capacity, unassignedCost, new int[groups], 0),
+                    total(cost, unassignedCost, result), EPSILON, "trial " + trial);
+        }
+    }
+
+    @Test
+    void leavesItemUnassignedOnlyWhenCheaper() {
+        double[][] cost = { { 10 }, { 10 } };
+
+        int[] result = MinCostAssignment.solve(cost, new int[] { 1 }, new double[] { 5, 50 });
+
+        assertArrayEquals(new int[] { -1, 0 }, result);
+    }
+
+    @Test
+    void ignoresZeroAndNegativeCapacity() {
+        double[][] cost = { { 1, 1 } };
+
+        int[] result = MinCostAssignment.solve(cost, new int[] { 0, -3 }, new double[] { 100 });
+
+        assertArrayEquals(new int[] { -1 }, result);
+    }
+
+    // Cheapest total over every capacity-respecting choice of group or unassigned for items from item on
+    private static double bruteForce(double[][] cost, int[] capacity, double[] unassignedCost, int[] used, int item) {
+        if (item == cost.length) {
+            return 0;
+        }
+        double best = unassignedCost[item] + bruteForce(cost, capacity, unassignedCost, used, item + 1);
+        for (int g = 0; g < capacity.length; g++) {
+            if (used[g] < capacity[g]) {
+                used[g]++;
+                best = Math.min(best, cost[item][g] + bruteForce(cost, capacity, unassignedCost, used, item + 1));
+                used[g]--;
+            }
+        }
+        return best;
+    }
+
+    private static double total(double[][] cost, double[] unassignedCost, int[] result) {
+        double total = 0;
+        for (int i = 0; i < result.length; i++) {
+            total += result[i] >= 0 ? cost[i][result[i]] : unassignedCost[i];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,120 @@
+package com.csse.ecocollectbackend.followup.service;
+
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.routes.repository.RouteStopRepository;
+import com.csse.ecocollectbackend.followup.dto.FollowupDto;
+import com.csse.ecocollectbackend.followup.dto.MissedStopCandidate;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import com.csse.ecocollectbackend.followup.repository.FollowupPickupRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FollowupDetectorTest {
+
+    private static final LocalDateTime FAILED_AT = LocalDateTime.of(2026, 10, 1, 9, 0);
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 10, 1, 12, 0);
+
+    private FollowupPickupRepository followupRepository;
+    private RouteStopRepository routeStopRepository;
+    private FollowupService followupService;
+    private FollowupDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        followupRepository = mock(FollowupPickupRepository.class);
+        routeStopRepository = mock(RouteStopRepository.class);
+        followupService = mock(FollowupService.class);
+        detector = new FollowupDetector(followupRepository, routeStopRepository, followupService,
+                mock(PlatformTransactionManager.class), 500, 0);
+
+        when(followupRepository.findStopsNeedingFollowup(anyList(), any(), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of(candidate(1, FAILED_AT), candidate(2, CREATED_AT)));
+        when(routeStopRepository.findByIdForUpdate(1)).thenReturn(Optional.of(stop(1)));
+        when(routeStopRepository.findByIdForUpdate(2)).thenReturn(Optional.of(stop(2)));
+        when(followupService.createFromRouteStopIfAbsent(stop(2), FollowupPickup.ReasonCode.MISSED))
+                .thenReturn(Optional.of(new FollowupDto()));
+    }
+
+    @Test
+    void failingStopStaysBehindTheMark() {
+        when(followupService.createFromRouteStopIfAbsent(stop(1), FollowupPickup.ReasonCode.MISSED))
+                .thenThrow(violation("ward_id", "Column 'ward_id' cannot be null"));
+
+        assertEquals(1, detector.detect());
+        detector.detect();
+
+        // The second run starts before the failed stop, so it is read again
+        LocalDateTime since = secondRunSince();
+        assertTrue(since.isBefore(FAILED_AT), "mark moved to " + since);
+    }
+
+    @Test
+    void duplicateSourceStopIsNotAFailure() {
+        when(followupService.createFromRouteStopIfAbsent(stop(1), FollowupPickup.ReasonCode.MISSED))
+                .thenThrow(violation(FollowupPickup.SOURCE_ROUTE_STOP_KEY,
+                        "Duplicate entry '1' for key 'followup_pickups." + FollowupPickup.SOURCE_ROUTE_STOP_KEY + "'"));
+
+        assertEquals(1, detector.detect());
+        detector.detect();
+
+        assertEquals(CREATED_AT, secondRunSince());
+    }
+
+    private LocalDateTime secondRunSince() {
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(followupRepository, times(2))
+                .findStopsNeedingFollowup(anyList(), since.capture(), eq(0), any(Pageable.class));
+        return since.getAllValues().get(1);
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName, String message) {
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, new SQLException(message, "23000"), constraintName));
+    }
+
+    private static MissedStopCandidate candidate(int stopId, LocalDateTime updatedAt) {
+        return new MissedStopCandidate() {
+            @Override
+            public Integer getStopId() {
+                return stopId;
+            }
+
+            @Override
+            public RouteStop.StopStatus getStatus() {
+                return RouteStop.StopStatus.MISSED;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return updatedAt;
+            }
+        };
+    }
+
+    private static RouteStop stop(int stopId) {
+        RouteStop stop = new RouteStop();
+        stop.setStopId(stopId);
+        return stop;
+    }
+}
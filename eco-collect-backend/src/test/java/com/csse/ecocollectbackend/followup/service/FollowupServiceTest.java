@@ -0,0 +1,177 @@
+package com.csse.ecocollectbackend.followup.service;
+
+import com.csse.ecocollectbackend.common.model.Role;
+import com.csse.ecocollectbackend.common.version.ChangeVersionService;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.Route;
+import com.csse.ecocollectbackend.dispatcher.routes.entity.RouteStop;
+import com.csse.ecocollectbackend.dispatcher.trucks.entity.Truck;
+import com.csse.ecocollectbackend.dispatcher.wards.entity.Ward;
+import com.csse.ecocollectbackend.dispatcher.zones.entity.Zone;
+import com.csse.ecocollectbackend.followup.dto.FollowupDto;
+import com.csse.ecocollectbackend.followup.dto.FollowupPageDto;
+import com.csse.ecocollectbackend.followup.entity.FollowupPickup;
+import com.csse.ecocollectbackend.followup.repository.FollowupBatchRepository;
+import com.csse.ecocollectbackend.login.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({FollowupService.class, FollowupBatchRepository.class})
+class FollowupServiceTest {
+
+    private static final int FOLLOWUP_COUNT = 6;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FollowupService followupService;
+
+    @MockitoBean
+    private ChangeVersionService changeVersionService;
+
+    @BeforeEach
+    void setUp() {
+        User dispatcher = persistUser("Dispatcher One", Role.Dispatcher);
+        User originalDriver = persistUser("Driver One", Role.Collector);
+        User newDriver = persistUser("Driver Two", Role.Collector);
+
+        // Both zone entities map the zones table; the resident mapping carries the ward columns
+        com.csse.ecocollectbackend.resident.entity.Zone zoneRow = new com.csse.ecocollectbackend.resident.entity.Zone();
+        zoneRow.setZoneName("North");
+        zoneRow.setWardNumber(1);
+        zoneRow.setWardName("Ward 1");
+        entityManager.persistAndFlush(zoneRow);
+        Zone zone = entityManager.find(Zone.class, zoneRow.getZoneId().longValue());
+
+        Ward ward = entityManager.persist(new Ward(zone, 1, "Ward 1"));
+
+        Truck truck = new Truck();
+        truck.setTruckName("Truck 1");
+        truck.setTruckType("Compactor");
+        truck.setCapacityKg(new BigDecimal("1000.00"));
+        entityManager.persist(truck);
+
+        Route route = new Route();
+        route.setRouteName("Route 1");
+        route.setZone(zone);
+        route.setCollectionDate(LocalDate.now());
+        route.setDispatcher(dispatcher);
+        route.setCollector(originalDriver);
+        entityManager.persist(route);
+
+        for (int i = 0; i < FOLLOWUP_COUNT; i++) {
+            RouteStop stop = new RouteStop();
+            stop.setRoute(route);
+            stop.setDriver(originalDriver);
+            stop.setStopOrder(i + 1);
+            stop.setStatus(RouteStop.StopStatus.MISSED);
+            entityManager.persist(stop);
+
+            FollowupPickup followup = FollowupPickup.builder()
+                    .sourceRouteStop(stop)
+                    .ward(ward)
+                    .binId(String.valueOf(i + 1))
+                    .wasteType(FollowupPickup.WasteType.General)
+                    .originalDriver(originalDriver)
+                    .newAssignedDriver(i % 2 == 0 ? newDriver : null)
+                    .assignedTruck(i % 2 == 0 ? truck : null)
+                    .dueAt(LocalDateTime.now().minusHours(i + 1))
+                    .reasonCode(FollowupPickup.ReasonCode.MISSED)
+                    .status(FollowupPickup.FollowupStatus.PENDING)
+                    .build();
+            entityManager.persist(followup);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void listingQueriesIssueOneStatementRegardlessOfRowCount() {
+        assertSingleStatement(followupService::getAll);
+        assertSingleStatement(() -> followupService.getByStatus(FollowupPickup.FollowupStatus.PENDING));
+        assertSingleStatement(followupService::getPending);
+        assertSingleStatement(followupService::getOverdue);
+    }
+
+    @Test
+    void flatRowsCarryAssociationFields() {
+        List<FollowupDto> followups = followupService.getAll();
+
+        FollowupDto assigned = followups.stream()
+                .filter(f -> f.getNewAssignedDriverId() != null)
+                .findFirst()
+                .orElseThrow();
+        assertNotNull(assigned.getSourceRouteStopId());
+        assertEquals("Ward 1", assigned.getWardName());
+        assertEquals("Driver One", assigned.getOriginalDriverName());
+        assertEquals("Driver Two", assigned.getNewAssignedDriverName());
+        assertEquals("Truck 1", assigned.getAssignedTruckName());
+    }
+
+    @Test
+    void keysetPagesIssueOneStatementEach() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        FollowupPageDto first = followupService.searchPage(null, null, null, null, 4);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(4, first.getItems().size());
+        assertTrue(first.isHasMore());
+
+        statistics.clear();
+        entityManager.clear();
+
+        FollowupPageDto second = followupService.searchPage(null, null, null, first.getNextCursor(), 4);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(FOLLOWUP_COUNT - 4, second.getItems().size());
+        assertFalse(second.isHasMore());
+        assertTrue(second.getItems().get(0).getDueAt().isAfter(first.getItems().get(3).getDueAt()));
+    }
+
+    private void assertSingleStatement(Supplier<List<FollowupDto>> listing) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        entityManager.clear();
+
+        List<FollowupDto> followups = listing.get();
+
+        assertEquals(FOLLOWUP_COUNT, followups.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private User persistUser(String name, Role role) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name.replace(' ', '.').toLowerCase() + "@example.com");
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}